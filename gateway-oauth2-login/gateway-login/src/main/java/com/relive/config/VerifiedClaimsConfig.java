@@ -0,0 +1,47 @@
+package com.relive.config;
+
+import com.relive.filter.VerifiedClaimsGatewayFilterFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.util.Assert;
+
+/**
+ * 网关边缘校验 JWT 配置类。
+ * <p>
+ * {@code gateway.verified-claims.enabled} 为 {@code true} 时，网关校验转发的访问令牌并向资源服务传递
+ * HMAC 保护的已校验声明，资源服务需配置相同的 {@code gateway.verified-claims.secret}。
+ * </p>
+ *
+ * @author ReLive
+ * @date 2026/10/17 21:05
+ */
+@Configuration(proxyBeanMethods = false)
+public class VerifiedClaimsConfig {
+
+    /**
+     * 已校验声明过滤器工厂，路由中以 {@code VerifiedClaims} 引用。
+     *
+     * @param jwkSetUri 授权服务 JWK Set 地址，{@link NimbusReactiveJwtDecoder} 会缓存获取到的 JWK Set
+     * @param issuerUri 授权服务 issuer，与资源服务一样校验 {@code iss} 声明
+     * @param secret    与资源服务共享的 HMAC 密钥
+     * @param enabled   是否开启边缘校验
+     * @return VerifiedClaimsGatewayFilterFactory
+     */
+    @Bean
+    public VerifiedClaimsGatewayFilterFactory verifiedClaimsGatewayFilterFactory(
+            @Value("${spring.security.oauth2.client.provider.gateway-client-provider.jwk-set-uri}") String jwkSetUri,
+            @Value("${gateway.verified-claims.issuer-uri:}") String issuerUri,
+            @Value("${gateway.verified-claims.secret:}") String secret,
+            @Value("${gateway.verified-claims.enabled:false}") boolean enabled) {
+        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri).build();
+        if (enabled) {
+            // 网关签发的声明会被资源服务直接信任，因此网关必须与资源服务执行相同的校验
+            Assert.hasText(issuerUri, "gateway.verified-claims.issuer-uri cannot be empty");
+            jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        }
+        return new VerifiedClaimsGatewayFilterFactory(jwtDecoder, secret, enabled);
+    }
+}
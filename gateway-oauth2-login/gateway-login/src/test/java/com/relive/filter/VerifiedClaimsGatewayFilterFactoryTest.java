@@ -0,0 +1,120 @@
+package com.relive.filter;
+
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 11:30
+ */
+public class VerifiedClaimsGatewayFilterFactoryTest {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String ACCESS_TOKEN = "access-token";
+    private static final String CLIENT_VERIFIED_CLAIMS = "eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJyb290In0.forged";
+    private final ReactiveJwtDecoder jwtDecoder = token -> ACCESS_TOKEN.equals(token)
+            ? Mono.just(Jwt.withTokenValue(token)
+            .header("alg", "RS256")
+            .subject("admin")
+            .claim("authorities", "ROLE_OPERATION")
+            .issuedAt(Instant.now())
+            .expiresAt(Instant.now().plus(Duration.ofMinutes(5)))
+            .build())
+            : Mono.error(new BadJwtException("Invalid access token"));
+
+    @Test
+    public void applyWhenAccessTokenValidThenVerifiedClaimsBoundToAccessToken() throws Exception {
+        ServerHttpRequest request = this.filter(true, ACCESS_TOKEN, null);
+
+        SignedJWT verifiedClaims = SignedJWT.parse(request.getHeaders().getFirst(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER));
+        assertTrue(verifiedClaims.verify(new MACVerifier(SECRET.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("admin", verifiedClaims.getJWTClaimsSet().getSubject());
+        assertEquals("ROLE_OPERATION", verifiedClaims.getJWTClaimsSet().getClaim("authorities"));
+        assertEquals(accessTokenHash(ACCESS_TOKEN), verifiedClaims.getJWTClaimsSet().getClaim("ath"));
+    }
+
+    @Test
+    public void applyWhenClientSendsVerifiedClaimsThenReplaced() throws Exception {
+        ServerHttpRequest request = this.filter(true, ACCESS_TOKEN, CLIENT_VERIFIED_CLAIMS);
+
+        assertEquals(1, request.getHeaders().get(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER).size());
+        SignedJWT verifiedClaims = SignedJWT.parse(request.getHeaders().getFirst(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER));
+        assertEquals("admin", verifiedClaims.getJWTClaimsSet().getSubject());
+    }
+
+    @Test
+    public void applyWhenAccessTokenInvalidThenClientVerifiedClaimsRemoved() {
+        ServerHttpRequest request = this.filter(true, "tampered-access-token", CLIENT_VERIFIED_CLAIMS);
+
+        assertFalse(request.getHeaders().containsKey(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER));
+        assertEquals("Bearer tampered-access-token", request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    public void applyWhenNoAccessTokenThenClientVerifiedClaimsRemoved() {
+        ServerHttpRequest request = this.filter(true, null, CLIENT_VERIFIED_CLAIMS);
+
+        assertFalse(request.getHeaders().containsKey(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER));
+    }
+
+    @Test
+    public void applyWhenDisabledThenClientVerifiedClaimsRemoved() {
+        ServerHttpRequest request = this.filter(false, ACCESS_TOKEN, CLIENT_VERIFIED_CLAIMS);
+
+        assertFalse(request.getHeaders().containsKey(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER));
+    }
+
+    @Test
+    public void constructorWhenEnabledWithPlaceholderSecretThenThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new VerifiedClaimsGatewayFilterFactory(this.jwtDecoder, "change-me-to-a-generated-secret-0123", true));
+        assertThrows(IllegalArgumentException.class,
+                () -> new VerifiedClaimsGatewayFilterFactory(this.jwtDecoder, "too-short", true));
+        assertThrows(IllegalArgumentException.class,
+                () -> new VerifiedClaimsGatewayFilterFactory(this.jwtDecoder, null, true));
+    }
+
+    private ServerHttpRequest filter(boolean enabled, String accessToken, String verifiedClaims) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/resource/article");
+        if (accessToken != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+        }
+        if (verifiedClaims != null) {
+            request.header(VerifiedClaimsGatewayFilterFactory.VERIFIED_CLAIMS_HEADER, verifiedClaims);
+        }
+        GatewayFilter filter = new VerifiedClaimsGatewayFilterFactory(this.jwtDecoder, enabled ? SECRET : null, enabled)
+                .apply(new Object());
+        AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+        filter.filter(MockServerWebExchange.from(request), exchange -> {
+            forwarded.set(exchange.getRequest());
+            return Mono.empty();
+        }).block(Duration.ofSeconds(5));
+        return forwarded.get();
+    }
+
+    private static String accessTokenHash(String token) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
@@ -0,0 +1,73 @@
+package com.relive.authentication;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存权限集合的 JWT 权限转换器。
+ * <p>
+ * 权限集合来自一个较小的固定范围，因此以权限声明的内容为键缓存转换结果，相同声明的请求共享同一个不可变的
+ * {@link GrantedAuthority} 集合，不再逐个请求解析声明并创建 {@code SimpleGrantedAuthority}。
+ * 缓存的声明数达到上限时清空缓存，避免任意声明内容导致内存无限增长。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 21:40
+ */
+public final class InterningJwtGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+    private final Map<Object, Collection<GrantedAuthority>> authorities = new ConcurrentHashMap<>();
+    private final JwtGrantedAuthoritiesConverter delegate = new JwtGrantedAuthoritiesConverter();
+    private final String authoritiesClaimName;
+    private int maximumSize = 1_000;
+
+    /**
+     * @param authoritiesClaimName 权限声明名称
+     * @param authorityPrefix      权限前缀
+     */
+    public InterningJwtGrantedAuthoritiesConverter(String authoritiesClaimName, String authorityPrefix) {
+        Assert.hasText(authoritiesClaimName, "authoritiesClaimName cannot be empty");
+        Assert.notNull(authorityPrefix, "authorityPrefix cannot be null");
+        this.authoritiesClaimName = authoritiesClaimName;
+        this.delegate.setAuthoritiesClaimName(authoritiesClaimName);
+        this.delegate.setAuthorityPrefix(authorityPrefix);
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        Object claim = jwt.getClaims().get(this.authoritiesClaimName);
+        //只缓存以空格分隔的字符串或字符串数组形式的声明
+        if (!(claim instanceof String) && !(claim instanceof List)) {
+            return List.copyOf(this.delegate.convert(jwt));
+        }
+        Collection<GrantedAuthority> authorities = this.authorities.get(claim);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = List.copyOf(this.delegate.convert(jwt));
+        if (this.authorities.size() >= this.maximumSize) {
+            this.authorities.clear();
+        }
+        Object key = claim instanceof List<?> list ? Collections.unmodifiableList(new ArrayList<>(list)) : claim;
+        Collection<GrantedAuthority> existing = this.authorities.putIfAbsent(key, authorities);
+        return existing != null ? existing : authorities;
+    }
+
+    /**
+     * 设置缓存的声明数上限，默认 1000
+     *
+     * @param maximumSize
+     */
+    public void setMaximumSize(int maximumSize) {
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+        this.maximumSize = maximumSize;
+    }
+}
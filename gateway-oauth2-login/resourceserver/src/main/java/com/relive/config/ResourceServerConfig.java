@@ -1,13 +1,32 @@
 package com.relive.config;
 
+import com.relive.authentication.InterningJwtGrantedAuthoritiesConverter;
+import com.relive.filter.VerifiedClaimsAuthenticationFilter;
+import com.relive.jose.jwk.source.JwkSetUriJWKSource;
+import com.relive.jwt.JwkSetUriJwtDecoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
-import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author: ReLive
@@ -22,28 +41,56 @@ public class ResourceServerConfig {
      * 定义安全过滤器链的 Bean，用于配置 HTTP 安全策略
      */
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationConverter jwtAuthenticationConverter,
+                                            @Value("${gateway.verified-claims.secret:}") String verifiedClaimsSecret) throws Exception {
+        // 配置了与网关共享的密钥时，信任网关已校验的声明，不再重复校验访问令牌签名
+        boolean trustVerifiedClaims = StringUtils.hasText(verifiedClaimsSecret);
+        if (trustVerifiedClaims) {
+            Assert.isTrue(verifiedClaimsSecret.getBytes(StandardCharsets.UTF_8).length >= 32,
+                    "gateway.verified-claims.secret must be at least 32 bytes");
+            JwtDecoder verifiedClaimsDecoder = NimbusJwtDecoder
+                    .withSecretKey(new SecretKeySpec(verifiedClaimsSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                    .macAlgorithm(MacAlgorithm.HS256)
+                    .build();
+            http.addFilterBefore(new VerifiedClaimsAuthenticationFilter(verifiedClaimsDecoder, jwtAuthenticationConverter),
+                    BearerTokenAuthenticationFilter.class);
+        }
+        BearerTokenResolver bearerTokenResolver = trustVerifiedClaims ?
+                VerifiedClaimsAuthenticationFilter.bearerTokenResolver() : new DefaultBearerTokenResolver();
         http.authorizeHttpRequests((authorize) -> authorize
                 // 所有请求都需要认证
                 .anyRequest().authenticated()
         )
-                // 启用 OAuth2 资源服务器功能
-                .oauth2ResourceServer()
-                // 使用 JWT 令牌进行身份验证
-                .jwt();
+                // 启用 OAuth2 资源服务器功能，使用 JWT 令牌进行身份验证
+                .oauth2ResourceServer((oauth2) -> oauth2
+                        .bearerTokenResolver(bearerTokenResolver)
+                        .jwt(Customizer.withDefaults()));
         return http.build(); // 构建并返回过滤器链
     }
 
+    /**
+     * 自定义 JwtDecoder Bean，未知 kid 触发的 JWK Set 刷新由 {@link JwkSetUriJWKSource} 限流
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(OAuth2ResourceServerProperties properties, RestTemplateBuilder builder) {
+        NimbusJwtDecoder jwtDecoder = JwkSetUriJwtDecoders.fromJwkSetUri(properties.getJwt().getJwkSetUri(), builder.build(),
+                properties.getJwt().getJwsAlgorithms());
+        // 配置了 issuer-uri 时同时校验 iss 声明
+        String issuerUri = properties.getJwt().getIssuerUri();
+        if (StringUtils.hasText(issuerUri)) {
+            jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        }
+        return jwtDecoder;
+    }
+
     /**
      * 自定义 JWT 转换器 Bean，用于从 JWT 中提取权限信息
      */
     @Bean
     public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
-        // 设置 JWT 中用于标识权限的字段名为 "authorities"
-        grantedAuthoritiesConverter.setAuthoritiesClaimName("authorities");
-        // 不添加前缀，默认会加 "SCOPE_"，这里设置为空字符串
-        grantedAuthoritiesConverter.setAuthorityPrefix("");
+        // JWT 中用于标识权限的字段名为 "authorities"，不添加前缀（默认会加 "SCOPE_"），相同声明共享缓存的权限集合
+        InterningJwtGrantedAuthoritiesConverter grantedAuthoritiesConverter =
+                new InterningJwtGrantedAuthoritiesConverter("authorities", "");
 
         JwtAuthenticationConverter jwtAuthenticationConverter = new JwtAuthenticationConverter();
         // 设置自定义的权限转换器
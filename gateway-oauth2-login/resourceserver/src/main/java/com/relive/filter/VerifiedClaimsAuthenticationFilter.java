@@ -0,0 +1,122 @@
+package com.relive.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.util.Assert;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 信任网关传递的已校验声明的认证过滤器，需位于 {@code BearerTokenAuthenticationFilter} 之前。
+ * <p>
+ * {@value #VERIFIED_CLAIMS_HEADER} 请求头的 HMAC 校验通过且 {@code ath} 与请求中的访问令牌匹配时，直接由声明构建
+ * {@link Jwt} 完成认证，不再校验访问令牌的 RSA 签名，{@link #bearerTokenResolver()} 随后不再解析该请求的访问令牌。
+ * 请求头缺失或无效时不做处理，由 {@code BearerTokenAuthenticationFilter} 完整校验访问令牌。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 21:15
+ */
+@Slf4j
+public class VerifiedClaimsAuthenticationFilter extends OncePerRequestFilter {
+    public static final String VERIFIED_CLAIMS_HEADER = "X-Verified-Claims";
+    private static final String AUTHENTICATED_ATTRIBUTE = VerifiedClaimsAuthenticationFilter.class.getName() + ".AUTHENTICATED";
+    private final JwtDecoder verifiedClaimsDecoder;
+    private final Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter;
+    private final BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    /**
+     * @param verifiedClaimsDecoder      使用共享 HMAC 密钥校验 {@value #VERIFIED_CLAIMS_HEADER} 请求头的 {@link JwtDecoder}
+     * @param jwtAuthenticationConverter 与访问令牌认证相同的 JWT 转换器
+     */
+    public VerifiedClaimsAuthenticationFilter(JwtDecoder verifiedClaimsDecoder,
+                                              Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter) {
+        Assert.notNull(verifiedClaimsDecoder, "verifiedClaimsDecoder cannot be null");
+        Assert.notNull(jwtAuthenticationConverter, "jwtAuthenticationConverter cannot be null");
+        this.verifiedClaimsDecoder = verifiedClaimsDecoder;
+        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String verifiedClaims = request.getHeader(VERIFIED_CLAIMS_HEADER);
+        if (verifiedClaims != null) {
+            String token = this.bearerTokenResolver.resolve(request);
+            Jwt jwt = token != null ? this.decode(verifiedClaims, token) : null;
+            if (jwt != null) {
+                AbstractAuthenticationToken authentication = this.jwtAuthenticationConverter.convert(jwt);
+                SecurityContext context = this.securityContextHolderStrategy.createEmptyContext();
+                context.setAuthentication(authentication);
+                this.securityContextHolderStrategy.setContext(context);
+                this.securityContextRepository.saveContext(context, request, response);
+                request.setAttribute(AUTHENTICATED_ATTRIBUTE, Boolean.TRUE);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * 返回由声明构建的 {@link Jwt}，令牌值仍为原访问令牌，校验失败时返回 {@code null}
+     */
+    private Jwt decode(String verifiedClaims, String token) {
+        Jwt claims;
+        try {
+            claims = this.verifiedClaimsDecoder.decode(verifiedClaims);
+        } catch (JwtException e) {
+            log.debug("Ignoring invalid verified claims: {}", e.getMessage());
+            return null;
+        }
+        if (!accessTokenHash(token).equals(claims.getClaimAsString("ath"))) {
+            log.debug("Ignoring verified claims issued for another access token");
+            return null;
+        }
+        Map<String, Object> jwtClaims = new LinkedHashMap<>(claims.getClaims());
+        jwtClaims.remove("ath");
+        return Jwt.withTokenValue(token)
+                .headers(headers -> headers.putAll(claims.getHeaders()))
+                .claims(c -> c.putAll(jwtClaims))
+                .build();
+    }
+
+    /**
+     * 已由本过滤器认证的请求不再解析访问令牌，其余请求使用 {@link DefaultBearerTokenResolver}
+     *
+     * @return BearerTokenResolver
+     */
+    public static BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+        return request -> request.getAttribute(AUTHENTICATED_ATTRIBUTE) != null ? null : bearerTokenResolver.resolve(request);
+    }
+
+    private static String accessTokenHash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.relive.authentication;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 16:20
+ */
+public class InterningJwtGrantedAuthoritiesConverterTest {
+    private final InterningJwtGrantedAuthoritiesConverter converter = new InterningJwtGrantedAuthoritiesConverter("authorities", "");
+
+    @Test
+    public void convertWhenSameStringClaimThenSameCollection() {
+        Collection<GrantedAuthority> authorities = this.converter.convert(jwt("ROLE_OPERATION ROLE_SYSTEM"));
+
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_OPERATION", "ROLE_SYSTEM"), authorities);
+        assertSame(authorities, this.converter.convert(jwt("ROLE_OPERATION ROLE_SYSTEM")));
+    }
+
+    @Test
+    public void convertWhenSameListClaimThenSameCollection() {
+        Collection<GrantedAuthority> authorities = this.converter.convert(jwt(List.of("ROLE_OPERATION", "ROLE_SYSTEM")));
+
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_OPERATION", "ROLE_SYSTEM"), authorities);
+        assertSame(authorities, this.converter.convert(jwt(new ArrayList<>(List.of("ROLE_OPERATION", "ROLE_SYSTEM")))));
+    }
+
+    @Test
+    public void convertWhenListClaimModifiedAfterConversionThenCacheKeyUnchanged() {
+        List<String> claim = new ArrayList<>(List.of("ROLE_OPERATION"));
+        Collection<GrantedAuthority> authorities = this.converter.convert(jwt(claim));
+
+        claim.add("ROLE_SYSTEM");
+
+        assertSame(authorities, this.converter.convert(jwt(List.of("ROLE_OPERATION"))));
+    }
+
+    @Test
+    public void convertWhenDifferentClaimsThenDifferentCollections() {
+        Collection<GrantedAuthority> authorities = this.converter.convert(jwt("ROLE_OPERATION"));
+
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_SYSTEM"), this.converter.convert(jwt("ROLE_SYSTEM")));
+        assertNotSame(authorities, this.converter.convert(jwt("ROLE_SYSTEM")));
+    }
+
+    @Test
+    public void convertWhenMaximumSizeReachedThenCacheCleared() {
+        this.converter.setMaximumSize(2);
+        Collection<GrantedAuthority> operation = this.converter.convert(jwt("ROLE_OPERATION"));
+        Collection<GrantedAuthority> system = this.converter.convert(jwt("ROLE_SYSTEM"));
+        assertSame(operation, this.converter.convert(jwt("ROLE_OPERATION")));
+        assertSame(system, this.converter.convert(jwt("ROLE_SYSTEM")));
+
+        Collection<GrantedAuthority> admin = this.converter.convert(jwt("ROLE_ADMIN"));
+
+        assertSame(admin, this.converter.convert(jwt("ROLE_ADMIN")));
+        assertNotSame(operation, this.converter.convert(jwt("ROLE_OPERATION")));
+    }
+
+    @Test
+    public void convertWhenCollectionReturnedThenUnmodifiable() {
+        Collection<GrantedAuthority> authorities = this.converter.convert(jwt("ROLE_OPERATION"));
+
+        assertThrows(UnsupportedOperationException.class, () -> authorities.clear());
+    }
+
+    @Test
+    public void convertWhenNoClaimThenEmpty() {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "RS256").subject("admin").build();
+
+        assertTrue(this.converter.convert(jwt).isEmpty());
+    }
+
+    @Test
+    public void setMaximumSizeWhenNotPositiveThenThrows() {
+        assertThrows(IllegalArgumentException.class, () -> this.converter.setMaximumSize(0));
+    }
+
+    private static Jwt jwt(Object authorities) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("admin")
+                .claim("authorities", authorities)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofMinutes(5)))
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.relive.filter;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 11:00
+ */
+public class VerifiedClaimsAuthenticationFilterTest {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final String ACCESS_TOKEN = "access-token";
+    private final BearerTokenResolver bearerTokenResolver = VerifiedClaimsAuthenticationFilter.bearerTokenResolver();
+    private VerifiedClaimsAuthenticationFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        NimbusJwtDecoder verifiedClaimsDecoder = NimbusJwtDecoder
+                .withSecretKey(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        this.filter = new VerifiedClaimsAuthenticationFilter(verifiedClaimsDecoder, new JwtAuthenticationConverter());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilterWhenVerifiedClaimsValidThenAuthenticatedWithAccessToken() throws Exception {
+        MockHttpServletRequest request = request(ACCESS_TOKEN,
+                verifiedClaims(SECRET, ACCESS_TOKEN, Instant.now().plus(Duration.ofMinutes(5))));
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin", authentication.getName());
+        Jwt jwt = (Jwt) authentication.getPrincipal();
+        assertEquals(ACCESS_TOKEN, jwt.getTokenValue());
+        assertNull(jwt.getClaims().get("ath"));
+        assertNull(this.bearerTokenResolver.resolve(request));
+    }
+
+    @Test
+    public void doFilterWhenSignedWithAnotherKeyThenIgnored() throws Exception {
+        MockHttpServletRequest request = request(ACCESS_TOKEN, verifiedClaims("fedcba9876543210fedcba9876543210",
+                ACCESS_TOKEN, Instant.now().plus(Duration.ofMinutes(5))));
+
+        this.assertIgnored(request);
+    }
+
+    @Test
+    public void doFilterWhenClaimsTamperedThenIgnored() throws Exception {
+        String verifiedClaims = verifiedClaims(SECRET, ACCESS_TOKEN, Instant.now().plus(Duration.ofMinutes(5)));
+        // keep the signature but swap in claims for another subject
+        String[] parts = verifiedClaims.split("\\.");
+        String forgedClaims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                claims("root", ACCESS_TOKEN, Instant.now().plus(Duration.ofMinutes(5))).toString().getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest request = request(ACCESS_TOKEN, parts[0] + "." + forgedClaims + "." + parts[2]);
+
+        this.assertIgnored(request);
+    }
+
+    @Test
+    public void doFilterWhenIssuedForAnotherAccessTokenThenIgnored() throws Exception {
+        MockHttpServletRequest request = request(ACCESS_TOKEN,
+                verifiedClaims(SECRET, "another-access-token", Instant.now().plus(Duration.ofMinutes(5))));
+
+        this.assertIgnored(request);
+    }
+
+    @Test
+    public void doFilterWhenExpiredThenIgnored() throws Exception {
+        MockHttpServletRequest request = request(ACCESS_TOKEN,
+                verifiedClaims(SECRET, ACCESS_TOKEN, Instant.now().minus(Duration.ofMinutes(5))));
+
+        this.assertIgnored(request);
+    }
+
+    @Test
+    public void bearerTokenResolverWhenNoVerifiedClaimsThenResolvesAccessToken() throws Exception {
+        MockHttpServletRequest request = request(ACCESS_TOKEN, null);
+
+        this.filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(ACCESS_TOKEN, this.bearerTokenResolver.resolve(request));
+    }
+
+    private void assertIgnored(MockHttpServletRequest request) throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+        this.filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        assertSame(request, filterChain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        // BearerTokenAuthenticationFilter still verifies the access token
+        assertEquals(ACCESS_TOKEN, this.bearerTokenResolver.resolve(request));
+    }
+
+    private static MockHttpServletRequest request(String accessToken, String verifiedClaims) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/resource/article");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
+        if (verifiedClaims != null) {
+            request.addHeader(VerifiedClaimsAuthenticationFilter.VERIFIED_CLAIMS_HEADER, verifiedClaims);
+        }
+        return request;
+    }
+
+    private static String verifiedClaims(String secret, String accessToken, Instant expiresAt) throws Exception {
+        SignedJWT verifiedClaims = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims("admin", accessToken, expiresAt));
+        verifiedClaims.sign(new MACSigner(secret.getBytes(StandardCharsets.UTF_8)));
+        return verifiedClaims.serialize();
+    }
+
+    private static JWTClaimsSet claims(String subject, String accessToken, Instant expiresAt) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.US_ASCII));
+        return new JWTClaimsSet.Builder()
+                .subject(subject)
+                .issueTime(Date.from(expiresAt.minus(Duration.ofMinutes(10))))
+                .expirationTime(Date.from(expiresAt))
+                .claim("ath", Base64.getUrlEncoder().withoutPadding().encodeToString(digest))
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.relive.authentication;
 
 import com.relive.introspection.OAuth2Introspection;
+import com.relive.introspection.OAuth2IntrospectionListener;
 import com.relive.introspection.OAuth2IntrospectionService;
 import com.relive.introspection.OpaqueTokenIntrospectorSupport;
 import lombok.extern.slf4j.Slf4j;
@@ -11,8 +12,12 @@ import org.springframework.security.oauth2.server.resource.authentication.Opaque
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
 import org.springframework.util.Assert;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 根据请求中的 Issuer（发行者）动态解析出对应的 AuthenticationManager。
@@ -27,18 +32,29 @@ import java.util.concurrent.ConcurrentHashMap;
  * - opaqueTokenIntrospectorSupport 将 introspection 信息转换为 Spring Security 所支持的 OpaqueTokenIntrospector
  * - 最终创建 OpaqueTokenAuthenticationProvider 并作为 AuthenticationManager 使用
  * <p>
- * 使用 ConcurrentHashMap 做缓存，避免重复创建。
+ * 使用 ConcurrentHashMap 做缓存，避免重复创建。缓存条目在 TTL 内直接返回，不访问 introspectionService，
+ * 过期后重新加载 introspection 信息，配置未变化时沿用已创建的 AuthenticationManager。
+ * 通过 {@link OAuth2IntrospectionListener} 在 introspection 数据保存或删除时立即失效对应 issuer，
+ * 其他副本的变更经 {@link com.relive.introspection.RedisOAuth2IntrospectionChangeChannel} 送达；
+ * 订阅断开期间丢失的变更在 TTL 到期后生效，因此 TTL 不宜设置过长。
+ * 每次失效递增 issuer 的版本号，加载期间版本号变化的结果不会写入缓存，避免失效前读到的旧配置被重新缓存。
  *
  * @author: ReLive
  * @date: 2022/11/20 20:29
  */
 @Slf4j
-public class IntrospectiveIssuerJwtAuthenticationManagerResolver implements AuthenticationManagerResolver<String> {
+public class IntrospectiveIssuerJwtAuthenticationManagerResolver implements AuthenticationManagerResolver<String>,
+        OAuth2IntrospectionListener {
 
     /**
      * issuer 对应的 AuthenticationManager 缓存
      */
-    private final Map<String, AuthenticationManager> authenticationManagers = new ConcurrentHashMap<>();
+    private final Map<String, ResolvedAuthenticationManager> authenticationManagers = new ConcurrentHashMap<>();
+
+    /**
+     * issuer 的失效版本号，只记录发生过变更的 issuer
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
 
     /**
      * introspection 元数据加载服务
@@ -50,6 +66,13 @@ public class IntrospectiveIssuerJwtAuthenticationManagerResolver implements Auth
      */
     private final OpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport;
 
+    /**
+     * 缓存条目的存活时间
+     */
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    private Clock clock = Clock.systemUTC();
+
     /**
      * 构造函数，注入 introspectionService 和转换器支持类
      */
@@ -63,25 +86,101 @@ public class IntrospectiveIssuerJwtAuthenticationManagerResolver implements Auth
 
     /**
      * 根据 issuer 解析出对应的 AuthenticationManager。
-     * 如果已缓存则直接返回，否则根据 introspection 信息创建并缓存。
+     * 缓存未过期则直接返回，否则根据 introspection 信息创建或续期缓存。
      */
     @Override
     public AuthenticationManager resolve(String issuer) {
+        Instant now = this.clock.instant();
+        ResolvedAuthenticationManager resolved = this.authenticationManagers.get(issuer);
+        if (resolved != null && now.isBefore(resolved.expiresAt)) {
+            return resolved.authenticationManager;
+        }
+
+        long generation = this.generation(issuer);
         OAuth2Introspection oAuth2Introspection = this.introspectionService.loadIntrospection(issuer);
 
         if (oAuth2Introspection != null) {
-            AuthenticationManager authenticationManager = this.authenticationManagers.computeIfAbsent(issuer,
-                    (k) -> {
-                        log.debug("Constructing AuthenticationManager");
-                        OpaqueTokenIntrospector opaqueTokenIntrospector = this.opaqueTokenIntrospectorSupport.fromOAuth2Introspection(oAuth2Introspection);
-                        return new OpaqueTokenAuthenticationProvider(opaqueTokenIntrospector)::authenticate;
-                    });
+            Instant expiresAt = now.plus(this.timeToLive);
+            resolved = this.authenticationManagers.compute(issuer, (k, current) -> {
+                // 加载期间 issuer 已失效，加载结果可能是旧配置，不写入缓存
+                if (this.generation(issuer) != generation) {
+                    return current;
+                }
+                // introspection 配置未变化时只续期，避免重复创建 introspector
+                if (current != null && current.introspection.equals(oAuth2Introspection)) {
+                    return new ResolvedAuthenticationManager(current.introspection, current.authenticationManager, expiresAt);
+                }
+                log.debug("Constructing AuthenticationManager");
+                OpaqueTokenIntrospector opaqueTokenIntrospector = this.opaqueTokenIntrospectorSupport.fromOAuth2Introspection(oAuth2Introspection);
+                AuthenticationManager authenticationManager = new OpaqueTokenAuthenticationProvider(opaqueTokenIntrospector)::authenticate;
+                return new ResolvedAuthenticationManager(oAuth2Introspection, authenticationManager, expiresAt);
+            });
+            // 加载结果已过时，按失效后的配置重新解析
+            if (this.generation(issuer) != generation) {
+                return this.resolve(issuer);
+            }
             log.debug(LogMessage.format("Resolved AuthenticationManager for issuer '%s'", issuer).toString());
-            return authenticationManager;
+            return resolved.authenticationManager;
 
+        } else if (this.generation(issuer) != generation) {
+            return this.resolve(issuer);
         } else {
+            this.authenticationManagers.remove(issuer);
             log.debug("Did not resolve AuthenticationManager since issuer is not trusted");
         }
         return null;
     }
+
+    /**
+     * 失效 issuer 对应的 AuthenticationManager，下次解析时重新加载 introspection 信息。
+     *
+     * @param issuer 发行者 URI
+     */
+    public void invalidate(String issuer) {
+        this.generations.computeIfAbsent(issuer, k -> new AtomicLong()).incrementAndGet();
+        if (this.authenticationManagers.remove(issuer) != null) {
+            log.debug(LogMessage.format("Invalidated AuthenticationManager for issuer '%s'", issuer).toString());
+        }
+    }
+
+    private long generation(String issuer) {
+        AtomicLong generation = this.generations.get(issuer);
+        return generation != null ? generation.get() : 0L;
+    }
+
+    @Override
+    public void onOAuth2IntrospectionChanged(String issuer) {
+        this.invalidate(issuer);
+    }
+
+    /**
+     * 设置缓存条目的存活时间，默认 5 分钟。
+     *
+     * @param timeToLive 存活时间
+     */
+    public void setTimeToLive(Duration timeToLive) {
+        Assert.isTrue(timeToLive != null && !timeToLive.isNegative(), "timeToLive cannot be negative");
+        this.timeToLive = timeToLive;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    /**
+     * 已解析的 AuthenticationManager 及其来源配置和过期时间
+     */
+    private static final class ResolvedAuthenticationManager {
+        private final OAuth2Introspection introspection;
+        private final AuthenticationManager authenticationManager;
+        private final Instant expiresAt;
+
+        private ResolvedAuthenticationManager(OAuth2Introspection introspection, AuthenticationManager authenticationManager,
+                                              Instant expiresAt) {
+            this.introspection = introspection;
+            this.authenticationManager = authenticationManager;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
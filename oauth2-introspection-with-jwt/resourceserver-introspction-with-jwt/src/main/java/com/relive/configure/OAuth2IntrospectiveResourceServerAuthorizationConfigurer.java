@@ -2,8 +2,10 @@ package com.relive.configure;
 
 import com.relive.authentication.IntrospectiveIssuerJwtAuthenticationManagerResolver;
 import com.relive.introspection.CacheOpaqueTokenIntrospectorSupport;
+import com.relive.introspection.CachingOAuth2IntrospectionService;
 import com.relive.introspection.OAuth2IntrospectionService;
 import com.relive.introspection.OpaqueTokenIntrospectorSupport;
+import com.relive.introspection.RedisOAuth2IntrospectionChangeChannel;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationContext;
@@ -86,6 +88,13 @@ public class OAuth2IntrospectiveResourceServerAuthorizationConfigurer extends Ab
             // 创建自定义 AuthenticationManagerResolver
             IntrospectiveIssuerJwtAuthenticationManagerResolver introspectiveIssuerJwtAuthenticationManagerResolver =
                     new IntrospectiveIssuerJwtAuthenticationManagerResolver(oAuth2IntrospectionService, opaqueTokenIntrospectorSupport);
+            // introspection 数据保存或删除时失效已解析的 AuthenticationManager
+            if (oAuth2IntrospectionService instanceof CachingOAuth2IntrospectionService cachingOAuth2IntrospectionService) {
+                cachingOAuth2IntrospectionService.addListener(introspectiveIssuerJwtAuthenticationManagerResolver);
+            }
+            // 其他副本保存或删除 introspection 数据时，通过 Redis 频道失效本副本已解析的 AuthenticationManager
+            applicationContext.getBeanProvider(RedisOAuth2IntrospectionChangeChannel.class)
+                    .ifAvailable(changeChannel -> changeChannel.addListener(introspectiveIssuerJwtAuthenticationManagerResolver));
             this.authenticationManagerResolver = introspectiveIssuerJwtAuthenticationManagerResolver;
         }
 
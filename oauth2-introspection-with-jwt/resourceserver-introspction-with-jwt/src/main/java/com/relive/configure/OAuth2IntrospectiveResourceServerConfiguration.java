@@ -4,7 +4,9 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.relive.introspection.CachingOAuth2IntrospectionService;
 import com.relive.introspection.JdbcOAuth2IntrospectionService;
 import com.relive.introspection.OAuth2Introspection;
+import com.relive.introspection.OAuth2IntrospectionExpiry;
 import com.relive.introspection.OAuth2IntrospectionService;
+import com.relive.introspection.RedisOAuth2IntrospectionChangeChannel;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -12,6 +14,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -34,14 +39,27 @@ import java.util.concurrent.TimeUnit;
 @Configuration(proxyBeanMethods = false)
 public class OAuth2IntrospectiveResourceServerConfiguration {
 
+    /**
+     * introspection 结果的过期策略：活跃令牌最多缓存至令牌 exp 且不超过 10 分钟，未激活令牌缓存 30 秒。
+     * 本地缓存与 Redis 共享缓存使用同一策略。
+     *
+     * @return 返回 OAuth2IntrospectionExpiry 实例
+     */
+    @Bean
+    public OAuth2IntrospectionExpiry oAuth2IntrospectionExpiry() {
+        return new OAuth2IntrospectionExpiry(Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
     /**
      * 配置 Caffeine 缓存管理器，用于 OAuth2 introspection 缓存
      * Caffeine 是一种高性能的 Java 缓存库，支持基于时间、大小和访问的缓存过期策略。
+     * introspection 结果缓存 oauth2:introspective 由 {@link OAuth2IntrospectionExpiry} 按条目设置过期时间。
      *
+     * @param oAuth2IntrospectionExpiry introspection 结果的过期策略
      * @return 返回一个 CaffeineCacheManager 实例
      */
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(OAuth2IntrospectionExpiry oAuth2IntrospectionExpiry) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         // 配置 Caffeine 缓存
         cacheManager.setCaffeine(Caffeine.newBuilder()
@@ -49,20 +67,57 @@ public class OAuth2IntrospectiveResourceServerConfiguration {
                 .maximumSize(200)  // 最大缓存条目数
                 .expireAfterWrite(10, TimeUnit.MINUTES)  // 设置缓存过期时间
                 .recordStats());  // 开启统计
+        // introspection 结果缓存，按令牌 exp 设置每个条目的过期时间
+        cacheManager.registerCustomCache("oauth2:introspective", Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(oAuth2IntrospectionExpiry)
+                .recordStats()
+                .build());
         return cacheManager;
     }
 
+    /**
+     * 通过 Redis 频道在资源服务器副本之间传播 OAuth2 introspection 数据变更。
+     *
+     * @param redisConnectionFactory Redis 连接工厂
+     * @return 返回 RedisOAuth2IntrospectionChangeChannel 实例
+     */
+    @Bean
+    public RedisOAuth2IntrospectionChangeChannel oAuth2IntrospectionChangeChannel(RedisConnectionFactory redisConnectionFactory) {
+        return new RedisOAuth2IntrospectionChangeChannel(new StringRedisTemplate(redisConnectionFactory),
+                RedisOAuth2IntrospectionChangeChannel.DEFAULT_CHANNEL);
+    }
+
+    /**
+     * 订阅 OAuth2 introspection 数据变更频道，其他副本保存或删除 issuer 后失效本副本已解析的 AuthenticationManager。
+     *
+     * @param redisConnectionFactory Redis 连接工厂
+     * @param changeChannel          变更频道
+     * @return 返回 RedisMessageListenerContainer 实例
+     */
+    @Bean
+    public RedisMessageListenerContainer oAuth2IntrospectionChangeListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                                   RedisOAuth2IntrospectionChangeChannel changeChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(changeChannel, new ChannelTopic(changeChannel.getChannel()));
+        return container;
+    }
+
     /**
      * 配置 OAuth2 introspection 服务，支持 Redis 缓存和数据库 JDBC。
      * 此方法通过 Redis 和数据库连接配置一个联合的 OAuth2 introspection 服务，缓存 introspection 响应。
+     * 保存或删除的 issuer 通过变更频道通知所有副本。
      *
      * @param redisConnectionFactory Redis 连接工厂
      * @param jdbcTemplate           JDBC 模板，用于访问数据库
+     * @param changeChannel          变更频道
      * @return 返回一个配置好的 OAuth2IntrospectionService 实例
      */
     @Bean
     public OAuth2IntrospectionService oAuth2IntrospectionService(RedisConnectionFactory redisConnectionFactory,
-                                                                 JdbcTemplate jdbcTemplate) {
+                                                                 JdbcTemplate jdbcTemplate,
+                                                                 RedisOAuth2IntrospectionChangeChannel changeChannel) {
         // 配置 Redis 缓存
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 // 设置key为string序列化
@@ -81,7 +136,8 @@ public class OAuth2IntrospectiveResourceServerConfiguration {
                 .build();
 
         // 配置 CachingOAuth2IntrospectionService，结合 Redis 缓存和数据库 JDBC 服务
-        OAuth2IntrospectionService oAuth2IntrospectionService = new CachingOAuth2IntrospectionService(cacheManager.getCache("oauth2Introspection"), new JdbcOAuth2IntrospectionService(jdbcTemplate));
+        CachingOAuth2IntrospectionService oAuth2IntrospectionService = new CachingOAuth2IntrospectionService(cacheManager.getCache("oauth2Introspection"), new JdbcOAuth2IntrospectionService(jdbcTemplate));
+        oAuth2IntrospectionService.addListener(changeChannel);
 
         // 保存默认的 OAuth2 introspection 信息
         oAuth2IntrospectionService.saveOAuth2Introspection(OAuth2Introspection.withIssuer("http://127.0.0.1:8080")
@@ -1,10 +1,23 @@
 package com.relive.configure;
 
+import com.relive.introspection.CacheOpaqueTokenIntrospectorSupport;
+import com.relive.introspection.OAuth2IntrospectionExpiry;
+import com.relive.introspection.OpaqueTokenIntrospectorSupport;
+import com.relive.introspection.TwoTierOpaqueTokenIntrospectorSupport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.util.function.ToDoubleFunction;
+
 /**
  * 配置 Spring Security 相关的安全设置。
  * 该类配置了 HTTP 请求的授权规则以及 OAuth2 introspective 资源服务器授权配置。
@@ -18,16 +31,20 @@ public class SecurityConfig {
     /**
      * 配置 SecurityFilterChain，定义 HTTP 请求的安全策略。
      * 该方法配置了请求的访问权限，使用 OAuth2 introspective 资源服务器认证。
+     * Actuator 端点只在 management.server 绑定的本地端口上开放。
      *
-     * @param http HttpSecurity 配置对象
+     * @param http                           HttpSecurity 配置对象
+     * @param opaqueTokenIntrospectorSupport 创建各 issuer 的 OpaqueTokenIntrospector
      * @return 返回配置后的 SecurityFilterChain 实例
      * @throws Exception 可能抛出的异常
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, OpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport) throws Exception {
         http
                 // 配置 HTTP 请求的授权规则
                 .authorizeHttpRequests(authorizeRequests -> authorizeRequests
+                        // Actuator 端点，management.server.address 限制为本机访问
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                         // 配置特定资源路径需要指定的权限
                         .requestMatchers("/resource/article").hasAuthority("SCOPE_message.read")
                         // 其他请求需要认证
@@ -36,9 +53,59 @@ public class SecurityConfig {
                 // 应用 OAuth2 introspective 资源服务器授权配置
                 .apply(new OAuth2IntrospectiveResourceServerAuthorizationConfigurer())
                 // 配置 Opaque Token introspector 支持
-                .opaqueTokenIntrospectorSupport();
+                .opaqueTokenIntrospectorSupport()
+                .opaqueTokenIntrospectorSupport(opaqueTokenIntrospectorSupport);
 
         // 返回配置后的 SecurityFilterChain 实例
         return http.build();
     }
+
+    /**
+     * 创建 OpaqueTokenIntrospectorSupport。
+     * 开启 introspection.shared-cache.enabled 时，introspection 结果通过 Redis 在多个资源服务器副本之间共享，
+     * 否则只使用本地缓存。
+     *
+     * @param cacheManager              提供本地 introspection 结果缓存
+     * @param redisConnectionFactory    Redis 连接工厂
+     * @param oAuth2IntrospectionExpiry introspection 结果的过期策略
+     * @param sharedCacheEnabled        是否启用 Redis 共享缓存
+     * @return 返回 OpaqueTokenIntrospectorSupport 实例
+     */
+    @Bean
+    public OpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport(CacheManager cacheManager,
+                                                                         RedisConnectionFactory redisConnectionFactory,
+                                                                         OAuth2IntrospectionExpiry oAuth2IntrospectionExpiry,
+                                                                         @Value("${introspection.shared-cache.enabled:false}") boolean sharedCacheEnabled) {
+        Cache localCache = cacheManager.getCache("oauth2:introspective");
+        if (sharedCacheEnabled) {
+            // 本地缓存作为一级缓存，Redis 作为副本之间共享的二级缓存
+            return new TwoTierOpaqueTokenIntrospectorSupport(localCache, redisConnectionFactory, oAuth2IntrospectionExpiry);
+        }
+        CacheOpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport = new CacheOpaqueTokenIntrospectorSupport();
+        opaqueTokenIntrospectorSupport.setCache(localCache);
+        return opaqueTokenIntrospectorSupport;
+    }
+
+    /**
+     * 将因并发合并而未发起 introspection 请求的调用次数注册为计数器 oauth2.introspection.coalesced，
+     * 通过 /actuator/metrics/oauth2.introspection.coalesced 查看。
+     *
+     * @param opaqueTokenIntrospectorSupport OpaqueTokenIntrospectorSupport 实例
+     * @return 返回 MeterBinder 实例
+     */
+    @Bean
+    public MeterBinder coalescedIntrospectionsMeterBinder(OpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport) {
+        ToDoubleFunction<OpaqueTokenIntrospectorSupport> coalescedIntrospections;
+        if (opaqueTokenIntrospectorSupport instanceof TwoTierOpaqueTokenIntrospectorSupport) {
+            coalescedIntrospections = support -> ((TwoTierOpaqueTokenIntrospectorSupport) support).getCoalescedIntrospections();
+        } else if (opaqueTokenIntrospectorSupport instanceof CacheOpaqueTokenIntrospectorSupport) {
+            coalescedIntrospections = support -> ((CacheOpaqueTokenIntrospectorSupport) support).getCoalescedIntrospections();
+        } else {
+            return registry -> {
+            };
+        }
+        return registry -> FunctionCounter.builder("oauth2.introspection.coalesced", opaqueTokenIntrospectorSupport, coalescedIntrospections)
+                .description("Introspection calls answered by a concurrent call for the same token")
+                .register(registry);
+    }
 }
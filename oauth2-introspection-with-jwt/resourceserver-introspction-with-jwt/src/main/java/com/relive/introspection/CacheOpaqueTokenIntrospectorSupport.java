@@ -1,16 +1,19 @@
 package com.relive.introspection;
 
 import org.springframework.cache.Cache;
-import org.springframework.http.client.support.BasicAuthenticationInterceptor;
 import org.springframework.security.oauth2.server.resource.introspection.NimbusOpaqueTokenIntrospector;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.util.Assert;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 支持缓存的 Opaque Token introspector 实现。
  * 该类使用了缓存（如果提供）来缓存 Opaque Token 的 introspection 结果，
  * 并结合 Nimbus 的 Opaque Token introspector 实现 OAuth2 令牌验证。
+ * 每个 issuer 的 introspection 请求使用 {@link IntrospectionRestOperationsFactory} 创建的独立 HTTP 客户端。
  *
  * @author: ReLive
  * @date: 2022/11/24 21:45
@@ -23,6 +26,12 @@ public class CacheOpaqueTokenIntrospectorSupport implements OpaqueTokenIntrospec
     // 用于 HTTP 请求的 RestOperations 实例
     private RestOperations restOperations;
 
+    // 为每个 issuer 创建 HTTP 客户端
+    private IntrospectionRestOperationsFactory restOperationsFactory = new IntrospectionRestOperationsFactory();
+
+    // 所有 issuer 共享的被合并 introspection 调用计数
+    private final LongAdder coalescedIntrospections = new LongAdder();
+
     /**
      * 根据 OAuth2 introspection 信息创建 OpaqueTokenIntrospector 实例。
      * 如果缓存不为空，则返回一个支持缓存的 OpaqueTokenIntrospector。
@@ -41,7 +50,18 @@ public class CacheOpaqueTokenIntrospectorSupport implements OpaqueTokenIntrospec
         }
 
         // 使用缓存包装 OpaqueTokenIntrospector
-        return new CachingOpaqueTokenIntrospector(cache, opaqueTokenIntrospector);
+        CachingOpaqueTokenIntrospector cachingOpaqueTokenIntrospector = new CachingOpaqueTokenIntrospector(cache, opaqueTokenIntrospector);
+        cachingOpaqueTokenIntrospector.setCoalescedIntrospections(this.coalescedIntrospections);
+        return cachingOpaqueTokenIntrospector;
+    }
+
+    /**
+     * 返回所有 issuer 因并发合并而未发起 introspection 请求的调用次数。
+     *
+     * @return 被合并的调用次数
+     */
+    public long getCoalescedIntrospections() {
+        return this.coalescedIntrospections.sum();
     }
 
     /**
@@ -51,18 +71,19 @@ public class CacheOpaqueTokenIntrospectorSupport implements OpaqueTokenIntrospec
      * @return 返回 NimbusOpaqueTokenIntrospector 实例
      */
     private OpaqueTokenIntrospector createNimbusOpaqueTokenIntrospector(OAuth2Introspection oAuth2Introspection) {
-        // 如果没有提供 RestOperations，使用默认构造器创建 NimbusOpaqueTokenIntrospector
+        RestOperations restOperations;
         if (this.restOperations == null) {
-            return new NimbusOpaqueTokenIntrospector(oAuth2Introspection.getIntrospectionUri(),
-                    oAuth2Introspection.getClientId(), oAuth2Introspection.getClientSecret());
+            // 为 issuer 创建独立连接池、超时与并发限制的 HTTP 客户端
+            restOperations = this.restOperationsFactory.create(oAuth2Introspection);
+        } else if (this.restOperations instanceof RestTemplate restTemplate) {
+            // 基于提供的 RestTemplate 创建 issuer 专属副本，不修改共享实例的拦截器
+            restOperations = this.restOperationsFactory.create(oAuth2Introspection, restTemplate);
+        } else {
+            // 其他 RestOperations 实现需自行完成客户端认证
+            restOperations = this.restOperations;
         }
 
-        // 如果提供了 RestOperations，设置 HTTP 请求的认证信息
-        RestTemplate restTemplate = (RestTemplate) this.restOperations;
-        restTemplate.getInterceptors().add(new BasicAuthenticationInterceptor(oAuth2Introspection.getClientId(), oAuth2Introspection.getClientSecret()));
-
-        // 返回带有 RestOperations 的 NimbusOpaqueTokenIntrospector
-        return new NimbusOpaqueTokenIntrospector(oAuth2Introspection.getIntrospectionUri(), this.restOperations);
+        return new NimbusOpaqueTokenIntrospector(oAuth2Introspection.getIntrospectionUri(), restOperations);
     }
 
     /**
@@ -82,4 +103,14 @@ public class CacheOpaqueTokenIntrospectorSupport implements OpaqueTokenIntrospec
     public void setRestOperations(RestOperations restOperations) {
         this.restOperations = restOperations;
     }
+
+    /**
+     * 设置为每个 issuer 创建 HTTP 客户端的工厂。
+     *
+     * @param restOperationsFactory HTTP 客户端工厂
+     */
+    public void setRestOperationsFactory(IntrospectionRestOperationsFactory restOperationsFactory) {
+        Assert.notNull(restOperationsFactory, "restOperationsFactory cannot be null");
+        this.restOperationsFactory = restOperationsFactory;
+    }
 }
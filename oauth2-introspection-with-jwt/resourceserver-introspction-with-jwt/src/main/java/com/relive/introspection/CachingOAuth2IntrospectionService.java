@@ -4,12 +4,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
 import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 缓存支持的 OAuth2 Introspection 服务。
  * 该服务首先尝试从缓存中获取 OAuth2 Introspection 信息，
  * 如果缓存中没有，才从外部服务加载并缓存结果。
  * 它实现了 OAuth2IntrospectionService 接口，提供了加载、保存和删除 OAuth2 Introspection 数据的方法。
+ * 保存或删除数据后会通知已注册的 {@link OAuth2IntrospectionListener}。
  *
  * @author: ReLive27
  * @date: 2024/2/27 18:39
@@ -23,6 +28,9 @@ public class CachingOAuth2IntrospectionService implements OAuth2IntrospectionSer
     // 外部的 OAuth2 Introspection 服务（可选）
     private OAuth2IntrospectionService introspectionService;
 
+    // 数据变更监听器
+    private final List<OAuth2IntrospectionListener> listeners = new CopyOnWriteArrayList<>();
+
     /**
      * 构造函数，使用缓存实例来初始化 CachingOAuth2IntrospectionService。
      *
@@ -83,13 +91,14 @@ public class CachingOAuth2IntrospectionService implements OAuth2IntrospectionSer
      */
     @Override
     public void saveOAuth2Introspection(OAuth2Introspection authorizedClient) {
-        // 如果缓存中没有该数据，则将其放入缓存
-        this.cache.putIfAbsent(authorizedClient.getIssuer(), authorizedClient);
+        // 覆盖缓存中的旧数据，保证更新后的配置立即生效
+        this.cache.put(authorizedClient.getIssuer(), authorizedClient);
 
         // 如果外部服务存在，则同步保存到外部服务
         if (this.introspectionService != null) {
             this.introspectionService.saveOAuth2Introspection(authorizedClient);
         }
+        this.publishChanged(authorizedClient.getIssuer());
     }
 
     /**
@@ -106,5 +115,22 @@ public class CachingOAuth2IntrospectionService implements OAuth2IntrospectionSer
         if (this.introspectionService != null) {
             this.introspectionService.removeOAuth2Introspection(issuer);
         }
+        this.publishChanged(issuer);
+    }
+
+    /**
+     * 注册数据变更监听器，保存或删除 OAuth2 Introspection 数据后回调。
+     *
+     * @param listener 数据变更监听器
+     */
+    public void addListener(OAuth2IntrospectionListener listener) {
+        Assert.notNull(listener, "listener cannot be null");
+        this.listeners.add(listener);
+    }
+
+    private void publishChanged(String issuer) {
+        for (OAuth2IntrospectionListener listener : this.listeners) {
+            listener.onOAuth2IntrospectionChanged(issuer);
+        }
     }
 }
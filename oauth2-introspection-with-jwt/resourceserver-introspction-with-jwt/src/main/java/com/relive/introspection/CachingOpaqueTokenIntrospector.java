@@ -6,12 +6,29 @@ import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
 import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
 import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 缓存支持的 Opaque Token 解析器。
  * 该类首先尝试从缓存中获取解析后的 Opaque Token 信息，
  * 如果缓存中没有，则使用提供的 introspector 进行解析并将结果缓存。
  * 它实现了 OpaqueTokenIntrospector 接口，用于解析传入的 OAuth2 令牌。
+ * <p>
+ * 缓存键为令牌的 SHA-256 摘要，长度固定且不在内存中保留原始令牌。未激活的令牌同样缓存为否定结果，
+ * 条目的存活时间由缓存配置的 {@link OAuth2IntrospectionExpiry} 决定。
+ * <p>
+ * 同一令牌的并发未命中只发起一次 introspection 请求，其余线程等待并共享该结果，
+ * 被合并的调用次数通过 {@link #getCoalescedIntrospections()} 获取。
  *
  * @author: ReLive
  * @date: 2022/11/20 21:05
@@ -24,6 +41,12 @@ public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
     // 用于执行实际令牌解析的 introspector
     private final OpaqueTokenIntrospector introspector;
 
+    // 正在进行中的 introspection 请求，按缓存键合并
+    private final Map<String, CompletableFuture<Object>> inFlightIntrospections = new ConcurrentHashMap<>();
+
+    // 被合并的 introspection 调用计数
+    private LongAdder coalescedIntrospections = new LongAdder();
+
     /**
      * 构造函数，初始化缓存和 OpaqueTokenIntrospector。
      *
@@ -43,22 +66,89 @@ public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
      */
     @Override
     public OAuth2AuthenticatedPrincipal introspect(String token) {
+        String key = cacheKey(token);
+        Object result;
         try {
             // 尝试从缓存中获取令牌的解析结果
-            return this.cache.get(token,
-                    () -> this.introspector.introspect(token));
-        } catch (Cache.ValueRetrievalException ex) {
-            throw new OAuth2IntrospectionException("Did not validate token from cache.");
+            Cache.ValueWrapper cached = this.cache.get(key);
+            result = cached != null ? cached.get() : this.load(key, token);
         } catch (OAuth2IntrospectionException e) {
-            // 如果是无效的 Opaque Token 异常，抛出该异常
-            if (e instanceof BadOpaqueTokenException) {
-                throw (BadOpaqueTokenException) e;
-            }
-            // 其他 Introspection 异常，抛出处理
             throw new OAuth2IntrospectionException(e.getMessage());
         } catch (Exception ex) {
             log.error("Token introspection failed.", ex);
             throw new OAuth2IntrospectionException("Token introspection failed.");
         }
+        if (result instanceof OAuth2AuthenticatedPrincipal principal) {
+            return principal;
+        }
+        throw new BadOpaqueTokenException("Provided token isn't active");
+    }
+
+    /**
+     * 调用 introspector 解析令牌并写入缓存，同一缓存键的并发调用共享同一次请求。
+     */
+    private Object load(String key, String token) {
+        CompletableFuture<Object> introspection = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = this.inFlightIntrospections.putIfAbsent(key, introspection);
+        if (inFlight != null) {
+            this.coalescedIntrospections.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException e ? e : ex;
+            }
+        }
+        try {
+            // 上一次请求可能已在检查缓存后完成并写入缓存
+            Cache.ValueWrapper cached = this.cache.get(key);
+            if (cached != null) {
+                introspection.complete(cached.get());
+                return cached.get();
+            }
+            Object result;
+            try {
+                result = this.introspector.introspect(token);
+            } catch (BadOpaqueTokenException ex) {
+                // 未激活的令牌缓存为否定结果
+                result = InactiveOpaqueToken.INSTANCE;
+            }
+            this.cache.put(key, result);
+            introspection.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            introspection.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            this.inFlightIntrospections.remove(key, introspection);
+        }
+    }
+
+    /**
+     * 返回因合并而未发起 introspection 请求的调用次数
+     */
+    public long getCoalescedIntrospections() {
+        return this.coalescedIntrospections.sum();
+    }
+
+    /**
+     * 设置被合并调用的计数器，多个 introspector 可共享同一个计数器
+     *
+     * @param coalescedIntrospections 计数器
+     */
+    public void setCoalescedIntrospections(LongAdder coalescedIntrospections) {
+        Assert.notNull(coalescedIntrospections, "coalescedIntrospections cannot be null");
+        this.coalescedIntrospections = coalescedIntrospections;
+    }
+
+    /**
+     * 计算令牌的 SHA-256 摘要作为缓存键
+     */
+    static String cacheKey(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.relive.introspection;
+
+/**
+ * 未激活令牌在 introspection 缓存中的否定结果。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 10:15
+ */
+enum InactiveOpaqueToken {
+    INSTANCE
+}
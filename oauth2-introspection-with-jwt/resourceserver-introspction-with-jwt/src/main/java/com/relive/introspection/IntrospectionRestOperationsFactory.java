@@ -0,0 +1,203 @@
+package com.relive.introspection;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.support.BasicAuthenticationInterceptor;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 为每个 issuer 创建独立的 introspection HTTP 客户端。
+ * <p>
+ * 每个 issuer 使用自己的 {@link HttpClient}，拥有独立的 keep-alive 连接池，并设置连接与读取超时。
+ * 客户端认证通过该 issuer 专属的 {@link BasicAuthenticationInterceptor} 完成，不修改共享的 RestTemplate。
+ * 每个 issuer 的并发请求数受信号量限制，获取许可超时即快速失败，避免响应缓慢的 issuer 占满处理其他 issuer 的线程。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 14:05
+ */
+public class IntrospectionRestOperationsFactory {
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    private int maxConcurrentRequests = 20;
+
+    private Duration acquireTimeout = Duration.ofMillis(200);
+
+    /**
+     * 为指定 issuer 创建 RestOperations。
+     *
+     * @param oAuth2Introspection OAuth2 introspection 配置对象
+     * @return 返回该 issuer 专用的 RestOperations
+     */
+    public RestOperations create(OAuth2Introspection oAuth2Introspection) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(this.connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(this.readTimeout);
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setInterceptors(this.interceptors(oAuth2Introspection, List.of()));
+        return restTemplate;
+    }
+
+    /**
+     * 基于共享的 RestTemplate 为指定 issuer 创建副本，复用其请求工厂与消息转换器，但不修改共享实例。
+     *
+     * @param oAuth2Introspection OAuth2 introspection 配置对象
+     * @param restTemplate        共享的 RestTemplate
+     * @return 返回该 issuer 专用的 RestOperations
+     */
+    public RestOperations create(OAuth2Introspection oAuth2Introspection, RestTemplate restTemplate) {
+        RestTemplate issuerRestTemplate = new RestTemplate(restTemplate.getMessageConverters());
+        issuerRestTemplate.setRequestFactory(restTemplate.getRequestFactory());
+        issuerRestTemplate.setErrorHandler(restTemplate.getErrorHandler());
+        issuerRestTemplate.setUriTemplateHandler(restTemplate.getUriTemplateHandler());
+        issuerRestTemplate.setInterceptors(this.interceptors(oAuth2Introspection, restTemplate.getInterceptors()));
+        return issuerRestTemplate;
+    }
+
+    private List<ClientHttpRequestInterceptor> interceptors(OAuth2Introspection oAuth2Introspection,
+                                                            List<ClientHttpRequestInterceptor> sharedInterceptors) {
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(sharedInterceptors.size() + 2);
+        interceptors.add(new BulkheadInterceptor(oAuth2Introspection.getIssuer(), this.maxConcurrentRequests, this.acquireTimeout));
+        interceptors.addAll(sharedInterceptors);
+        interceptors.add(new BasicAuthenticationInterceptor(oAuth2Introspection.getClientId(), oAuth2Introspection.getClientSecret()));
+        return interceptors;
+    }
+
+    /**
+     * 设置连接超时时间，默认 2 秒。
+     *
+     * @param connectTimeout 连接超时时间
+     */
+    public void setConnectTimeout(Duration connectTimeout) {
+        Assert.isTrue(connectTimeout != null && !connectTimeout.isNegative() && !connectTimeout.isZero(),
+                "connectTimeout must be positive");
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * 设置读取超时时间，默认 5 秒。
+     *
+     * @param readTimeout 读取超时时间
+     */
+    public void setReadTimeout(Duration readTimeout) {
+        Assert.isTrue(readTimeout != null && !readTimeout.isNegative() && !readTimeout.isZero(),
+                "readTimeout must be positive");
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * 设置每个 issuer 的最大并发请求数，默认 20。
+     *
+     * @param maxConcurrentRequests 最大并发请求数
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        Assert.isTrue(maxConcurrentRequests > 0, "maxConcurrentRequests must be greater than 0");
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * 设置等待并发许可的最长时间，默认 200 毫秒。
+     *
+     * @param acquireTimeout 等待许可的最长时间
+     */
+    public void setAcquireTimeout(Duration acquireTimeout) {
+        Assert.isTrue(acquireTimeout != null && !acquireTimeout.isNegative(), "acquireTimeout cannot be negative");
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * 限制单个 issuer 并发请求数的拦截器，许可在响应关闭时释放
+     */
+    private static final class BulkheadInterceptor implements ClientHttpRequestInterceptor {
+        private final String issuer;
+        private final Semaphore permits;
+        private final long acquireTimeoutNanos;
+
+        private BulkheadInterceptor(String issuer, int maxConcurrentRequests, Duration acquireTimeout) {
+            this.issuer = issuer;
+            this.permits = new Semaphore(maxConcurrentRequests);
+            this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            try {
+                if (!this.permits.tryAcquire(this.acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new IOException("Too many concurrent introspection requests to issuer " + this.issuer);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for an introspection request permit", ex);
+            }
+            try {
+                return new PermitReleasingResponse(execution.execute(request, body), this.permits);
+            } catch (IOException | RuntimeException ex) {
+                this.permits.release();
+                throw ex;
+            }
+        }
+    }
+
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private PermitReleasingResponse(ClientHttpResponse response, Semaphore permits) {
+            this.response = response;
+            this.permits = permits;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return this.response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return this.response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.response.close();
+            } finally {
+                if (this.released.compareAndSet(false, true)) {
+                    this.permits.release();
+                }
+            }
+        }
+    }
+}
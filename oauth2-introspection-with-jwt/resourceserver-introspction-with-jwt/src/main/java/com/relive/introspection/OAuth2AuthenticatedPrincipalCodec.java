@@ -0,0 +1,114 @@
+package com.relive.introspection;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * introspection 结果与紧凑 JSON 之间的转换，用于 Redis 二级缓存。
+ * <p>
+ * 只保存 principal 名称、权限字符串和 introspection 属性，{@link Instant} 以秒、{@link URL} 以字符串保存，
+ * 并在 {@code t} 中记录其类型以便还原。未激活令牌的否定结果保存为 {@code {"x":1}}。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 11:20
+ */
+final class OAuth2AuthenticatedPrincipalCodec {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String INACTIVE = "{\"x\":1}";
+    private static final String INSTANT = "i";
+    private static final String URL_TYPE = "u";
+
+    private OAuth2AuthenticatedPrincipalCodec() {
+    }
+
+    /**
+     * 将 introspection 结果编码为 JSON，结果类型不支持时返回 null
+     */
+    static String encode(Object value) {
+        if (value == InactiveOpaqueToken.INSTANCE) {
+            return INACTIVE;
+        }
+        if (!(value instanceof OAuth2AuthenticatedPrincipal principal)) {
+            return null;
+        }
+        Map<String, Object> claims = new LinkedHashMap<>();
+        Map<String, String> types = new LinkedHashMap<>();
+        principal.getAttributes().forEach((name, claim) -> {
+            if (claim instanceof Instant instant) {
+                claims.put(name, instant.getEpochSecond());
+                types.put(name, INSTANT);
+            } else if (claim instanceof URL url) {
+                claims.put(name, url.toString());
+                types.put(name, URL_TYPE);
+            } else {
+                claims.put(name, claim);
+            }
+        });
+        List<String> authorities = new ArrayList<>(principal.getAuthorities().size());
+        principal.getAuthorities().forEach(authority -> authorities.add(authority.getAuthority()));
+
+        Map<String, Object> encoded = new LinkedHashMap<>();
+        encoded.put("n", principal.getName());
+        encoded.put("a", authorities);
+        encoded.put("c", claims);
+        if (!types.isEmpty()) {
+            encoded.put("t", types);
+        }
+        try {
+            return OBJECT_MAPPER.writeValueAsString(encoded);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unable to encode the introspection result", ex);
+        }
+    }
+
+    /**
+     * 将 JSON 还原为 {@link OAuth2AuthenticatedPrincipal} 或未激活令牌的否定结果
+     */
+    @SuppressWarnings("unchecked")
+    static Object decode(String value) {
+        if (INACTIVE.equals(value)) {
+            return InactiveOpaqueToken.INSTANCE;
+        }
+        Map<String, Object> encoded;
+        try {
+            encoded = OBJECT_MAPPER.readValue(value, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unable to decode the introspection result", ex);
+        }
+        Map<String, Object> claims = new LinkedHashMap<>((Map<String, Object>) encoded.get("c"));
+        Map<String, String> types = (Map<String, String>) encoded.getOrDefault("t", Map.of());
+        types.forEach((name, type) -> {
+            Object claim = claims.get(name);
+            if (INSTANT.equals(type) && claim instanceof Number number) {
+                claims.put(name, Instant.ofEpochSecond(number.longValue()));
+            } else if (URL_TYPE.equals(type) && claim instanceof String url) {
+                try {
+                    claims.put(name, URI.create(url).toURL());
+                } catch (MalformedURLException | IllegalArgumentException ex) {
+                    claims.put(name, url);
+                }
+            }
+        });
+        Collection<GrantedAuthority> authorities = new ArrayList<>();
+        for (String authority : (List<String>) encoded.get("a")) {
+            authorities.add(new SimpleGrantedAuthority(authority));
+        }
+        return new OAuth2IntrospectionAuthenticatedPrincipal((String) encoded.get("n"), claims, authorities);
+    }
+}
@@ -0,0 +1,89 @@
+package com.relive.introspection;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.util.Assert;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * introspection 结果缓存的 Caffeine {@link Expiry}。
+ * <p>
+ * 活跃令牌的结果存活至 min(令牌 {@code exp}, 最大存活时间)，避免在令牌过期后仍返回缓存的 principal；
+ * 没有 {@code exp} 的结果使用最大存活时间。未激活令牌的否定结果只缓存较短的时间。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 10:15
+ */
+public class OAuth2IntrospectionExpiry implements Expiry<Object, Object> {
+
+    private final Duration maxTimeToLive;
+
+    private final Duration inactiveTimeToLive;
+
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * @param maxTimeToLive      活跃令牌结果的最大存活时间
+     * @param inactiveTimeToLive 未激活令牌否定结果的存活时间
+     */
+    public OAuth2IntrospectionExpiry(Duration maxTimeToLive, Duration inactiveTimeToLive) {
+        Assert.isTrue(maxTimeToLive != null && !maxTimeToLive.isNegative(), "maxTimeToLive cannot be negative");
+        Assert.isTrue(inactiveTimeToLive != null && !inactiveTimeToLive.isNegative(), "inactiveTimeToLive cannot be negative");
+        this.maxTimeToLive = maxTimeToLive;
+        this.inactiveTimeToLive = inactiveTimeToLive;
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return this.timeToLive(value).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return this.timeToLive(value).toNanos();
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    /**
+     * 缓存结果的存活时间，同时用于设置 Redis 二级缓存条目的 TTL
+     */
+    Duration timeToLive(Object value) {
+        if (value == InactiveOpaqueToken.INSTANCE) {
+            return this.inactiveTimeToLive;
+        }
+        if (value instanceof OAuth2AuthenticatedPrincipal principal) {
+            Instant expiresAt = expiresAt(principal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP));
+            if (expiresAt != null) {
+                Duration remaining = Duration.between(this.clock.instant(), expiresAt);
+                if (remaining.isNegative()) {
+                    return Duration.ZERO;
+                }
+                return remaining.compareTo(this.maxTimeToLive) < 0 ? remaining : this.maxTimeToLive;
+            }
+        }
+        return this.maxTimeToLive;
+    }
+
+    private static Instant expiresAt(Object exp) {
+        if (exp instanceof Instant instant) {
+            return instant;
+        }
+        if (exp instanceof Number number) {
+            return Instant.ofEpochSecond(number.longValue());
+        }
+        return null;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+}
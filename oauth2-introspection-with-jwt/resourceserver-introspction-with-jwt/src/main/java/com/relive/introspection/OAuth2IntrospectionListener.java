@@ -0,0 +1,19 @@
+package com.relive.introspection;
+
+/**
+ * OAuth2 Introspection 数据变更监听器。
+ * 当 issuer 对应的 OAuth2Introspection 被保存或删除时收到通知，用于失效基于该数据构建的本地缓存。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 09:30
+ */
+@FunctionalInterface
+public interface OAuth2IntrospectionListener {
+
+    /**
+     * issuer 对应的 OAuth2 Introspection 数据已保存或删除。
+     *
+     * @param issuer 发行者 URI
+     */
+    void onOAuth2IntrospectionChanged(String issuer);
+}
@@ -0,0 +1,92 @@
+package com.relive.introspection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 通过 Redis pub/sub 在资源服务器副本之间传播 OAuth2 Introspection 数据变更。
+ * <p>
+ * 作为 {@link OAuth2IntrospectionListener} 注册到 {@link CachingOAuth2IntrospectionService} 时，
+ * 本副本保存或删除的 issuer 会发布到频道；作为 {@link MessageListener} 订阅该频道时，
+ * 收到的 issuer 会通知本副本注册的监听器，使所有副本失效该 issuer 已解析的 AuthenticationManager。
+ * 发布副本也会收到自己的消息，监听器需能重复失效。
+ * <p>
+ * pub/sub 不保证送达，订阅连接断开期间的消息会丢失，此时依赖监听器自身缓存的 TTL 兜底。
+ *
+ * @author: ReLive
+ * @date: 2026/10/18 17:10
+ */
+@Slf4j
+public class RedisOAuth2IntrospectionChangeChannel implements OAuth2IntrospectionListener, MessageListener {
+
+    /**
+     * 默认频道
+     */
+    public static final String DEFAULT_CHANNEL = "oauth2:introspection:changed";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String channel;
+
+    // 收到变更消息时通知的本地监听器
+    private final List<OAuth2IntrospectionListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param redisTemplate Redis 模板，用于发布变更消息
+     * @param channel       发布与订阅的频道
+     */
+    public RedisOAuth2IntrospectionChangeChannel(StringRedisTemplate redisTemplate, String channel) {
+        Assert.notNull(redisTemplate, "redisTemplate cannot be null");
+        Assert.hasText(channel, "channel cannot be empty");
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * 发布 issuer 变更消息。发布失败只记录日志，不影响数据的保存或删除。
+     *
+     * @param issuer 发行者 URI
+     */
+    @Override
+    public void onOAuth2IntrospectionChanged(String issuer) {
+        try {
+            this.redisTemplate.convertAndSend(this.channel, issuer);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish OAuth2Introspection change of issuer '{}': {}", issuer, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String issuer = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!StringUtils.hasText(issuer)) {
+            log.warn("Ignoring empty OAuth2Introspection change message");
+            return;
+        }
+        for (OAuth2IntrospectionListener listener : this.listeners) {
+            listener.onOAuth2IntrospectionChanged(issuer);
+        }
+    }
+
+    /**
+     * 注册本地监听器，任一副本保存或删除 OAuth2 Introspection 数据后回调。
+     *
+     * @param listener 数据变更监听器
+     */
+    public void addListener(OAuth2IntrospectionListener listener) {
+        Assert.notNull(listener, "listener cannot be null");
+        this.listeners.add(listener);
+    }
+
+    public String getChannel() {
+        return this.channel;
+    }
+}
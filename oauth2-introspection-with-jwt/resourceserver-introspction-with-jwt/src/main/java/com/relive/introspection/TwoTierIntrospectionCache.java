@@ -0,0 +1,143 @@
+package com.relive.introspection;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * 本地一级缓存与 Redis 二级缓存组成的 introspection 结果缓存。
+ * <p>
+ * 读取时先查本地缓存，未命中再查 Redis，Redis 命中的结果回填本地缓存；写入时同时写入两级缓存。
+ * Redis 中保存 {@link OAuth2AuthenticatedPrincipalCodec} 编码的紧凑 JSON，TTL 与本地缓存一样由
+ * {@link OAuth2IntrospectionExpiry} 计算。Redis 不可用时只记录日志，退化为本地缓存。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 11:20
+ */
+@Slf4j
+final class TwoTierIntrospectionCache implements Cache {
+    private static final String KEY_PREFIX = "oauth2:introspective:";
+
+    // 本地一级缓存
+    private final Cache localCache;
+
+    // Redis 二级缓存
+    private final StringRedisTemplate redisTemplate;
+
+    // 计算二级缓存条目的 TTL
+    private final OAuth2IntrospectionExpiry expiry;
+
+    TwoTierIntrospectionCache(Cache localCache, StringRedisTemplate redisTemplate, OAuth2IntrospectionExpiry expiry) {
+        Assert.notNull(localCache, "localCache cannot be null");
+        Assert.notNull(redisTemplate, "redisTemplate cannot be null");
+        Assert.notNull(expiry, "expiry cannot be null");
+        this.localCache = localCache;
+        this.redisTemplate = redisTemplate;
+        this.expiry = expiry;
+    }
+
+    @Override
+    public String getName() {
+        return this.localCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.localCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = this.localCache.get(key);
+        if (local != null) {
+            return local;
+        }
+        String encoded;
+        try {
+            encoded = this.redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read the introspection result from Redis: {}", ex.getMessage());
+            return null;
+        }
+        if (encoded == null) {
+            return null;
+        }
+        Object value;
+        try {
+            value = OAuth2AuthenticatedPrincipalCodec.decode(encoded);
+        } catch (RuntimeException ex) {
+            log.warn("Discarding an undecodable introspection result: {}", ex.getMessage());
+            return null;
+        }
+        this.localCache.put(key, value);
+        return new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = this.get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = this.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        this.put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        this.localCache.put(key, value);
+        Duration timeToLive = this.expiry.timeToLive(value);
+        if (timeToLive.isZero()) {
+            return;
+        }
+        try {
+            String encoded = OAuth2AuthenticatedPrincipalCodec.encode(value);
+            if (encoded != null) {
+                this.redisTemplate.opsForValue().set(KEY_PREFIX + key, encoded, timeToLive);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write the introspection result to Redis: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        this.localCache.evict(key);
+        try {
+            this.redisTemplate.delete(KEY_PREFIX + key);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to evict the introspection result from Redis: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 只清空本地缓存，Redis 中的条目由其他副本共享，按 TTL 过期
+     */
+    @Override
+    public void clear() {
+        this.localCache.clear();
+    }
+}
@@ -0,0 +1,66 @@
+package com.relive.introspection;
+
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestOperations;
+
+/**
+ * 本地缓存加 Redis 共享缓存的 OpaqueTokenIntrospectorSupport 实现。
+ * <p>
+ * 多个资源服务器副本共享 Redis 中的 introspection 结果，令牌在任一副本完成 introspection 后，
+ * 其他副本直接复用该结果，而不必各自请求授权服务器。本地缓存避免每次请求都访问 Redis。
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 11:20
+ */
+public class TwoTierOpaqueTokenIntrospectorSupport implements OpaqueTokenIntrospectorSupport {
+
+    private final CacheOpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport = new CacheOpaqueTokenIntrospectorSupport();
+
+    /**
+     * @param localCache             本地一级缓存，建议使用配置了 {@link OAuth2IntrospectionExpiry} 的 Caffeine 缓存
+     * @param redisConnectionFactory Redis 连接工厂
+     * @param expiry                 计算 Redis 条目 TTL 的过期策略
+     */
+    public TwoTierOpaqueTokenIntrospectorSupport(Cache localCache, RedisConnectionFactory redisConnectionFactory,
+                                                 OAuth2IntrospectionExpiry expiry) {
+        Assert.notNull(redisConnectionFactory, "redisConnectionFactory cannot be null");
+        this.opaqueTokenIntrospectorSupport.setCache(new TwoTierIntrospectionCache(localCache,
+                new StringRedisTemplate(redisConnectionFactory), expiry));
+    }
+
+    @Override
+    public OpaqueTokenIntrospector fromOAuth2Introspection(OAuth2Introspection oAuth2Introspection) {
+        return this.opaqueTokenIntrospectorSupport.fromOAuth2Introspection(oAuth2Introspection);
+    }
+
+    /**
+     * 设置 RestOperations 实例。
+     *
+     * @param restOperations RestOperations 实例，用于自定义 HTTP 请求
+     */
+    public void setRestOperations(RestOperations restOperations) {
+        this.opaqueTokenIntrospectorSupport.setRestOperations(restOperations);
+    }
+
+    /**
+     * 设置为每个 issuer 创建 HTTP 客户端的工厂。
+     *
+     * @param restOperationsFactory HTTP 客户端工厂
+     */
+    public void setRestOperationsFactory(IntrospectionRestOperationsFactory restOperationsFactory) {
+        this.opaqueTokenIntrospectorSupport.setRestOperationsFactory(restOperationsFactory);
+    }
+
+    /**
+     * 返回所有 issuer 因并发合并而未发起 introspection 请求的调用次数。
+     *
+     * @return 被合并的调用次数
+     */
+    public long getCoalescedIntrospections() {
+        return this.opaqueTokenIntrospectorSupport.getCoalescedIntrospections();
+    }
+}
@@ -0,0 +1,121 @@
+package com.relive.authentication;
+
+import com.relive.introspection.OAuth2Introspection;
+import com.relive.introspection.OAuth2IntrospectionService;
+import com.relive.introspection.OpaqueTokenIntrospectorSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 10:20
+ */
+public class IntrospectiveIssuerJwtAuthenticationManagerResolverTest {
+    private static final String ISSUER = "http://127.0.0.1:8080";
+    private static final Instant NOW = Instant.parse("2026-10-19T00:00:00Z");
+    private OAuth2IntrospectionService introspectionService;
+    private OpaqueTokenIntrospectorSupport opaqueTokenIntrospectorSupport;
+    private IntrospectiveIssuerJwtAuthenticationManagerResolver resolver;
+
+    @BeforeEach
+    public void setUp() {
+        this.introspectionService = mock(OAuth2IntrospectionService.class);
+        this.opaqueTokenIntrospectorSupport = mock(OpaqueTokenIntrospectorSupport.class);
+        when(this.opaqueTokenIntrospectorSupport.fromOAuth2Introspection(any()))
+                .thenAnswer(invocation -> mock(OpaqueTokenIntrospector.class));
+        this.resolver = new IntrospectiveIssuerJwtAuthenticationManagerResolver(this.introspectionService,
+                this.opaqueTokenIntrospectorSupport);
+        this.resolver.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void resolveWhenWithinTimeToLiveThenIntrospectionServiceNotCalled() {
+        when(this.introspectionService.loadIntrospection(ISSUER)).thenReturn(introspection("relive-client"));
+
+        AuthenticationManager authenticationManager = this.resolver.resolve(ISSUER);
+        this.resolver.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(4)), ZoneOffset.UTC));
+
+        assertSame(authenticationManager, this.resolver.resolve(ISSUER));
+        verify(this.introspectionService, times(1)).loadIntrospection(ISSUER);
+    }
+
+    @Test
+    public void resolveWhenExpiredAndIntrospectionUnchangedThenReusesAuthenticationManager() {
+        when(this.introspectionService.loadIntrospection(ISSUER)).thenReturn(introspection("relive-client"));
+
+        AuthenticationManager authenticationManager = this.resolver.resolve(ISSUER);
+        this.resolver.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(5)), ZoneOffset.UTC));
+
+        assertSame(authenticationManager, this.resolver.resolve(ISSUER));
+        verify(this.introspectionService, times(2)).loadIntrospection(ISSUER);
+        verify(this.opaqueTokenIntrospectorSupport, times(1)).fromOAuth2Introspection(any());
+    }
+
+    @Test
+    public void resolveWhenInvalidatedThenReloads() {
+        when(this.introspectionService.loadIntrospection(ISSUER)).thenReturn(introspection("relive-client"),
+                introspection("relive-client-2"));
+
+        AuthenticationManager authenticationManager = this.resolver.resolve(ISSUER);
+        this.resolver.onOAuth2IntrospectionChanged(ISSUER);
+
+        assertNotSame(authenticationManager, this.resolver.resolve(ISSUER));
+        verify(this.introspectionService, times(2)).loadIntrospection(ISSUER);
+    }
+
+    @Test
+    public void resolveWhenRemovedDuringLoadThenStaleIntrospectionNotCached() {
+        // the introspection is removed, and the resolver invalidated, after the load read the old configuration
+        when(this.introspectionService.loadIntrospection(ISSUER)).thenAnswer(invocation -> {
+            this.resolver.invalidate(ISSUER);
+            return introspection("relive-client");
+        }).thenReturn(null);
+
+        assertNull(this.resolver.resolve(ISSUER));
+        assertNull(this.resolver.resolve(ISSUER));
+        verify(this.introspectionService, times(3)).loadIntrospection(ISSUER);
+    }
+
+    @Test
+    public void resolveWhenSavedDuringLoadThenResolvesSavedIntrospection() {
+        OAuth2Introspection saved = introspection("relive-client-2");
+        when(this.introspectionService.loadIntrospection(ISSUER)).thenAnswer(invocation -> {
+            this.resolver.invalidate(ISSUER);
+            return introspection("relive-client");
+        }).thenReturn(saved);
+
+        assertNotNull(this.resolver.resolve(ISSUER));
+        verify(this.opaqueTokenIntrospectorSupport, times(1)).fromOAuth2Introspection(saved);
+        verify(this.opaqueTokenIntrospectorSupport, times(1)).fromOAuth2Introspection(any());
+    }
+
+    @Test
+    public void resolveWhenIssuerNotTrustedThenNull() {
+        assertNull(this.resolver.resolve(ISSUER));
+    }
+
+    private static OAuth2Introspection introspection(String clientId) {
+        return OAuth2Introspection.withIssuer(ISSUER)
+                .id("1")
+                .clientId(clientId)
+                .clientSecret("secret")
+                .introspectionUri(ISSUER + "/oauth2/introspect").build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.relive.introspection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 16:30
+ */
+public class CachingOpaqueTokenIntrospectorTest {
+    private static final int CALLERS = 8;
+    private final OAuth2AuthenticatedPrincipal principal = new DefaultOAuth2AuthenticatedPrincipal(
+            Map.of("sub", "admin"), List.of());
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void introspectWhenConcurrentMissesThenIntrospectsOnceAndCountsCoalescedCalls() throws Exception {
+        AtomicInteger introspections = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        OpaqueTokenIntrospector delegate = token -> {
+            introspections.incrementAndGet();
+            await(release);
+            return this.principal;
+        };
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(new ConcurrentMapCache("test"), delegate);
+
+        List<Future<OAuth2AuthenticatedPrincipal>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(this.executor.submit(() -> introspector.introspect("token")));
+        }
+        // wait until every other caller is parked on the in-flight introspection
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (introspector.getCoalescedIntrospections() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<OAuth2AuthenticatedPrincipal> result : results) {
+            assertSame(this.principal, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, introspections.get());
+        assertEquals(CALLERS - 1, introspector.getCoalescedIntrospections());
+    }
+
+    @Test
+    public void introspectWhenCachedThenDoesNotIntrospectOrCount() {
+        AtomicInteger introspections = new AtomicInteger();
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(new ConcurrentMapCache("test"),
+                token -> {
+                    introspections.incrementAndGet();
+                    return this.principal;
+                });
+
+        introspector.introspect("token");
+        introspector.introspect("token");
+
+        assertEquals(1, introspections.get());
+        assertEquals(0, introspector.getCoalescedIntrospections());
+    }
+
+    @Test
+    public void introspectWhenInFlightIntrospectionFailsThenCoalescedCallersFailAndNothingIsCached() throws Exception {
+        AtomicInteger introspections = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentMapCache cache = new ConcurrentMapCache("test");
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(cache, token -> {
+            introspections.incrementAndGet();
+            await(release);
+            throw new OAuth2IntrospectionException("unavailable");
+        });
+
+        Future<OAuth2AuthenticatedPrincipal> first = this.executor.submit(() -> introspector.introspect("token"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (introspections.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Future<OAuth2AuthenticatedPrincipal> second = this.executor.submit(() -> introspector.introspect("token"));
+        while (introspector.getCoalescedIntrospections() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertTrue(assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS)).getCause() instanceof OAuth2IntrospectionException);
+        assertTrue(assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS)).getCause() instanceof OAuth2IntrospectionException);
+        assertEquals(1, introspections.get());
+        assertTrue(cache.getNativeCache().isEmpty());
+    }
+
+    @Test
+    public void introspectWhenInactiveThenCachesNegativeResult() {
+        AtomicInteger introspections = new AtomicInteger();
+        CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(new ConcurrentMapCache("test"),
+                token -> {
+                    introspections.incrementAndGet();
+                    throw new BadOpaqueTokenException("inactive");
+                });
+
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("token"));
+        assertThrows(BadOpaqueTokenException.class, () -> introspector.introspect("token"));
+        assertEquals(1, introspections.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.relive.introspection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 20:20
+ */
+public class IntrospectionRestOperationsFactoryTest {
+    private static final String INTROSPECTION_URI = "http://127.0.0.1:8080/oauth2/introspect";
+    private final List<MockClientHttpResponse> responses = new ArrayList<>();
+    private Supplier<ClientHttpResponse> responder = () -> this.response(HttpStatus.OK);
+    private RestOperations restOperations;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        IntrospectionRestOperationsFactory restOperationsFactory = new IntrospectionRestOperationsFactory();
+        restOperationsFactory.setMaxConcurrentRequests(1);
+        restOperationsFactory.setAcquireTimeout(Duration.ZERO);
+        RestTemplate restTemplate = new RestTemplate((uri, httpMethod) -> new MockClientHttpRequest(httpMethod, uri) {
+            @Override
+            protected ClientHttpResponse executeInternal() throws IOException {
+                try {
+                    return IntrospectionRestOperationsFactoryTest.this.responder.get();
+                } catch (UncheckedIOException ex) {
+                    throw ex.getCause();
+                }
+            }
+        });
+        OAuth2Introspection oAuth2Introspection = OAuth2Introspection.withIssuer("http://127.0.0.1:8080")
+                .id("1")
+                .clientId("relive-client")
+                .clientSecret("relive-client")
+                .introspectionUri(INTROSPECTION_URI).build();
+        this.restOperations = restOperationsFactory.create(oAuth2Introspection, restTemplate);
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void exchangeWhenSequentialThenPermitIsReleasedAfterEachResponse() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("{\"active\":true}", this.introspect());
+        }
+        assertEquals(3, this.responses.size());
+    }
+
+    @Test
+    public void exchangeWhenPermitIsHeldThenFailsFast() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.responder = () -> {
+            started.countDown();
+            await(release);
+            return this.response(HttpStatus.OK);
+        };
+        Future<String> inFlight = this.executor.submit(this::introspect);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ResourceAccessException exception = assertThrows(ResourceAccessException.class, this::introspect);
+        assertTrue(exception.getMessage().contains("Too many concurrent introspection requests"));
+
+        release.countDown();
+        assertEquals("{\"active\":true}", inFlight.get(5, TimeUnit.SECONDS));
+        this.responder = () -> this.response(HttpStatus.OK);
+        assertEquals("{\"active\":true}", this.introspect());
+    }
+
+    @Test
+    public void exchangeWhenRequestFailsThenPermitIsReleased() {
+        this.responder = () -> {
+            throw new UncheckedIOException(new IOException("Connection refused"));
+        };
+        assertThrows(ResourceAccessException.class, this::introspect);
+
+        this.responder = () -> this.response(HttpStatus.OK);
+        assertEquals("{\"active\":true}", this.introspect());
+    }
+
+    @Test
+    public void exchangeWhenErrorStatusThenPermitIsReleased() {
+        this.responder = () -> this.response(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThrows(HttpServerErrorException.class, this::introspect);
+
+        this.responder = () -> this.response(HttpStatus.OK);
+        assertEquals("{\"active\":true}", this.introspect());
+    }
+
+    @Test
+    public void exchangeThenClientIsAuthenticatedWithBasicAuthentication() {
+        List<String> authorizations = new ArrayList<>();
+        RestTemplate restTemplate = new RestTemplate((uri, httpMethod) -> new MockClientHttpRequest(httpMethod, uri) {
+            @Override
+            protected ClientHttpResponse executeInternal() {
+                authorizations.add(this.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+                return IntrospectionRestOperationsFactoryTest.this.response(HttpStatus.OK);
+            }
+        });
+        RestOperations restOperations = new IntrospectionRestOperationsFactory().create(OAuth2Introspection.withIssuer("http://127.0.0.1:8080")
+                .id("1")
+                .clientId("relive-client")
+                .clientSecret("relive-client")
+                .introspectionUri(INTROSPECTION_URI).build(), restTemplate);
+
+        restOperations.postForObject(INTROSPECTION_URI, "token=abc", String.class);
+
+        assertEquals(List.of("Basic cmVsaXZlLWNsaWVudDpyZWxpdmUtY2xpZW50"), authorizations);
+        assertTrue(restTemplate.getInterceptors().isEmpty());
+    }
+
+    private String introspect() {
+        return this.restOperations.postForObject(INTROSPECTION_URI, "token=abc", String.class);
+    }
+
+    private MockClientHttpResponse response(HttpStatus status) {
+        MockClientHttpResponse response = new MockClientHttpResponse("{\"active\":true}".getBytes(StandardCharsets.UTF_8), status);
+        response.getHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+        this.responses.add(response);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.relive.introspection;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+
+import java.net.URI;
+import java.net.URL;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 20:00
+ */
+public class OAuth2AuthenticatedPrincipalCodecTest {
+
+    @Test
+    public void decodeWhenEncodedPrincipalThenRestoresNameAuthoritiesAndClaimTypes() throws Exception {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("active", true);
+        attributes.put("sub", "admin");
+        attributes.put("scope", "message.read message.write");
+        attributes.put("aud", List.of("relive-client"));
+        attributes.put("iat", Instant.ofEpochSecond(1_760_000_000L));
+        attributes.put("exp", Instant.ofEpochSecond(1_760_000_300L));
+        attributes.put("iss", URI.create("http://127.0.0.1:8080").toURL());
+        OAuth2AuthenticatedPrincipal principal = new OAuth2IntrospectionAuthenticatedPrincipal("admin", attributes,
+                AuthorityUtils.createAuthorityList("SCOPE_message.read", "SCOPE_message.write"));
+
+        OAuth2AuthenticatedPrincipal decoded = (OAuth2AuthenticatedPrincipal) OAuth2AuthenticatedPrincipalCodec.decode(
+                OAuth2AuthenticatedPrincipalCodec.encode(principal));
+
+        assertEquals("admin", decoded.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("SCOPE_message.read"), new SimpleGrantedAuthority("SCOPE_message.write")),
+                List.copyOf(decoded.getAuthorities()));
+        assertEquals(attributes, decoded.getAttributes());
+        assertTrue(decoded.getAttributes().get("exp") instanceof Instant);
+        assertTrue(decoded.getAttributes().get("iss") instanceof URL);
+    }
+
+    @Test
+    public void decodeWhenNoTypedClaimsThenRestoresClaims() {
+        OAuth2AuthenticatedPrincipal principal = new OAuth2IntrospectionAuthenticatedPrincipal("admin",
+                Map.of("sub", "admin"), AuthorityUtils.NO_AUTHORITIES);
+
+        String encoded = OAuth2AuthenticatedPrincipalCodec.encode(principal);
+        OAuth2AuthenticatedPrincipal decoded = (OAuth2AuthenticatedPrincipal) OAuth2AuthenticatedPrincipalCodec.decode(encoded);
+
+        assertEquals("{\"n\":\"admin\",\"a\":[],\"c\":{\"sub\":\"admin\"}}", encoded);
+        assertEquals(Map.of("sub", "admin"), decoded.getAttributes());
+        assertTrue(decoded.getAuthorities().isEmpty());
+    }
+
+    @Test
+    public void decodeWhenInactiveThenInactiveToken() {
+        String encoded = OAuth2AuthenticatedPrincipalCodec.encode(InactiveOpaqueToken.INSTANCE);
+
+        assertEquals("{\"x\":1}", encoded);
+        assertSame(InactiveOpaqueToken.INSTANCE, OAuth2AuthenticatedPrincipalCodec.decode(encoded));
+    }
+
+    @Test
+    public void encodeWhenUnsupportedValueThenNull() {
+        assertNull(OAuth2AuthenticatedPrincipalCodec.encode("principal"));
+    }
+
+    @Test
+    public void decodeWhenMalformedThenThrows() {
+        assertThrows(IllegalArgumentException.class, () -> OAuth2AuthenticatedPrincipalCodec.decode("{"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.relive.introspection;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 19:40
+ */
+public class OAuth2IntrospectionExpiryTest {
+    private static final Instant NOW = Instant.parse("2026-10-18T00:00:00Z");
+    private OAuth2IntrospectionExpiry expiry;
+
+    @BeforeEach
+    public void setUp() {
+        this.expiry = new OAuth2IntrospectionExpiry(Duration.ofMinutes(10), Duration.ofSeconds(30));
+        this.expiry.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void timeToLiveWhenExpiresBeforeMaximumThenUntilExp() {
+        assertEquals(Duration.ofMinutes(3), this.expiry.timeToLive(principal(NOW.plus(Duration.ofMinutes(3)))));
+    }
+
+    @Test
+    public void timeToLiveWhenExpiresAfterMaximumThenMaximum() {
+        assertEquals(Duration.ofMinutes(10), this.expiry.timeToLive(principal(NOW.plus(Duration.ofHours(1)))));
+    }
+
+    @Test
+    public void timeToLiveWhenExpIsEpochSecondsThenUntilExp() {
+        assertEquals(Duration.ofMinutes(3), this.expiry.timeToLive(principal(NOW.plus(Duration.ofMinutes(3)).getEpochSecond())));
+    }
+
+    @Test
+    public void timeToLiveWhenAlreadyExpiredThenZero() {
+        assertEquals(Duration.ZERO, this.expiry.timeToLive(principal(NOW.minusSeconds(1))));
+    }
+
+    @Test
+    public void timeToLiveWhenNoExpThenMaximum() {
+        assertEquals(Duration.ofMinutes(10), this.expiry.timeToLive(principal(null)));
+    }
+
+    @Test
+    public void timeToLiveWhenInactiveThenInactiveTimeToLive() {
+        assertEquals(Duration.ofSeconds(30), this.expiry.timeToLive(InactiveOpaqueToken.INSTANCE));
+    }
+
+    @Test
+    public void expireAfterCreateWhenUsedByCaffeineThenEntryExpiresAtExp() {
+        FakeTicker ticker = new FakeTicker();
+        Cache<String, Object> cache = Caffeine.newBuilder()
+                .expireAfter(this.expiry)
+                .ticker(ticker)
+                .build();
+        cache.put("active", principal(NOW.plus(Duration.ofMinutes(3))));
+        cache.put("inactive", InactiveOpaqueToken.INSTANCE);
+
+        ticker.advance(Duration.ofSeconds(31));
+        assertNull(cache.getIfPresent("inactive"));
+        // reads do not extend the entry
+        cache.getIfPresent("active");
+        ticker.advance(Duration.ofMinutes(3));
+        assertNull(cache.getIfPresent("active"));
+    }
+
+    private static OAuth2AuthenticatedPrincipal principal(Object exp) {
+        Map<String, Object> attributes = exp != null ? Map.of("sub", "admin", "exp", exp) : Map.of("sub", "admin");
+        return new DefaultOAuth2AuthenticatedPrincipal(attributes, List.of());
+    }
+
+    private static final class FakeTicker implements Ticker {
+        private long nanos;
+
+        void advance(Duration duration) {
+            this.nanos += duration.toNanos();
+        }
+
+        @Override
+        public long read() {
+            return this.nanos;
+        }
+    }
+}
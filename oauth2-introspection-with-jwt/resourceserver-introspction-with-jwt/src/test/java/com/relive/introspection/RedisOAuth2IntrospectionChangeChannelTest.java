@@ -0,0 +1,84 @@
+package com.relive.introspection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 17:40
+ */
+public class RedisOAuth2IntrospectionChangeChannelTest {
+    private static final String ISSUER = "http://127.0.0.1:8080";
+    private StringRedisTemplate redisTemplate;
+    private RedisOAuth2IntrospectionChangeChannel changeChannel;
+    private final List<String> changedIssuers = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        this.redisTemplate = mock(StringRedisTemplate.class);
+        this.changeChannel = new RedisOAuth2IntrospectionChangeChannel(this.redisTemplate,
+                RedisOAuth2IntrospectionChangeChannel.DEFAULT_CHANNEL);
+        this.changeChannel.addListener(this.changedIssuers::add);
+    }
+
+    @Test
+    public void saveOAuth2IntrospectionWhenChannelRegisteredThenPublishesIssuer() {
+        CachingOAuth2IntrospectionService introspectionService = new CachingOAuth2IntrospectionService(new ConcurrentMapCache("test"));
+        introspectionService.addListener(this.changeChannel);
+
+        introspectionService.saveOAuth2Introspection(OAuth2Introspection.withIssuer(ISSUER)
+                .id("1")
+                .clientId("relive-client")
+                .clientSecret("relive-client")
+                .introspectionUri(ISSUER + "/oauth2/introspect").build());
+        introspectionService.removeOAuth2Introspection(ISSUER);
+
+        verify(this.redisTemplate, times(2)).convertAndSend(RedisOAuth2IntrospectionChangeChannel.DEFAULT_CHANNEL, ISSUER);
+        // local listeners are only notified by the subscription
+        assertTrue(this.changedIssuers.isEmpty());
+    }
+
+    @Test
+    public void onMessageThenNotifiesLocalListeners() {
+        this.changeChannel.onMessage(message(ISSUER), null);
+
+        assertEquals(List.of(ISSUER), this.changedIssuers);
+    }
+
+    @Test
+    public void onMessageWhenEmptyThenIgnored() {
+        this.changeChannel.onMessage(message(""), null);
+
+        assertTrue(this.changedIssuers.isEmpty());
+    }
+
+    @Test
+    public void onOAuth2IntrospectionChangedWhenPublishFailsThenDoesNotThrow() {
+        doThrow(new RedisConnectionFailureException("down")).when(this.redisTemplate).convertAndSend(anyString(), anyString());
+
+        this.changeChannel.onOAuth2IntrospectionChanged(ISSUER);
+
+        verify(this.redisTemplate).convertAndSend(RedisOAuth2IntrospectionChangeChannel.DEFAULT_CHANNEL, ISSUER);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RedisOAuth2IntrospectionChangeChannel.DEFAULT_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
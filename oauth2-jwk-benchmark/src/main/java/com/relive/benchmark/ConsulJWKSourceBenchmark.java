@@ -0,0 +1,131 @@
+package com.relive.benchmark;
+
+import com.ecwid.consul.v1.ConsulClient;
+import com.ecwid.consul.v1.Response;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.jwk.source.ConsulJWKSet;
+import com.relive.jose.source.ConsulConfigRotateJWKSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code get} of the Consul key sources, the rotating {@link ConsulConfigRotateJWKSource} of the authorization
+ * server and the {@link ConsulJWKSet} of the resource server, with the key set stable and while keys are rotated
+ * every {@value #ROTATION_REFRESH_MILLIS} ms.
+ * <p>
+ * No Consul agent is needed, key values are written to a no-op {@link ConsulClient} and the key set of
+ * {@link ConsulJWKSet} is replaced the way a config change would.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 18:55
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsulJWKSourceBenchmark {
+    private static final long ROTATION_REFRESH_MILLIS = 500L;
+    private static final int KEY_SET_SIZE = 3;
+
+    @Param({"ConsulConfigRotateJWKSource", "ConsulJWKSet"})
+    private String source;
+
+    @Param({"none", "rotating"})
+    private String rotation;
+
+    private JWKSelector jwkSelector;
+    private JWKSource<SecurityContext> jwkSource;
+    private ScheduledExecutorService configRefresher;
+
+    @Setup(Level.Trial)
+    public void setup() throws JOSEException, KeySourceException {
+        this.jwkSelector = new JWKSelector(JWKMatcher.forJWSHeader(new JWSHeader(JWSAlgorithm.RS256)));
+        boolean rotating = "rotating".equals(this.rotation);
+        if ("ConsulConfigRotateJWKSource".equals(this.source)) {
+            long refreshTime = rotating ? ROTATION_REFRESH_MILLIS : TimeUnit.MINUTES.toMillis(5);
+            this.jwkSource = new ConsulConfigRotateJWKSource<>(new NoOpConsulClient(), refreshTime * 3, refreshTime, TimeUnit.MILLISECONDS);
+        } else {
+            ConsulJWKSet<SecurityContext> consulJWKSet = new ConsulJWKSet<>();
+            List<String> jwkSets = this.generatePublicJWKSets();
+            consulJWKSet.setJwks(jwkSets.get(0));
+            if (rotating) {
+                this.configRefresher = Executors.newSingleThreadScheduledExecutor();
+                long[] rotations = {0L};
+                this.configRefresher.scheduleWithFixedDelay(
+                        () -> consulJWKSet.setJwks(jwkSets.get((int) (++rotations[0] % jwkSets.size()))),
+                        ROTATION_REFRESH_MILLIS, ROTATION_REFRESH_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            this.jwkSource = consulJWKSet;
+        }
+        //the first key is generated outside of the measurement
+        this.jwkSource.get(this.jwkSelector, null);
+    }
+
+    /**
+     * Returns JWK Sets of {@value #KEY_SET_SIZE} keys, each one rotated by a key from the previous one.
+     */
+    private List<String> generatePublicJWKSets() throws JOSEException {
+        List<RSAKey> keys = new ArrayList<>();
+        for (int i = 0; i < KEY_SET_SIZE * 2; i++) {
+            keys.add(new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS).keyID(String.valueOf(i)).generate().toPublicJWK());
+        }
+        List<String> jwkSets = new ArrayList<>();
+        for (int i = 0; i <= keys.size() - KEY_SET_SIZE; i++) {
+            jwkSets.add(new JWKSet(new ArrayList<>(keys.subList(i, i + KEY_SET_SIZE))).toString());
+        }
+        return jwkSets;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (this.configRefresher != null) {
+            this.configRefresher.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public List<JWK> get() throws KeySourceException {
+        return this.jwkSource.get(this.jwkSelector, null);
+    }
+
+    /**
+     * Accepts key values without a Consul agent.
+     */
+    private static final class NoOpConsulClient extends ConsulClient {
+
+        @Override
+        public Response<Boolean> setKVValue(String key, String value) {
+            return new Response<>(true, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.relive.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the key source benchmarks at 1, 4, 16 and 64 threads, the throughput and the sampled latency
+ * percentiles (p99 included) are reported per thread count.
+ * <p>
+ * JMH command line options are passed through, e.g.
+ * {@code java -cp target/benchmarks.jar com.relive.benchmark.JWKSourceBenchmarkRunner -p cache=Redis}.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 19:05
+ */
+public final class JWKSourceBenchmarkRunner {
+    private static final int[] THREADS = {1, 4, 16, 64};
+    private static final String DEFAULT_INCLUDE = "(RotateJwkSource|ConsulJWKSource)Benchmark";
+
+    private JWKSourceBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        for (int threads : THREADS) {
+            OptionsBuilder builder = new OptionsBuilder();
+            if (commandLineOptions.getIncludes().isEmpty()) {
+                builder.include(DEFAULT_INCLUDE);
+            }
+            Options options = builder.parent(commandLineOptions)
+                    .threads(threads)
+                    .result("jwk-source-" + threads + "-threads.json")
+                    .resultFormat(ResultFormatType.JSON)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
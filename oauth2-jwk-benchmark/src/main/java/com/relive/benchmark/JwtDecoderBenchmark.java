@@ -0,0 +1,139 @@
+package com.relive.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.relive.jwt.LeanJwtDecoder;
+import com.relive.jwt.VaultJwtDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code decode} of an RS256 access token with {@link NimbusJwtDecoder}, {@link LeanJwtDecoder} and
+ * {@link VaultJwtDecoder}, verifying with Vault and locally, for a valid token and for one with a tampered signature.
+ * <p>
+ * {@link VaultJwtDecoder} runs against a stub {@link VaultOperations}. Verifying with Vault measures the decoding work
+ * around the Vault round trip, the stub accepts the tampered token as well. Run with
+ * {@code java -jar target/benchmarks.jar JwtDecoderBenchmark -prof gc} to compare the allocation rates as well.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 22:50
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtDecoderBenchmark {
+
+    @Param({"NimbusJwtDecoder", "LeanJwtDecoder", "VaultJwtDecoder", "VaultJwtDecoderLocal"})
+    private String decoder;
+
+    private JwtDecoder jwtDecoder;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() throws JOSEException {
+        RSAKey rsaKey = new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS).keyID("oauth2:v1").generate();
+        if ("NimbusJwtDecoder".equals(this.decoder)) {
+            this.jwtDecoder = NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+        } else if ("LeanJwtDecoder".equals(this.decoder)) {
+            this.jwtDecoder = LeanJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey());
+        } else {
+            VaultJwtDecoder vaultJwtDecoder = new VaultJwtDecoder(stubVaultOperations(rsaKey));
+            vaultJwtDecoder.setVerifyLocally("VaultJwtDecoderLocal".equals(this.decoder));
+            this.jwtDecoder = vaultJwtDecoder;
+        }
+        Instant issuedAt = Instant.now();
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("http://localhost:8080")
+                .subject("admin")
+                .audience("relive-client")
+                .issueTime(Date.from(issuedAt))
+                .notBeforeTime(Date.from(issuedAt))
+                .expirationTime(Date.from(issuedAt.plusSeconds(30 * 60)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", List.of("message.read"))
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .keyID(rsaKey.getKeyID()).type(JOSEObjectType.JWT).build(), claimsSet);
+        signedJWT.sign(new RSASSASigner(rsaKey));
+        this.token = signedJWT.serialize();
+        char last = this.token.charAt(this.token.length() - 2);
+        this.tamperedToken = this.token.substring(0, this.token.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + this.token.charAt(this.token.length() - 1);
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return this.jwtDecoder.decode(this.token);
+    }
+
+    @Benchmark
+    public void decodeTamperedSignature(Blackhole blackhole) {
+        try {
+            blackhole.consume(this.jwtDecoder.decode(this.tamperedToken));
+        } catch (JwtException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    /**
+     * Vault accepting every signature on {@code transit/verify} and exporting the public key of the token as version 1
+     * of the transit key on {@code transit/keys}.
+     */
+    private static VaultOperations stubVaultOperations(RSAKey rsaKey) throws JOSEException {
+        String publicKey = "-----BEGIN PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder().encodeToString(rsaKey.toRSAPublicKey().getEncoded())
+                + "\n-----END PUBLIC KEY-----\n";
+        VaultResponse keys = new VaultResponse();
+        keys.setData(Map.of("type", "rsa-2048", "latest_version", 1,
+                "keys", Map.of("1", Map.of("public_key", publicKey))));
+        VaultResponse valid = new VaultResponse();
+        valid.setData(Map.of("valid", true));
+        return (VaultOperations) Proxy.newProxyInstance(
+                JwtDecoderBenchmark.class.getClassLoader(), new Class<?>[]{VaultOperations.class},
+                (proxy, method, args) -> {
+                    if ("read".equals(method.getName()) && method.getParameterCount() == 1) {
+                        return keys;
+                    }
+                    if ("write".equals(method.getName()) && method.getParameterCount() == 2) {
+                        return valid;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,157 @@
+package com.relive.benchmark;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.jwk.source.CaffeineJWKSetCache;
+import com.relive.jose.jwk.source.InMemoryJWKSetCache;
+import com.relive.jose.jwk.source.RedisJWKSetCache;
+import com.relive.jose.jwk.source.RotateJwkSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RotateJwkSource#get} over the {@link JWKSetCache} implementations, with the key set stable and while
+ * keys are rotated every {@value #ROTATION_REFRESH_MILLIS} ms, either on the request thread or by the background
+ * rotation task.
+ * <p>
+ * The {@code Redis} cache runs against a throwaway {@code redis:7-alpine} container started with Testcontainers, so a
+ * Docker daemon is needed, or against the Redis server at {@code -Dredis.host} (and {@code -Dredis.port}, default
+ * 6379) if set. Run with {@code java -jar target/benchmarks.jar RotateJwkSourceBenchmark}
+ * for a single thread, or through {@link JWKSourceBenchmarkRunner} for 1 to 64 threads.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 18:40
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RotateJwkSourceBenchmark {
+    private static final long ROTATION_REFRESH_MILLIS = 500L;
+
+    @Param({"InMemory", "Caffeine", "Redis"})
+    private String cache;
+
+    /**
+     * {@code none}: the key set does not change during the measurement, {@code request}: keys are rotated on the
+     * request thread, {@code scheduled}: keys are rotated by the background rotation task.
+     */
+    @Param({"none", "request", "scheduled"})
+    private String rotation;
+
+    private JWKSelector jwkSelector;
+    private JWKSetCache jwkSetCache;
+    private RotateJwkSource<SecurityContext> jwkSource;
+    private GenericContainer<?> redisContainer;
+    private LettuceConnectionFactory connectionFactory;
+    private String prefix;
+
+    @Setup(Level.Trial)
+    public void setup() throws KeySourceException {
+        this.jwkSelector = new JWKSelector(JWKMatcher.forJWSHeader(new JWSHeader(JWSAlgorithm.RS256)));
+        boolean rotating = !"none".equals(this.rotation);
+        long refreshTime = rotating ? ROTATION_REFRESH_MILLIS : TimeUnit.MINUTES.toMillis(5);
+        long lifespan = refreshTime * 3;
+        this.jwkSetCache = this.createJWKSetCache(lifespan, refreshTime);
+        if (this.jwkSetCache instanceof InMemoryJWKSetCache inMemoryJWKSetCache) {
+            inMemoryJWKSetCache.start();
+        }
+        this.jwkSource = new RotateJwkSource<>(this.jwkSetCache);
+        if ("scheduled".equals(this.rotation)) {
+            this.jwkSource.setScheduledRotation(true);
+            this.jwkSource.start();
+        }
+        //the first key is generated outside of the measurement
+        this.jwkSource.get(this.jwkSelector, null);
+    }
+
+    private JWKSetCache createJWKSetCache(long lifespan, long refreshTime) {
+        switch (this.cache) {
+            case "InMemory":
+                return new InMemoryJWKSetCache(lifespan, refreshTime, TimeUnit.MILLISECONDS);
+            case "Caffeine":
+                return new CaffeineJWKSetCache(lifespan, refreshTime, TimeUnit.MILLISECONDS);
+            case "Redis":
+                RedisStandaloneConfiguration configuration = this.redisConfiguration();
+                this.connectionFactory = new LettuceConnectionFactory(configuration);
+                this.connectionFactory.afterPropertiesSet();
+                this.connectionFactory.start();
+                //every trial starts from an empty key set
+                this.prefix = "benchmark:" + UUID.randomUUID() + ":";
+                RedisJWKSetCache redisJWKSetCache = new RedisJWKSetCache(lifespan, refreshTime, TimeUnit.MILLISECONDS, this.connectionFactory);
+                redisJWKSetCache.setPrefix(this.prefix);
+                return redisJWKSetCache;
+            default:
+                throw new IllegalArgumentException("Unknown cache: " + this.cache);
+        }
+    }
+
+    private RedisStandaloneConfiguration redisConfiguration() {
+        String host = System.getProperty("redis.host");
+        if (host != null) {
+            return new RedisStandaloneConfiguration(host, Integer.getInteger("redis.port", 6379));
+        }
+        this.redisContainer = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+        this.redisContainer.start();
+        return new RedisStandaloneConfiguration(this.redisContainer.getHost(), this.redisContainer.getMappedPort(6379));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.jwkSource.stop();
+        if (this.jwkSetCache instanceof InMemoryJWKSetCache inMemoryJWKSetCache) {
+            inMemoryJWKSetCache.stop();
+        }
+        if (this.connectionFactory != null) {
+            RedisConnection connection = this.connectionFactory.getConnection();
+            try {
+                connection.keyCommands().del((this.prefix + "jwks").getBytes(StandardCharsets.UTF_8));
+            } finally {
+                connection.close();
+            }
+            this.connectionFactory.destroy();
+        }
+        if (this.redisContainer != null) {
+            this.redisContainer.stop();
+        }
+    }
+
+    @Benchmark
+    public List<JWK> get() throws KeySourceException {
+        return this.jwkSource.get(this.jwkSelector, null);
+    }
+
+    @Benchmark
+    public JWK getActiveSigningKey() throws KeySourceException {
+        return this.jwkSource.getActiveSigningKey();
+    }
+}
@@ -0,0 +1,110 @@
+package com.relive.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Signer;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of the signing algorithms supported by the rotating key sources,
+ * RS256 with a 2048-bit key, ES256 on P-256 and EdDSA on Ed25519.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar SigningAlgorithmBenchmark}.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 16:52
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JWSHeader header;
+    private JWTClaimsSet claimsSet;
+    private JWSSigner signer;
+    private JWSVerifier verifier;
+    private SignedJWT signedJWT;
+
+    @Setup
+    public void setup() throws JOSEException {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(this.algorithm);
+        String kid = System.currentTimeMillis() + "-" + jwsAlgorithm.getName();
+        if (JWSAlgorithm.RS256.equals(jwsAlgorithm)) {
+            RSAKey rsaKey = new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS).keyID(kid).generate();
+            this.signer = new RSASSASigner(rsaKey);
+            this.verifier = new RSASSAVerifier(rsaKey.toPublicJWK());
+        } else if (JWSAlgorithm.ES256.equals(jwsAlgorithm)) {
+            ECKey ecKey = new ECKeyGenerator(Curve.P_256).keyID(kid).generate();
+            this.signer = new ECDSASigner(ecKey);
+            this.verifier = new ECDSAVerifier(ecKey.toPublicJWK());
+        } else {
+            OctetKeyPair octetKeyPair = new OctetKeyPairGenerator(Curve.Ed25519).keyID(kid).generate();
+            this.signer = new Ed25519Signer(octetKeyPair);
+            this.verifier = new Ed25519Verifier(octetKeyPair.toPublicJWK());
+        }
+        this.header = new JWSHeader.Builder(jwsAlgorithm).keyID(kid).build();
+        Instant issuedAt = Instant.now();
+        this.claimsSet = new JWTClaimsSet.Builder()
+                .issuer("http://127.0.0.1:8080")
+                .subject("admin")
+                .audience("relive-client")
+                .issueTime(Date.from(issuedAt))
+                .notBeforeTime(Date.from(issuedAt))
+                .expirationTime(Date.from(issuedAt.plusSeconds(30 * 60)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", List.of("message.read"))
+                .build();
+        this.signedJWT = this.sign();
+    }
+
+    @Benchmark
+    public SignedJWT sign() throws JOSEException {
+        SignedJWT jwt = new SignedJWT(this.header, this.claimsSet);
+        jwt.sign(this.signer);
+        return jwt;
+    }
+
+    @Benchmark
+    public boolean verify() throws JOSEException {
+        return this.signedJWT.verify(this.verifier);
+    }
+}
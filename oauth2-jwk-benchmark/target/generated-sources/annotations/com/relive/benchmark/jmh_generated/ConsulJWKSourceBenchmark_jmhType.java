@@ -0,0 +1,4 @@
+package com.relive.benchmark.jmh_generated;
+public class ConsulJWKSourceBenchmark_jmhType extends ConsulJWKSourceBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.relive.benchmark.jmh_generated;
+public class JwtDecoderBenchmark_jmhType extends JwtDecoderBenchmark_jmhType_B3 {
+}
+
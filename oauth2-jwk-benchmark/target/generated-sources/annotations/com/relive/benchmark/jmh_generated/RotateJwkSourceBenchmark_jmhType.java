@@ -0,0 +1,4 @@
+package com.relive.benchmark.jmh_generated;
+public class RotateJwkSourceBenchmark_jmhType extends RotateJwkSourceBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.relive.benchmark.jmh_generated;
+public class SigningAlgorithmBenchmark_jmhType extends SigningAlgorithmBenchmark_jmhType_B3 {
+}
+
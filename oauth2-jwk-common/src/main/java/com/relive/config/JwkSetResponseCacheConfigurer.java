@@ -0,0 +1,31 @@
+package com.relive.config;
+
+import com.relive.filter.JwkSetResponseCacheFilter;
+import com.relive.jose.RotatingJWKSetSource;
+import org.springframework.security.config.annotation.web.HttpSecurityBuilder;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.oauth2.server.authorization.web.NimbusJwkSetEndpointFilter;
+
+import java.time.Duration;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/17 15:48
+ */
+public class JwkSetResponseCacheConfigurer<B extends HttpSecurityBuilder<B>> extends AbstractHttpConfigurer<JwkSetResponseCacheConfigurer<B>, B> {
+    private final RotatingJWKSetSource jwkSource;
+    private final Duration maxAge;
+
+    public JwkSetResponseCacheConfigurer(RotatingJWKSetSource jwkSource, Duration maxAge) {
+        this.jwkSource = jwkSource;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public void configure(B builder) {
+        AuthorizationServerSettings authorizationServerSettings = builder.getSharedObject(AuthorizationServerSettings.class);
+        JwkSetResponseCacheFilter jwkSetResponseCacheFilter = new JwkSetResponseCacheFilter(this.jwkSource, authorizationServerSettings, this.maxAge);
+        builder.addFilterBefore(jwkSetResponseCacheFilter, NimbusJwkSetEndpointFilter.class);
+    }
+}
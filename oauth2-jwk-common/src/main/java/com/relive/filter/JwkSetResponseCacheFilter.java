@@ -0,0 +1,177 @@
+package com.relive.filter;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.relive.jose.RotatingJWKSetSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code Filter} that serves the JWK Set and the authorization server metadata from pre-serialized bytes.
+ * <p>
+ * Responses carry a strong {@code ETag} and a {@code Cache-Control: max-age}, a matching {@code If-None-Match} is
+ * answered with {@code 304 Not Modified}. The max-age of the JWK Set is the time left until the
+ * {@link RotatingJWKSetSource#getNextRotationTime() next rotation}, capped by the configured max-age, so a client
+ * never caches a JWK Set past the moment tokens are signed with a key it does not contain. The JWK Set bytes are
+ * rebuilt only when {@link RotatingJWKSetSource#getJWKSet()} returns a new {@link JWKSet}. The metadata documents are
+ * captured from the downstream endpoint filters once, this requires a fixed issuer in {@link AuthorizationServerSettings}.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 15:20
+ */
+public final class JwkSetResponseCacheFilter extends OncePerRequestFilter {
+    private static final String OIDC_PROVIDER_CONFIGURATION_ENDPOINT_URI = "/.well-known/openid-configuration";
+    private static final String AUTHORIZATION_SERVER_METADATA_ENDPOINT_URI = "/.well-known/oauth-authorization-server";
+    private final RotatingJWKSetSource jwkSource;
+    private final RequestMatcher jwkSetEndpointMatcher;
+    private final RequestMatcher metadataEndpointMatcher;
+    private final boolean cacheMetadata;
+    private final Duration maxAge;
+    private final String cacheControl;
+    private final Map<String, CachedResponse> metadataResponses = new ConcurrentHashMap<>();
+    private volatile CachedResponse jwkSetResponse;
+
+    /**
+     * @param jwkSource                   the rotating key source
+     * @param authorizationServerSettings the authorization server settings
+     * @param maxAge                      the upper bound of the max-age, usually the key rotation interval
+     */
+    public JwkSetResponseCacheFilter(RotatingJWKSetSource jwkSource, AuthorizationServerSettings authorizationServerSettings, Duration maxAge) {
+        Assert.notNull(jwkSource, "jwkSource cannot be null");
+        Assert.notNull(authorizationServerSettings, "authorizationServerSettings cannot be null");
+        Assert.notNull(maxAge, "maxAge cannot be null");
+        this.jwkSource = jwkSource;
+        this.jwkSetEndpointMatcher = new AntPathRequestMatcher(authorizationServerSettings.getJwkSetEndpoint(), HttpMethod.GET.name());
+        this.metadataEndpointMatcher = new OrRequestMatcher(
+                new AntPathRequestMatcher(OIDC_PROVIDER_CONFIGURATION_ENDPOINT_URI, HttpMethod.GET.name()),
+                new AntPathRequestMatcher(AUTHORIZATION_SERVER_METADATA_ENDPOINT_URI, HttpMethod.GET.name()));
+        this.cacheMetadata = StringUtils.hasText(authorizationServerSettings.getIssuer());
+        this.maxAge = maxAge;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (this.jwkSetEndpointMatcher.matches(request)) {
+            CachedResponse jwkSetResponse;
+            try {
+                jwkSetResponse = this.getJwkSetResponse();
+            } catch (KeySourceException e) {
+                throw new IllegalStateException("Failed to select the JWK(s) -> " + e.getMessage(), e);
+            }
+            this.writeResponse(request, response, jwkSetResponse, this.getJwkSetCacheControl());
+            return;
+        }
+        if (this.cacheMetadata && this.metadataEndpointMatcher.matches(request)) {
+            CachedResponse metadataResponse = this.metadataResponses.get(request.getRequestURI());
+            if (metadataResponse != null) {
+                this.writeResponse(request, response, metadataResponse, this.cacheControl);
+                return;
+            }
+            ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() == HttpStatus.OK.value()) {
+                metadataResponse = new CachedResponse(null, responseWrapper.getContentAsByteArray(), responseWrapper.getContentType());
+                this.metadataResponses.putIfAbsent(request.getRequestURI(), metadataResponse);
+                responseWrapper.setHeader(HttpHeaders.ETAG, metadataResponse.eTag);
+                responseWrapper.setHeader(HttpHeaders.CACHE_CONTROL, this.cacheControl);
+            }
+            responseWrapper.copyBodyToResponse();
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private CachedResponse getJwkSetResponse() throws KeySourceException {
+        JWKSet jwkSet = this.jwkSource.getJWKSet();
+        CachedResponse jwkSetResponse = this.jwkSetResponse;
+        if (jwkSetResponse == null || jwkSetResponse.source != jwkSet) {
+            byte[] body = jwkSet.toPublicJWKSet().toString().getBytes(StandardCharsets.UTF_8);
+            jwkSetResponse = new CachedResponse(jwkSet, body, MediaType.APPLICATION_JSON_VALUE);
+            this.jwkSetResponse = jwkSetResponse;
+        }
+        return jwkSetResponse;
+    }
+
+    /**
+     * The JWK Set may be cached until the next key becomes active, but no longer than the configured max-age
+     */
+    private String getJwkSetCacheControl() {
+        long nextRotationTime = this.jwkSource.getNextRotationTime();
+        if (nextRotationTime < 0) {
+            return this.cacheControl;
+        }
+        long timeToRotation = Math.max(0L, nextRotationTime - new Date().getTime());
+        if (timeToRotation >= this.maxAge.toMillis()) {
+            return this.cacheControl;
+        }
+        return CacheControl.maxAge(Duration.ofMillis(timeToRotation)).cachePublic().getHeaderValue();
+    }
+
+    private void writeResponse(HttpServletRequest request, HttpServletResponse response, CachedResponse cachedResponse,
+                               String cacheControl) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cachedResponse.eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (this.isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), cachedResponse.eTag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cachedResponse.contentType);
+        response.setContentLength(cachedResponse.body.length);
+        response.getOutputStream().write(cachedResponse.body);
+    }
+
+    private boolean isNotModified(String ifNoneMatch, String eTag) {
+        if (!StringUtils.hasText(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : StringUtils.commaDelimitedListToStringArray(ifNoneMatch)) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || eTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CachedResponse {
+        private final Object source;
+        private final byte[] body;
+        private final String contentType;
+        private final String eTag;
+
+        private CachedResponse(Object source, byte[] body, String contentType) {
+            this.source = source;
+            this.body = body;
+            this.contentType = contentType != null ? contentType : MediaType.APPLICATION_JSON_VALUE;
+            this.eTag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        }
+    }
+}
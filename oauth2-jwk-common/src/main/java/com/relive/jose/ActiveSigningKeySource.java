@@ -0,0 +1,23 @@
+package com.relive.jose;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+
+/**
+ * A rotating key source that knows the key tokens are currently signed with.
+ *
+ * @author: ReLive
+ * @date: 2026/10/18 11:10
+ * @see ActiveSigningKeyTokenCustomizer
+ */
+@FunctionalInterface
+public interface ActiveSigningKeySource {
+
+    /**
+     * Returns the key tokens are currently signed with.
+     *
+     * @return
+     * @throws KeySourceException
+     */
+    JWK getActiveSigningKey() throws KeySourceException;
+}
@@ -0,0 +1,68 @@
+package com.relive.jose;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OAuth2TokenCustomizer} that sets the kid of the {@link ActiveSigningKeySource#getActiveSigningKey() active signing key}
+ * on access tokens and ID tokens, the JWS algorithm follows the {@code alg} of the key when it is set.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 14:32
+ * @see ActiveSigningKeySource
+ */
+public final class ActiveSigningKeyTokenCustomizer implements OAuth2TokenCustomizer<JwtEncodingContext> {
+    /**
+     * EdDSA has no {@link SignatureAlgorithm} constant, NimbusJwtEncoder only needs the algorithm name
+     */
+    public static final JwsAlgorithm EDDSA = new NamedJwsAlgorithm("EdDSA");
+    private final ActiveSigningKeySource activeSigningKeySource;
+
+    public ActiveSigningKeyTokenCustomizer(ActiveSigningKeySource activeSigningKeySource) {
+        Assert.notNull(activeSigningKeySource, "activeSigningKeySource cannot be null");
+        this.activeSigningKeySource = activeSigningKeySource;
+    }
+
+    @Override
+    public void customize(JwtEncodingContext context) {
+        if (OAuth2TokenType.ACCESS_TOKEN.equals(context.getTokenType()) ||
+                OidcParameterNames.ID_TOKEN.equals(context.getTokenType().getValue())) {
+            JWK jwk;
+            try {
+                jwk = this.activeSigningKeySource.getActiveSigningKey();
+            } catch (KeySourceException e) {
+                throw new IllegalStateException("Failed to select the JWK(s) -> " + e.getMessage(), e);
+            }
+            context.getJwsHeader().keyId(jwk.getKeyID());
+            if (jwk.getAlgorithm() != null) {
+                context.getJwsHeader().algorithm(resolveJwsAlgorithm(jwk.getAlgorithm().getName()));
+            }
+        }
+    }
+
+    private static JwsAlgorithm resolveJwsAlgorithm(String name) {
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(name);
+        if (signatureAlgorithm != null) {
+            return signatureAlgorithm;
+        }
+        if (EDDSA.getName().equals(name)) {
+            return EDDSA;
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + name);
+    }
+
+    private record NamedJwsAlgorithm(String name) implements JwsAlgorithm {
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.relive.jose;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import org.springframework.util.Assert;
+
+/**
+ * The {@link KeyIDStrategy} that generates the timestamp suffixed with the signing algorithm, e.g.
+ * {@code 1661252880000-ES256}. Key ids still sort by creation time.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 16:05
+ * @see KeyIDStrategy
+ */
+public class AlgorithmKeyIDStrategy implements KeyIDStrategy {
+    private final JWSAlgorithm algorithm;
+
+    public AlgorithmKeyIDStrategy(JWSAlgorithm algorithm) {
+        Assert.notNull(algorithm, "algorithm cannot be null");
+        this.algorithm = algorithm;
+    }
+
+    @Override
+    public String generateKeyID() {
+        return System.currentTimeMillis() + "-" + this.algorithm.getName();
+    }
+}
@@ -0,0 +1,50 @@
+package com.relive.jose;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.JWKGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+/**
+ * Factory of the {@link JWKGenerator}s used for key rotation.
+ * <p>
+ * The generated keys carry their {@code alg}, which the token customizer copies to the JWS header.
+ * Ed25519 requires Google Tink on the classpath.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 16:05
+ */
+public final class JWKGenerators {
+
+    private JWKGenerators() {
+    }
+
+    /**
+     * Returns a {@link JWKGenerator} for the given signing algorithm, one of {@code RS256}, {@code ES256} or {@code EdDSA}.
+     *
+     * @param algorithm
+     * @return
+     */
+    public static JWKGenerator<? extends JWK> forAlgorithm(JWSAlgorithm algorithm) {
+        if (JWSAlgorithm.RS256.equals(algorithm)) {
+            return new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS)
+                    .algorithm(JWSAlgorithm.RS256)
+                    .keyUse(KeyUse.SIGNATURE);
+        }
+        if (JWSAlgorithm.ES256.equals(algorithm)) {
+            return new ECKeyGenerator(Curve.P_256)
+                    .algorithm(JWSAlgorithm.ES256)
+                    .keyUse(KeyUse.SIGNATURE);
+        }
+        if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return new OctetKeyPairGenerator(Curve.Ed25519)
+                    .algorithm(JWSAlgorithm.EdDSA)
+                    .keyUse(KeyUse.SIGNATURE);
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+    }
+}
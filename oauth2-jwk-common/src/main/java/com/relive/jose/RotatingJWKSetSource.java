@@ -0,0 +1,29 @@
+package com.relive.jose;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKSet;
+
+/**
+ * A rotating key source whose {@link JWKSet} is published on the JWK Set endpoint.
+ *
+ * @author: ReLive
+ * @date: 2026/10/18 11:40
+ */
+public interface RotatingJWKSetSource {
+
+    /**
+     * Returns the current {@link JWKSet}, the same instance is returned until the key set changes.
+     *
+     * @return
+     * @throws KeySourceException
+     */
+    JWKSet getJWKSet() throws KeySourceException;
+
+    /**
+     * Returns the time in milliseconds at which the next key is due to become the active signing key,
+     * or {@code -1} if it is not known.
+     *
+     * @return
+     */
+    long getNextRotationTime();
+}
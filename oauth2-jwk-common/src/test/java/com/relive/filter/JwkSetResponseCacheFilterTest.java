@@ -0,0 +1,181 @@
+package com.relive.filter;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.relive.jose.RotatingJWKSetSource;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 13:10
+ */
+public class JwkSetResponseCacheFilterTest {
+    private static final Duration MAX_AGE = Duration.ofMinutes(5);
+    private final FakeRotatingJWKSetSource jwkSource = new FakeRotatingJWKSetSource();
+    private JwkSetResponseCacheFilter filter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.jwkSource.rotate("k1");
+        this.filter = new JwkSetResponseCacheFilter(this.jwkSource, AuthorizationServerSettings.builder().build(), MAX_AGE);
+    }
+
+    @Test
+    public void doFilterWhenJwkSetRequestThenPublicKeysWithETag() throws Exception {
+        MockHttpServletResponse response = this.get("/oauth2/jwks", null);
+
+        String body = this.jwkSource.jwkSet.toPublicJWKSet().toString();
+        assertEquals(200, response.getStatus());
+        assertEquals(body, response.getContentAsString());
+        assertEquals("\"" + DigestUtils.md5DigestAsHex(body.getBytes(StandardCharsets.UTF_8)) + "\"",
+                response.getHeader(HttpHeaders.ETAG));
+        assertEquals("max-age=300, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        // private key parameters are never published
+        assertFalse(body.contains("\"d\""));
+    }
+
+    @Test
+    public void doFilterWhenIfNoneMatchMatchesThenNotModified() throws Exception {
+        String eTag = this.get("/oauth2/jwks", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = this.get("/oauth2/jwks", eTag);
+        MockHttpServletResponse weakResponse = this.get("/oauth2/jwks", "\"other\", W/" + eTag);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, weakResponse.getStatus());
+    }
+
+    @Test
+    public void doFilterWhenNextRotationBeforeMaxAgeThenMaxAgeCappedAtRotation() throws Exception {
+        this.jwkSource.nextRotationTime = System.currentTimeMillis() + Duration.ofSeconds(60).toMillis();
+
+        long maxAge = maxAge(this.get("/oauth2/jwks", null));
+
+        assertTrue(maxAge > 55 && maxAge <= 60, "max-age=" + maxAge);
+    }
+
+    @Test
+    public void doFilterWhenNextRotationAfterMaxAgeThenMaxAge() throws Exception {
+        this.jwkSource.nextRotationTime = System.currentTimeMillis() + Duration.ofHours(1).toMillis();
+
+        assertEquals(300, maxAge(this.get("/oauth2/jwks", null)));
+    }
+
+    @Test
+    public void doFilterWhenNextRotationPassedThenMaxAgeZero() throws Exception {
+        this.jwkSource.nextRotationTime = System.currentTimeMillis() - 1000;
+
+        assertEquals(0, maxAge(this.get("/oauth2/jwks", null)));
+    }
+
+    @Test
+    public void doFilterWhenKeysRotatedThenETagChanges() throws Exception {
+        String eTag = this.get("/oauth2/jwks", null).getHeader(HttpHeaders.ETAG);
+        assertEquals(eTag, this.get("/oauth2/jwks", null).getHeader(HttpHeaders.ETAG));
+
+        this.jwkSource.rotate("k2");
+        MockHttpServletResponse response = this.get("/oauth2/jwks", eTag);
+
+        assertEquals(200, response.getStatus());
+        assertNotEquals(eTag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().contains("\"k2\""));
+    }
+
+    @Test
+    public void doFilterWhenMetadataRequestAndIssuerSetThenDownstreamCalledOnce() throws Exception {
+        this.filter = new JwkSetResponseCacheFilter(this.jwkSource,
+                AuthorizationServerSettings.builder().issuer("http://127.0.0.1:8080").build(), MAX_AGE);
+        AtomicInteger downstreamCalls = new AtomicInteger();
+
+        MockHttpServletResponse first = this.get("/.well-known/openid-configuration", null, downstreamCalls);
+        MockHttpServletResponse second = this.get("/.well-known/openid-configuration", null, downstreamCalls);
+        MockHttpServletResponse notModified = this.get("/.well-known/openid-configuration",
+                first.getHeader(HttpHeaders.ETAG), downstreamCalls);
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals("{\"issuer\":\"http://127.0.0.1:8080\"}", first.getContentAsString());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, notModified.getStatus());
+    }
+
+    @Test
+    public void doFilterWhenMetadataRequestAndNoIssuerThenNotCached() throws Exception {
+        AtomicInteger downstreamCalls = new AtomicInteger();
+
+        MockHttpServletResponse response = this.get("/.well-known/openid-configuration", null, downstreamCalls);
+        this.get("/.well-known/openid-configuration", null, downstreamCalls);
+
+        assertEquals(2, downstreamCalls.get());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch) throws Exception {
+        return this.get(path, ifNoneMatch, new AtomicInteger());
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch, AtomicInteger downstreamCalls) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.filter.doFilter(request, response, new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                downstreamCalls.incrementAndGet();
+                response.setContentType("application/json");
+                response.getOutputStream().write("{\"issuer\":\"http://127.0.0.1:8080\"}".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        return response;
+    }
+
+    private static long maxAge(MockHttpServletResponse response) {
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        return Long.parseLong(cacheControl.substring("max-age=".length(), cacheControl.indexOf(',')));
+    }
+
+    private static final class FakeRotatingJWKSetSource implements RotatingJWKSetSource {
+        private volatile JWKSet jwkSet;
+        private volatile long nextRotationTime = -1;
+
+        void rotate(String keyId) throws Exception {
+            this.jwkSet = new JWKSet(new ECKeyGenerator(Curve.P_256).keyID(keyId).generate());
+        }
+
+        @Override
+        public JWKSet getJWKSet() {
+            return this.jwkSet;
+        }
+
+        @Override
+        public long getNextRotationTime() {
+            return this.nextRotationTime;
+        }
+    }
+}
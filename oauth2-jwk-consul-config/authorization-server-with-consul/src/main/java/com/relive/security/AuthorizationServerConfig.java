@@ -1,23 +1,24 @@
 package com.relive.security;
 
 import com.ecwid.consul.v1.ConsulClient;
-import com.nimbusds.jose.KeySourceException;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKMatcher;
-import com.nimbusds.jose.jwk.JWKSelector;
-import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.DefaultJWKSetCache;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.ActiveSigningKeyTokenCustomizer;
+import com.relive.jose.AlgorithmKeyIDStrategy;
+import com.relive.config.JwkSetResponseCacheConfigurer;
+import com.relive.jose.JWKGenerators;
 import com.relive.jose.source.ConsulConfigRotateJWKSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
-import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
-import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -32,8 +33,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 
 import java.time.Duration;
-import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author: ReLive
@@ -44,9 +45,11 @@ public class AuthorizationServerConfig {
 
     @Bean
     @Order(Ordered.HIGHEST_PRECEDENCE)
-    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http, ConsulConfigRotateJWKSource<SecurityContext> jwkSource,
+                                                                     @Value("${jwk.refresh-time:5m}") Duration refreshTime) throws Exception {
         OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
-        return http
+        //serve JWK Set and metadata from cached bytes, the JWK Set is cacheable until the next key rotation
+        return http.with(new JwkSetResponseCacheConfigurer<>(jwkSource, refreshTime), Customizer.withDefaults())
                 .exceptionHandling(exceptions -> exceptions.
                         authenticationEntryPoint(new LoginUrlAuthenticationEntryPoint("/login"))).build();
     }
@@ -90,40 +93,33 @@ public class AuthorizationServerConfig {
 
 
     /**
-     * Key rotation based on Consul Config
+     * Key rotation based on Consul Config, the key type follows {@code jwk.signing-algorithm}, one of RS256, ES256 or EdDSA.
+     * A new key is generated every {@code jwk.refresh-time}, keys are kept for {@code jwk.lifespan}
      *
      * @param consulClient
      * @return
      */
     @Bean
-    public JWKSource<SecurityContext> jwkSource(ConsulClient consulClient) {
-        return new ConsulConfigRotateJWKSource<>(consulClient);
+    public ConsulConfigRotateJWKSource<SecurityContext> jwkSource(ConsulClient consulClient,
+                                                                  @Value("${jwk.signing-algorithm:RS256}") String signingAlgorithm,
+                                                                  @Value("${jwk.lifespan:15m}") Duration lifespan,
+                                                                  @Value("${jwk.refresh-time:5m}") Duration refreshTime) {
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(signingAlgorithm);
+        DefaultJWKSetCache jwkSetCache = new DefaultJWKSetCache(lifespan.toMillis(), refreshTime.toMillis(), TimeUnit.MILLISECONDS);
+        ConsulConfigRotateJWKSource<SecurityContext> jwkSource = new ConsulConfigRotateJWKSource<>(consulClient, jwkSetCache,
+                JWKGenerators.forAlgorithm(algorithm), null);
+        jwkSource.setKeyIDStrategy(new AlgorithmKeyIDStrategy(algorithm));
+        return jwkSource;
     }
 
     /**
-     * Set kid and get the maximum kid through {@link JWKSource}
+     * Set kid of the active signing key of {@link ConsulConfigRotateJWKSource}
      *
      * @param jwkSource
      * @return
      */
     @Bean
-    public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer(JWKSource<SecurityContext> jwkSource) {
-        return (context) -> {
-            if (OAuth2TokenType.ACCESS_TOKEN.equals(context.getTokenType()) ||
-                    OidcParameterNames.ID_TOKEN.equals(context.getTokenType().getValue())) {
-
-                JWKSelector jwkSelector = new JWKSelector(new JWKMatcher.Builder().build());
-                List<JWK> jwks;
-                try {
-                    jwks = jwkSource.get(jwkSelector, null);
-                } catch (KeySourceException e) {
-                    throw new IllegalStateException("Failed to select the JWK(s) -> " + e.getMessage(), e);
-                }
-                String kid = jwks.stream().map(JWK::getKeyID)
-                        .max(String::compareTo)
-                        .orElseThrow(() -> new IllegalArgumentException("kid not found"));
-                context.getJwsHeader().keyId(kid);
-            }
-        };
+    public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer(ConsulConfigRotateJWKSource<SecurityContext> jwkSource) {
+        return new ActiveSigningKeyTokenCustomizer(jwkSource);
     }
 }
@@ -0,0 +1,147 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.ConsulKeySourceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link JWKSource} backed by the {@code jwks} property that the authorization server writes to Consul.
+ * <p>
+ * The property is parsed once, when it is set and when an {@link EnvironmentChangeEvent} reports that it changed,
+ * into an immutable snapshot indexed by kid. Lookups by kid are served from the snapshot without parsing.
+ *
+ * @author: ReLive
+ * @date: 2022/9/13 22:53
+ */
+@Slf4j
+public class ConsulJWKSet<C extends SecurityContext> implements JWKSource<C>, EnvironmentAware, ApplicationListener<EnvironmentChangeEvent> {
+    private static final String JWKS_PROPERTY = "jwks";
+
+    private final JWKSource<C> failoverJWKSource;
+    private volatile JWKSetSnapshot jwkSetSnapshot = JWKSetSnapshot.EMPTY;
+    private Environment environment;
+
+    public ConsulJWKSet() {
+        this(null);
+    }
+
+    public ConsulJWKSet(JWKSource<C> failoverJWKSource) {
+        this.failoverJWKSource = failoverJWKSource;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, C context) throws KeySourceException {
+        JWKSetSnapshot jwkSetSnapshot = this.jwkSetSnapshot;
+        if (jwkSetSnapshot.error != null) {
+            List<JWK> failoverMatches = this.failover(jwkSetSnapshot.error, jwkSelector, context);
+            if (failoverMatches != null) {
+                return failoverMatches;
+            }
+            throw jwkSetSnapshot.error;
+        }
+        if (jwkSetSnapshot.jwkSet == null) {
+            return Collections.emptyList();
+        }
+        JWKMatcher jwkMatcher = jwkSelector.getMatcher();
+        Set<String> keyIDs = jwkMatcher.getKeyIDs();
+        if (keyIDs != null && keyIDs.size() == 1) {
+            List<JWK> jwks = jwkSetSnapshot.keysById.get(keyIDs.iterator().next());
+            return jwks != null && jwkMatcher.matches(jwks.get(0)) ? jwks : Collections.emptyList();
+        }
+        return jwkSelector.select(jwkSetSnapshot.jwkSet);
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+        this.setJwks(environment.getProperty(JWKS_PROPERTY));
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (this.environment != null && event.getKeys().contains(JWKS_PROPERTY)) {
+            this.setJwks(this.environment.getProperty(JWKS_PROPERTY));
+        }
+    }
+
+    /**
+     * Parse the JWK Set and replace the current snapshot.
+     *
+     * @param jwks the JWK Set JSON, the key set is empty if {@code null} or empty
+     */
+    public void setJwks(String jwks) {
+        JWKSetSnapshot jwkSetSnapshot;
+        if (!StringUtils.hasText(jwks)) {
+            jwkSetSnapshot = JWKSetSnapshot.EMPTY;
+        } else {
+            try {
+                jwkSetSnapshot = new JWKSetSnapshot(JWKSet.parse(jwks));
+            } catch (ParseException e) {
+                log.warn("Failed to parse the {} property: {}", JWKS_PROPERTY, e.getMessage());
+                jwkSetSnapshot = new JWKSetSnapshot(new ConsulKeySourceException("Couldn't parse JWK set: " + e.getMessage(), e));
+            }
+        }
+        this.jwkSetSnapshot = jwkSetSnapshot;
+    }
+
+    private List<JWK> failover(Exception exception, JWKSelector jwkSelector, C context) throws ConsulKeySourceException {
+        if (this.getFailoverJWKSource() == null) {
+            return null;
+        } else {
+            try {
+                return this.getFailoverJWKSource().get(jwkSelector, context);
+            } catch (KeySourceException e) {
+                throw new ConsulKeySourceException(exception.getMessage() + "; Failover JWK source retrieval failed with: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public JWKSource<C> getFailoverJWKSource() {
+        return this.failoverJWKSource;
+    }
+
+    private static final class JWKSetSnapshot {
+        private static final JWKSetSnapshot EMPTY = new JWKSetSnapshot((JWKSet) null);
+        private final JWKSet jwkSet;
+        private final Map<String, List<JWK>> keysById;
+        private final ConsulKeySourceException error;
+
+        private JWKSetSnapshot(JWKSet jwkSet) {
+            this.jwkSet = jwkSet;
+            Map<String, List<JWK>> keysById = new HashMap<>();
+            if (jwkSet != null) {
+                for (JWK jwk : jwkSet.getKeys()) {
+                    if (jwk.getKeyID() != null) {
+                        keysById.put(jwk.getKeyID(), Collections.singletonList(jwk));
+                    }
+                }
+            }
+            this.keysById = Collections.unmodifiableMap(keysById);
+            this.error = null;
+        }
+
+        private JWKSetSnapshot(ConsulKeySourceException error) {
+            this.jwkSet = null;
+            this.keysById = Collections.emptyMap();
+            this.error = error;
+        }
+    }
+}
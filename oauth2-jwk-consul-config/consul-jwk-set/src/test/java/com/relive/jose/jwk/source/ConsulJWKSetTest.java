@@ -0,0 +1,108 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 15:50
+ */
+public class ConsulJWKSetTest {
+    private ECKey k1;
+    private ECKey k2;
+    private Environment environment;
+    private ConsulJWKSet<SecurityContext> consulJWKSet;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.k1 = new ECKeyGenerator(Curve.P_256).keyID("k1").generate();
+        this.k2 = new ECKeyGenerator(Curve.P_256).keyID("k2").generate();
+        this.environment = mock(Environment.class);
+        when(this.environment.getProperty("jwks")).thenReturn(new JWKSet(this.k1).toString());
+        this.consulJWKSet = new ConsulJWKSet<>();
+        this.consulJWKSet.setEnvironment(this.environment);
+    }
+
+    @Test
+    public void getWhenKeyIdMatchesThenKeyFromSnapshot() throws Exception {
+        List<JWK> jwks = this.consulJWKSet.get(keyId("k1"), null);
+
+        assertEquals(1, jwks.size());
+        assertEquals(this.k1.toPublicJWK(), jwks.get(0));
+        // the same parsed key is returned, the property is not parsed again
+        assertSame(jwks.get(0), this.consulJWKSet.get(keyId("k1"), null).get(0));
+        verify(this.environment, times(1)).getProperty("jwks");
+    }
+
+    @Test
+    public void getWhenKeyIdUnknownThenEmpty() throws Exception {
+        assertTrue(this.consulJWKSet.get(keyId("k2"), null).isEmpty());
+    }
+
+    @Test
+    public void getWhenKeyIdMatchesButKeyTypeDoesNotThenEmpty() throws Exception {
+        JWKSelector jwkSelector = new JWKSelector(new JWKMatcher.Builder().keyID("k1").keyType(KeyType.RSA).build());
+
+        assertTrue(this.consulJWKSet.get(jwkSelector, null).isEmpty());
+    }
+
+    @Test
+    public void onApplicationEventWhenJwksChangedThenParsedOnce() throws Exception {
+        JWK before = this.consulJWKSet.get(keyId("k1"), null).get(0);
+        when(this.environment.getProperty("jwks")).thenReturn(new JWKSet(List.of(this.k1, this.k2)).toString());
+
+        this.consulJWKSet.onApplicationEvent(new EnvironmentChangeEvent(Set.of("jwks")));
+
+        JWK after = this.consulJWKSet.get(keyId("k1"), null).get(0);
+        assertNotSame(before, after);
+        assertSame(after, this.consulJWKSet.get(keyId("k1"), null).get(0));
+        assertEquals(this.k2.toPublicJWK(), this.consulJWKSet.get(keyId("k2"), null).get(0));
+        verify(this.environment, times(2)).getProperty("jwks");
+    }
+
+    @Test
+    public void onApplicationEventWhenOtherPropertyChangedThenNotParsed() throws Exception {
+        JWK before = this.consulJWKSet.get(keyId("k1"), null).get(0);
+
+        this.consulJWKSet.onApplicationEvent(new EnvironmentChangeEvent(Set.of("server.port")));
+
+        assertSame(before, this.consulJWKSet.get(keyId("k1"), null).get(0));
+        verify(this.environment, times(1)).getProperty("jwks");
+    }
+
+    @Test
+    public void getWhenJwksInvalidThenThrows() {
+        this.consulJWKSet.setJwks("{\"keys\":");
+
+        assertThrows(KeySourceException.class, () -> this.consulJWKSet.get(keyId("k1"), null));
+    }
+
+    private static JWKSelector keyId(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.KeySourceException;
 import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
 import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.gen.JWKGenerator;
@@ -14,11 +15,14 @@ import com.nimbusds.jose.jwk.source.DefaultJWKSetCache;
 import com.nimbusds.jose.jwk.source.JWKSetCache;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.ActiveSigningKeySource;
 import com.relive.jose.ConsulConfigKeySourceException;
 import com.relive.jose.KeyIDStrategy;
+import com.relive.jose.RotatingJWKSetSource;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -26,7 +30,8 @@ import java.util.concurrent.TimeUnit;
  * @author: ReLive
  * @date: 2022/9/1 12:41
  */
-public class ConsulConfigRotateJWKSource<C extends SecurityContext> implements JWKSource<C> {
+public class ConsulConfigRotateJWKSource<C extends SecurityContext> implements JWKSource<C>, ActiveSigningKeySource, RotatingJWKSetSource {
+    private static final JWKSelector ALL_KEYS_SELECTOR = new JWKSelector(new JWKMatcher.Builder().build());
     private ObjectMapper objectMapper = new ObjectMapper();
     private final JWKSource<C> failoverJWKSource;
     private final ConsulClient consulClient;
@@ -34,6 +39,7 @@ public class ConsulConfigRotateJWKSource<C extends SecurityContext> implements J
     private final JWKGenerator<? extends JWK> jwkGenerator;
     private KeyIDStrategy keyIDStrategy = this::generateKeyId;
     private String path = "/config/apps/data";
+    private volatile ActiveSigningKey activeSigningKey;
 
 
     public ConsulConfigRotateJWKSource(ConsulClient consulClient) {
@@ -61,6 +67,96 @@ public class ConsulConfigRotateJWKSource<C extends SecurityContext> implements J
 
     @Override
     public List<JWK> get(JWKSelector jwkSelector, C context) throws KeySourceException {
+        JWKSet jwkSet;
+        try {
+            jwkSet = this.refreshJWKSet();
+        } catch (ConsulConfigKeySourceException | RuntimeException e) {
+            List<JWK> failoverMatches = this.failover(e, jwkSelector, context);
+            if (failoverMatches != null) {
+                return failoverMatches;
+            }
+            throw e;
+        }
+        List<JWK> jwks = jwkSelector.select(jwkSet);
+        if (!jwks.isEmpty()) {
+            return jwks;
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns the current {@link JWKSet}, the same instance is returned until the key set changes.
+     *
+     * @return
+     * @throws KeySourceException
+     */
+    @Override
+    public JWKSet getJWKSet() throws KeySourceException {
+        try {
+            return this.refreshJWKSet();
+        } catch (ConsulConfigKeySourceException | RuntimeException e) {
+            List<JWK> failoverMatches = this.failover(e, ALL_KEYS_SELECTOR, null);
+            if (failoverMatches != null) {
+                return new JWKSet(failoverMatches);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the time the next key is generated, known when the {@link JWKSetCache} is a {@link DefaultJWKSetCache}.
+     *
+     * @return
+     */
+    @Override
+    public long getNextRotationTime() {
+        if (this.jwkSetCache instanceof DefaultJWKSetCache defaultJWKSetCache) {
+            long putTimestamp = defaultJWKSetCache.getPutTimestamp();
+            long refreshTime = defaultJWKSetCache.getRefreshTime(TimeUnit.MILLISECONDS);
+            if (putTimestamp > -1L && refreshTime > -1L) {
+                return putTimestamp + refreshTime;
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * Returns the key tokens are currently signed with, the key with the greatest kid.
+     * <p>
+     * The key is resolved once per {@link JWKSet}, so stamping the kid of a token does not scan the key set.
+     *
+     * @return
+     * @throws KeySourceException
+     */
+    @Override
+    public JWK getActiveSigningKey() throws KeySourceException {
+        JWKSet jwkSet;
+        try {
+            jwkSet = this.refreshJWKSet();
+        } catch (ConsulConfigKeySourceException | RuntimeException e) {
+            List<JWK> failoverMatches = this.failover(e, ALL_KEYS_SELECTOR, null);
+            if (failoverMatches != null) {
+                return selectActiveSigningKey(failoverMatches);
+            }
+            throw e;
+        }
+        ActiveSigningKey activeSigningKey = this.activeSigningKey;
+        if (activeSigningKey == null || activeSigningKey.jwkSet != jwkSet) {
+            activeSigningKey = new ActiveSigningKey(jwkSet, selectActiveSigningKey(jwkSet.getKeys()));
+            this.activeSigningKey = activeSigningKey;
+        }
+        if (activeSigningKey.jwk == null) {
+            throw new ConsulConfigKeySourceException("No active signing key found", null);
+        }
+        return activeSigningKey.jwk;
+    }
+
+    /**
+     * Returns the cached {@link JWKSet}, rotates the key when a refresh is due.
+     * If the rotation fails, the current {@link JWKSet} is still returned unless there is a failover source.
+     */
+    private JWKSet refreshJWKSet() throws ConsulConfigKeySourceException {
         JWKSet jwkSet = this.jwkSetCache.get();
         if (this.jwkSetCache.requiresRefresh() || jwkSet == null) {
             try {
@@ -70,23 +166,19 @@ public class ConsulConfigRotateJWKSource<C extends SecurityContext> implements J
                         jwkSet = this.updateJWKSet(jwkSet);
                     }
                 }
-            } catch (Exception e) {
-                List<JWK> failoverMatches = this.failover(e, jwkSelector, context);
-                if (failoverMatches != null) {
-                    return failoverMatches;
-                }
-
-                if (jwkSet == null) {
+            } catch (ConsulConfigKeySourceException | RuntimeException e) {
+                if (this.failoverJWKSource != null || jwkSet == null) {
                     throw e;
                 }
             }
         }
-        List<JWK> jwks = jwkSelector.select(jwkSet);
-        if (!jwks.isEmpty()) {
-            return jwks;
-        } else {
-            return Collections.emptyList();
-        }
+        return jwkSet;
+    }
+
+    private static JWK selectActiveSigningKey(List<JWK> jwks) {
+        return jwks.stream().filter(jwk -> jwk.getKeyID() != null)
+                .max(Comparator.comparing(JWK::getKeyID))
+                .orElse(null);
     }
 
     private JWKSet updateJWKSet(JWKSet jwkSet)
@@ -132,6 +224,16 @@ public class ConsulConfigRotateJWKSource<C extends SecurityContext> implements J
         }
     }
 
+    private static final class ActiveSigningKey {
+        private final JWKSet jwkSet;
+        private final JWK jwk;
+
+        private ActiveSigningKey(JWKSet jwkSet, JWK jwk) {
+            this.jwkSet = jwkSet;
+            this.jwk = jwk;
+        }
+    }
+
     public JWKSource<C> getFailoverJWKSource() {
         return this.failoverJWKSource;
     }
@@ -7,7 +7,7 @@ import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import com.relive.jose.jwk.source.ConsulJWKSet;
-import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,6 +16,9 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * @author: ReLive
  * @date: 2022/9/29 19:38
@@ -33,16 +36,30 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * The key set is re-parsed when the {@code jwks} property changes, so the bean does not need {@code @RefreshScope}
+     *
+     * @return
+     */
     @Bean
-    @RefreshScope
-    public JWKSource<SecurityContext> jwkSource() {
+    public ConsulJWKSet<SecurityContext> jwkSource() {
         return new ConsulJWKSet<>();
     }
 
+    /**
+     * Accepts the signing algorithms configured in {@code spring.security.oauth2.resourceserver.jwt.jws-algorithms}
+     *
+     * @param jwkSource
+     * @param properties
+     * @return
+     */
     @Bean
-    JwtDecoder jwtDecoder(final JWKSource<SecurityContext> jwkSource) {
+    JwtDecoder jwtDecoder(final JWKSource<SecurityContext> jwkSource, OAuth2ResourceServerProperties properties) {
+        Set<JWSAlgorithm> jwsAlgorithms = properties.getJwt().getJwsAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
         ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
-        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(jwsAlgorithms, jwkSource));
         jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
         });
         return new NimbusJwtDecoder(jwtProcessor);
@@ -1,24 +1,29 @@
 package com.relive.config;
 
-import com.nimbusds.jose.KeySourceException;
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKMatcher;
-import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.ActiveSigningKeyTokenCustomizer;
+import com.relive.jose.AlgorithmKeyIDStrategy;
+import com.relive.jose.JWKGenerators;
+import com.relive.jose.jwk.source.NearCacheJWKSetCache;
 import com.relive.jose.jwk.source.RedisJWKSetCache;
+import com.relive.jose.jwk.source.RedisJWKSetRotationPublisher;
+import com.relive.jose.jwk.source.RedisRotationLease;
 import com.relive.jose.jwk.source.RotateJwkSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
-import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
-import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -33,8 +38,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
 
 import java.time.Duration;
-import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author: ReLive
@@ -45,11 +50,14 @@ public class AuthorizationServerConfig {
 
     @Bean
     @Order(Ordered.HIGHEST_PRECEDENCE)
-    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain authorizationServerSecurityFilterChain(HttpSecurity http, RotateJwkSource<SecurityContext> jwkSource,
+                                                                     NearCacheJWKSetCache jwkSetCache) throws Exception {
         OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
+        //serve JWK Set and metadata from cached bytes, the JWK Set is cacheable until the next key rotation
+        Duration maxAge = Duration.ofSeconds(Math.max(0L, jwkSetCache.getRefreshTime(TimeUnit.SECONDS)));
         //add TokenContextFilter before OAuth2TokenEndpointFilter
-        return http.apply(new TokenContextConfigurer<HttpSecurity>())
-                .and()
+        return http.with(new TokenContextConfigurer<>(), Customizer.withDefaults())
+                .with(new JwkSetResponseCacheConfigurer<>(jwkSource, maxAge), Customizer.withDefaults())
                 .exceptionHandling(exceptions -> exceptions.
                         authenticationEntryPoint(new LoginUrlAuthenticationEntryPoint("/login"))).build();
     }
@@ -95,42 +103,60 @@ public class AuthorizationServerConfig {
 
 
     /**
-     * Defines the {@link JWKSource} for the {@link RotateJwkSource} polling key
+     * Redis {@link com.nimbusds.jose.jwk.source.JWKSetCache} with an in-process near cache, invalidated through Redis pub/sub
      *
+     * @param connectionFactory
      * @return
      */
     @Bean
-    public JWKSource<SecurityContext> jwkSource(RedisConnectionFactory connectionFactory) {
+    public NearCacheJWKSetCache jwkSetCache(RedisConnectionFactory connectionFactory) {
         RedisJWKSetCache redisJWKSetCache = new RedisJWKSetCache(connectionFactory);
         redisJWKSetCache.setPrefix("auth-server");
 
-        return new RotateJwkSource<>(redisJWKSetCache);
+        NearCacheJWKSetCache nearCacheJWKSetCache = new NearCacheJWKSetCache(redisJWKSetCache, connectionFactory);
+        nearCacheJWKSetCache.setChannel("auth-server:jwks:invalidate");
+        return nearCacheJWKSetCache;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer jwkSetCacheListenerContainer(RedisConnectionFactory connectionFactory, NearCacheJWKSetCache jwkSetCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(jwkSetCache, new ChannelTopic(jwkSetCache.getChannel()));
+        return container;
     }
 
     /**
-     * Set kid and get the maximum kid through {@link JWKSource}
+     * Defines the {@link JWKSource} for the {@link RotateJwkSource} polling key, keys are rotated by a background task
+     * so that token issuance never waits for key generation, and only the node holding the {@link RedisRotationLease} rotates.
+     * The key type follows {@code jwk.signing-algorithm}, one of RS256, ES256 or EdDSA
      *
-     * @param jwkSource
      * @return
      */
     @Bean
-    public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer(JWKSource<SecurityContext> jwkSource) {
-        return (context) -> {
-            if (OAuth2TokenType.ACCESS_TOKEN.equals(context.getTokenType()) ||
-                    OidcParameterNames.ID_TOKEN.equals(context.getTokenType().getValue())) {
+    public RotateJwkSource<SecurityContext> jwkSource(NearCacheJWKSetCache jwkSetCache, RedisConnectionFactory connectionFactory,
+                                                      @Value("${jwk.signing-algorithm:RS256}") String signingAlgorithm) {
+        RedisRotationLease rotationLease = new RedisRotationLease(connectionFactory);
+        rotationLease.setPrefix("auth-server");
+
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(signingAlgorithm);
+        RotateJwkSource<SecurityContext> rotateJwkSource = new RotateJwkSource<>(jwkSetCache, null,
+                JWKGenerators.forAlgorithm(algorithm), new AlgorithmKeyIDStrategy(algorithm));
+        rotateJwkSource.setRotationLease(rotationLease);
+        //push the rotated key set to the resource servers
+        rotateJwkSource.setRotationListener(new RedisJWKSetRotationPublisher(connectionFactory));
+        rotateJwkSource.setScheduledRotation(true);
+        return rotateJwkSource;
+    }
 
-                JWKSelector jwkSelector = new JWKSelector(new JWKMatcher.Builder().build());
-                List<JWK> jwks;
-                try {
-                    jwks = jwkSource.get(jwkSelector, null);
-                } catch (KeySourceException e) {
-                    throw new IllegalStateException("Failed to select the JWK(s) -> " + e.getMessage(), e);
-                }
-                String kid = jwks.stream().map(JWK::getKeyID)
-                        .max(String::compareTo)
-                        .orElseThrow(() -> new IllegalArgumentException("kid not found"));
-                context.getJwsHeader().keyId(kid);
-            }
-        };
+    /**
+     * Set kid of the active signing key of {@link RotateJwkSource}
+     *
+     * @param jwkSource
+     * @return
+     */
+    @Bean
+    public OAuth2TokenCustomizer<JwtEncodingContext> tokenCustomizer(RotateJwkSource<SecurityContext> jwkSource) {
+        return new ActiveSigningKeyTokenCustomizer(jwkSource);
     }
 }
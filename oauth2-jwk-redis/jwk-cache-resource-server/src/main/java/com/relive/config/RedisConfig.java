@@ -4,6 +4,9 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.JwkSetRotationMessageListener;
+import com.relive.jose.jwk.source.TwoTierJWKSource;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,6 +14,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
@@ -63,4 +68,20 @@ public class RedisConfig {
                 .build();
         return cacheManager;
     }
+
+    /**
+     * Subscribes to the key rotation events of the authorization server, the published JWK Set replaces the
+     * key set of the {@link TwoTierJWKSource}.
+     *
+     * @param factory
+     * @param jwkSource
+     * @return
+     */
+    @Bean
+    public RedisMessageListenerContainer jwkSetRotationListenerContainer(RedisConnectionFactory factory, TwoTierJWKSource<SecurityContext> jwkSource) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(new JwkSetRotationMessageListener(jwkSource), new ChannelTopic("jwks:rotation"));
+        return container;
+    }
 }
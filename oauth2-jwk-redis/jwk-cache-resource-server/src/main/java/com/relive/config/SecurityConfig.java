@@ -1,5 +1,12 @@
 package com.relive.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.relive.jose.CachingJwtDecoder;
+import com.relive.jose.jwk.source.TwoTierJWKSource;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cache.CacheManager;
@@ -17,8 +24,9 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.client.RestOperations;
 
 import java.time.Duration;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import static org.springframework.security.oauth2.jose.jws.SignatureAlgorithm.RS256;
 
 /**
  * @author: ReLive
@@ -39,7 +47,7 @@ public class SecurityConfig {
 
 
     /**
-     * {@link JwtDecoder} with Redis cache
+     * JWK Set cached in process in front of the Redis {@code jwks} cache
      *
      * @param properties
      * @param restOperations
@@ -47,13 +55,31 @@ public class SecurityConfig {
      * @return
      */
     @Bean
-    JwtDecoder jwtDecoder(OAuth2ResourceServerProperties properties, RestOperations restOperations, CacheManager cacheManager) {
-        NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withJwkSetUri(properties.getJwt().getJwkSetUri())
-                .restOperations(restOperations)
-                .cache(cacheManager.getCache("jwks"))
-                .jwsAlgorithms(algorithms -> {
-                    algorithms.add(RS256);
-                }).build();
+    TwoTierJWKSource<SecurityContext> jwkSource(OAuth2ResourceServerProperties properties, RestOperations restOperations, CacheManager cacheManager) {
+        return new TwoTierJWKSource<>(properties.getJwt().getJwkSetUri(), restOperations, cacheManager.getCache("jwks"));
+    }
+
+    /**
+     * {@link JwtDecoder} with Redis cache, accepts the signing algorithms configured in
+     * {@code spring.security.oauth2.resourceserver.jwt.jws-algorithms}.
+     * <p>
+     * Decoded tokens are cached until shortly before they expire, a repeated token only re-runs the timestamp validation.
+     *
+     * @param properties
+     * @param jwkSource
+     * @return
+     */
+    @Bean
+    JwtDecoder jwtDecoder(OAuth2ResourceServerProperties properties, TwoTierJWKSource<SecurityContext> jwkSource) {
+        Set<JWSAlgorithm> jwsAlgorithms = properties.getJwt().getJwsAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+        //EdDSA has no SignatureAlgorithm constant, so the algorithms are set on the key selector directly
+        ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(jwsAlgorithms, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
 
         //custom timestamp validation
         OAuth2TokenValidator<Jwt> withClockSkew = new DelegatingOAuth2TokenValidator<>(
@@ -61,7 +87,9 @@ public class SecurityConfig {
 
         jwtDecoder.setJwtValidator(withClockSkew);
 
-        return jwtDecoder;
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder);
+        cachingJwtDecoder.setJwtValidator(withClockSkew);
+        return cachingJwtDecoder;
     }
 
     /**
@@ -0,0 +1,150 @@
+package com.relive.jose;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * {@link JwtDecoder} that caches the {@link Jwt}s decoded by a delegate, keyed by the SHA-256 digest of the token.
+ * <p>
+ * A repeated token skips parsing and signature verification, only the {@link #setJwtValidator validator} is
+ * re-run, by default the {@link JwtTimestampValidator}. Entries expire {@link #setExpiryMargin a margin} before
+ * the {@code exp} claim, tokens without {@code exp} are not cached.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 19:20
+ */
+public final class CachingJwtDecoder implements JwtDecoder {
+    private static final String DECODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to decode the Jwt: %s";
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+    private OAuth2TokenValidator<Jwt> jwtValidator = new JwtTimestampValidator();
+    private Duration expiryMargin = Duration.ofSeconds(30);
+    private Clock clock = Clock.systemUTC();
+
+    public CachingJwtDecoder(JwtDecoder delegate) {
+        this(delegate, 10_000L);
+    }
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new JwtExpiry())
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Jwt jwt = this.cache.getIfPresent(key);
+        if (jwt == null) {
+            jwt = this.delegate.decode(token);
+            if (jwt.getExpiresAt() != null) {
+                this.cache.put(key, jwt);
+            }
+            return jwt;
+        }
+        OAuth2TokenValidatorResult result = this.jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            this.cache.invalidate(key);
+            Collection<OAuth2Error> errors = result.getErrors();
+            throw new JwtValidationException(getJwtValidationExceptionMessage(errors), errors);
+        }
+        return jwt;
+    }
+
+    private static String getJwtValidationExceptionMessage(Collection<OAuth2Error> errors) {
+        for (OAuth2Error oAuth2Error : errors) {
+            if (StringUtils.hasLength(oAuth2Error.getDescription())) {
+                return String.format(DECODING_ERROR_MESSAGE_TEMPLATE, oAuth2Error.getDescription());
+            }
+        }
+        return "Unable to validate Jwt";
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Removes all cached tokens, e.g. after a signing key has been revoked.
+     */
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Set the validator re-run on cached tokens, it should match the validator of the delegate.
+     *
+     * @param jwtValidator
+     */
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> jwtValidator) {
+        Assert.notNull(jwtValidator, "jwtValidator cannot be null");
+        this.jwtValidator = jwtValidator;
+    }
+
+    public void setExpiryMargin(Duration expiryMargin) {
+        Assert.notNull(expiryMargin, "expiryMargin cannot be null");
+        Assert.isTrue(!expiryMargin.isNegative(), "expiryMargin cannot be negative");
+        this.expiryMargin = expiryMargin;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    private final class JwtExpiry implements Expiry<String, Jwt> {
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            Instant cachedUntil = jwt.getExpiresAt().minus(CachingJwtDecoder.this.expiryMargin);
+            Duration ttl = Duration.between(CachingJwtDecoder.this.clock.instant(), cachedUntil);
+            if (ttl.isNegative()) {
+                return 0L;
+            }
+            try {
+                return ttl.toNanos();
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return this.expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
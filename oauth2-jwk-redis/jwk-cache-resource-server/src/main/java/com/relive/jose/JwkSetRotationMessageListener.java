@@ -0,0 +1,46 @@
+package com.relive.jose;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.relive.jose.jwk.source.TwoTierJWKSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+/**
+ * Receives the JWK Set published by the authorization server after a key rotation and replaces the key set of
+ * the {@link TwoTierJWKSource} in both tiers, so that tokens signed with the new key are verified without
+ * refetching the JWK Set endpoint. The message is parsed once, by {@link TwoTierJWKSource#update}.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 18:20
+ */
+@Slf4j
+public class JwkSetRotationMessageListener implements MessageListener {
+    private final TwoTierJWKSource<?> jwkSource;
+
+    public JwkSetRotationMessageListener(TwoTierJWKSource<?> jwkSource) {
+        Assert.notNull(jwkSource, "jwkSource cannot be null");
+        this.jwkSource = jwkSource;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String jwks = new String(message.getBody(), StandardCharsets.UTF_8);
+        JWKSet jwkSet;
+        try {
+            jwkSet = this.jwkSource.update(jwks);
+        } catch (ParseException e) {
+            log.warn("Ignoring malformed JWK set rotation message: {}", e.getMessage());
+            return;
+        }
+        if (jwkSet.isEmpty()) {
+            log.warn("Ignoring empty JWK set rotation message");
+            return;
+        }
+        log.debug("Replaced the cached JWK set, {} key(s)", jwkSet.size());
+    }
+}
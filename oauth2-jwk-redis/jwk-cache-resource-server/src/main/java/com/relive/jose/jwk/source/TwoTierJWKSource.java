@@ -0,0 +1,278 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestOperations;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link JWKSource} with two cache tiers in front of the JWK Set endpoint.
+ * <p>
+ * L1 is the parsed {@link JWKSet} held in process, L2 is the JWK Set JSON in a shared {@link Cache}, e.g. the Redis
+ * {@code jwks} cache, keyed by the JWK Set uri. Concurrent L1 misses share a single load, which reads L2 and only
+ * falls through to the endpoint on an L2 miss. An entry within {@link #setRefreshAhead refresh ahead} of its expiry
+ * is reloaded from the endpoint in the background while the current keys are still served, and the fetched JSON
+ * replaces the L2 entry. Going through L2 instead would hand L1 a fresh time to live for JSON that may be about to
+ * expire in L2 itself, so L1 could serve a key set up to two lifetimes old. When no key matches a kid the key set is
+ * reloaded from the endpoint the same way, as far as the {@link UnknownKeyIDGuard} allows.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 19:50
+ */
+@Slf4j
+public class TwoTierJWKSource<C extends SecurityContext> implements JWKSource<C> {
+    private static final MediaType APPLICATION_JWK_SET_JSON = new MediaType("application", "jwk-set+json");
+    private final String jwkSetUri;
+    private final RestOperations restOperations;
+    private final Cache cache;
+    private final AtomicReference<CompletableFuture<CachedJWKSet>> inFlightLoad = new AtomicReference<>();
+    private final AtomicBoolean refreshingAhead = new AtomicBoolean(false);
+    private volatile CachedJWKSet cachedJWKSet;
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Duration refreshAhead = Duration.ofSeconds(30);
+    private Executor executor = new SimpleAsyncTaskExecutor("jwks-refresh-");
+    private Clock clock = Clock.systemUTC();
+    private UnknownKeyIDGuard unknownKeyIDGuard = new UnknownKeyIDGuard();
+
+    public TwoTierJWKSource(String jwkSetUri, RestOperations restOperations, Cache cache) {
+        Assert.hasText(jwkSetUri, "jwkSetUri cannot be empty");
+        Assert.notNull(restOperations, "restOperations cannot be null");
+        Assert.notNull(cache, "cache cannot be null");
+        this.jwkSetUri = jwkSetUri;
+        this.restOperations = restOperations;
+        this.cache = cache;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, C context) throws KeySourceException {
+        CachedJWKSet cachedJWKSet = this.getCachedJWKSet();
+        List<JWK> matches = jwkSelector.select(cachedJWKSet.jwkSet);
+        Set<String> keyIDs = jwkSelector.getMatcher().getKeyIDs();
+        if (matches.isEmpty() && keyIDs != null && keyIDs.size() == 1) {
+            //unknown kid, the key set may have been rotated
+            String kid = keyIDs.iterator().next();
+            if (kid != null && this.unknownKeyIDGuard.tryAcquireRefresh(kid)) {
+                cachedJWKSet = this.load(cachedJWKSet, true);
+                matches = jwkSelector.select(cachedJWKSet.jwkSet);
+                if (matches.isEmpty()) {
+                    this.unknownKeyIDGuard.rememberUnknownKeyID(kid);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Replace the key set in both tiers, e.g. with the key set published after a key rotation. An empty key set is
+     * ignored.
+     *
+     * @param jwks the JWK Set JSON
+     * @return the parsed key set
+     * @throws ParseException if the JWK Set cannot be parsed
+     */
+    public JWKSet update(String jwks) throws ParseException {
+        JWKSet jwkSet = JWKSet.parse(jwks);
+        if (jwkSet.isEmpty()) {
+            return jwkSet;
+        }
+        this.cache.put(this.jwkSetUri, jwks);
+        this.cachedJWKSet = new CachedJWKSet(jwkSet, this.clock.millis() + this.timeToLive.toMillis());
+        this.unknownKeyIDGuard.clearUnknownKeyIDs();
+        return jwkSet;
+    }
+
+    private CachedJWKSet getCachedJWKSet() throws KeySourceException {
+        CachedJWKSet cachedJWKSet = this.cachedJWKSet;
+        long now = this.clock.millis();
+        if (cachedJWKSet == null || now >= cachedJWKSet.expiresAt) {
+            return this.load(cachedJWKSet, false);
+        }
+        if (now >= cachedJWKSet.expiresAt - this.refreshAhead.toMillis() && this.refreshingAhead.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        this.load(cachedJWKSet, true);
+                    } catch (KeySourceException e) {
+                        log.warn("Failed to refresh the JWK set ahead of expiry: {}", e.getMessage());
+                    } finally {
+                        this.refreshingAhead.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                this.refreshingAhead.set(false);
+                log.warn("Failed to schedule the JWK set refresh: {}", e.getMessage());
+            }
+        }
+        return cachedJWKSet;
+    }
+
+    /**
+     * Loads the key set unless another thread replaced {@code current} in the meantime, concurrent callers share
+     * a single load.
+     *
+     * @param fromEndpoint whether to skip L2 and fetch the key set from the endpoint
+     */
+    private CachedJWKSet load(CachedJWKSet current, boolean fromEndpoint) throws KeySourceException {
+        CompletableFuture<CachedJWKSet> load = new CompletableFuture<>();
+        CompletableFuture<CachedJWKSet> inFlightLoad = this.inFlightLoad.compareAndExchange(null, load);
+        if (inFlightLoad != null) {
+            return this.await(inFlightLoad);
+        }
+        try {
+            CachedJWKSet latest = this.cachedJWKSet;
+            if (latest == null || latest == current || this.clock.millis() >= latest.expiresAt) {
+                latest = fromEndpoint ? this.refreshJWKSet() : this.loadJWKSet();
+                this.cachedJWKSet = latest;
+                this.unknownKeyIDGuard.clearUnknownKeyIDs();
+            }
+            load.complete(latest);
+            return latest;
+        } catch (KeySourceException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlightLoad.compareAndSet(load, null);
+        }
+    }
+
+    private CachedJWKSet await(CompletableFuture<CachedJWKSet> load) throws KeySourceException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeySourceException("Interrupted while loading the JWK set", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof KeySourceException keySourceException) {
+                throw keySourceException;
+            }
+            throw new KeySourceException("Couldn't retrieve JWK set from URL: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private CachedJWKSet loadJWKSet() throws KeySourceException {
+        String jwks;
+        try {
+            jwks = this.cache.get(this.jwkSetUri, this::fetchJWKSet);
+        } catch (Cache.ValueRetrievalException e) {
+            throw new KeySourceException("Couldn't retrieve JWK set from URL: " + e.getCause().getMessage(), e.getCause());
+        } catch (RuntimeException e) {
+            //L2 unavailable, go to the endpoint directly
+            log.warn("Failed to read the JWK set from the cache, fetching it from {}: {}", this.jwkSetUri, e.getMessage());
+            jwks = this.fetchJWKSet();
+        }
+        return this.parse(jwks);
+    }
+
+    /**
+     * Fetch the key set from the endpoint and replace the L2 entry once it parses, other instances pick it up from
+     * L2 with its full time to live.
+     */
+    private CachedJWKSet refreshJWKSet() throws KeySourceException {
+        String jwks = this.fetchJWKSet();
+        CachedJWKSet cachedJWKSet = this.parse(jwks);
+        try {
+            this.cache.put(this.jwkSetUri, jwks);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write the JWK set to the cache: {}", e.getMessage());
+        }
+        return cachedJWKSet;
+    }
+
+    private CachedJWKSet parse(String jwks) throws KeySourceException {
+        try {
+            return new CachedJWKSet(JWKSet.parse(jwks), this.clock.millis() + this.timeToLive.toMillis());
+        } catch (ParseException e) {
+            throw new KeySourceException("Unable to parse JWK set: " + e.getMessage(), e);
+        }
+    }
+
+    private String fetchJWKSet() throws KeySourceException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON, APPLICATION_JWK_SET_JSON));
+        RequestEntity<Void> request = RequestEntity.get(URI.create(this.jwkSetUri)).headers(headers).build();
+        ResponseEntity<String> response;
+        try {
+            response = this.restOperations.exchange(request, String.class);
+        } catch (RuntimeException e) {
+            throw new KeySourceException("Couldn't retrieve JWK set from URL: " + e.getMessage(), e);
+        }
+        if (response.getBody() == null) {
+            throw new KeySourceException("Couldn't retrieve JWK set from URL: empty response body");
+        }
+        return response.getBody();
+    }
+
+    /**
+     * Set the time the parsed key set is kept in process, defaults to 5 minutes like the {@code jwks} Redis cache.
+     *
+     * @param timeToLive
+     */
+    public void setTimeToLive(Duration timeToLive) {
+        Assert.notNull(timeToLive, "timeToLive cannot be null");
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Set how long before its expiry the key set is reloaded in the background.
+     *
+     * @param refreshAhead
+     */
+    public void setRefreshAhead(Duration refreshAhead) {
+        Assert.notNull(refreshAhead, "refreshAhead cannot be null");
+        this.refreshAhead = refreshAhead;
+    }
+
+    public void setExecutor(Executor executor) {
+        Assert.notNull(executor, "executor cannot be null");
+        this.executor = executor;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    /**
+     * Set the {@link UnknownKeyIDGuard} that limits the refreshes triggered by unknown kids.
+     *
+     * @param unknownKeyIDGuard
+     */
+    public void setUnknownKeyIDGuard(UnknownKeyIDGuard unknownKeyIDGuard) {
+        Assert.notNull(unknownKeyIDGuard, "unknownKeyIDGuard cannot be null");
+        this.unknownKeyIDGuard = unknownKeyIDGuard;
+    }
+
+    private static final class CachedJWKSet {
+        private final JWKSet jwkSet;
+        private final long expiresAt;
+
+        private CachedJWKSet(JWKSet jwkSet, long expiresAt) {
+            this.jwkSet = jwkSet;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.relive.jose;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 18:50
+ */
+public class CachingJwtDecoderTest {
+    private static final Instant NOW = Instant.parse("2026-10-18T00:00:00Z");
+    private final Map<String, Jwt> tokens = new HashMap<>();
+    private final AtomicInteger decodes = new AtomicInteger();
+    private CachingJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    public void setUp() {
+        JwtDecoder delegate = token -> {
+            this.decodes.incrementAndGet();
+            return this.tokens.get(token);
+        };
+        this.jwtDecoder = new CachingJwtDecoder(delegate);
+        this.jwtDecoder.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        this.jwtDecoder.setJwtValidator(timestampValidator(NOW));
+    }
+
+    @Test
+    public void decodeWhenRepeatedThenDelegateDecodesOnce() {
+        Jwt jwt = jwt("token", NOW.plus(Duration.ofMinutes(5)));
+
+        assertSame(jwt, this.jwtDecoder.decode("token"));
+        assertSame(jwt, this.jwtDecoder.decode("token"));
+        assertEquals(1, this.decodes.get());
+    }
+
+    @Test
+    public void decodeWhenExpiresWithinMarginThenNotCached() {
+        jwt("token", NOW.plus(Duration.ofSeconds(20)));
+
+        this.jwtDecoder.decode("token");
+        this.jwtDecoder.decode("token");
+
+        assertEquals(2, this.decodes.get());
+    }
+
+    @Test
+    public void decodeWhenMarginIsZeroThenCachedUntilExp() {
+        this.jwtDecoder.setExpiryMargin(Duration.ZERO);
+        jwt("token", NOW.plus(Duration.ofSeconds(20)));
+
+        this.jwtDecoder.decode("token");
+        this.jwtDecoder.decode("token");
+
+        assertEquals(1, this.decodes.get());
+    }
+
+    @Test
+    public void decodeWhenNoExpThenNotCached() {
+        jwt("token", null);
+
+        this.jwtDecoder.decode("token");
+        this.jwtDecoder.decode("token");
+
+        assertEquals(2, this.decodes.get());
+    }
+
+    @Test
+    public void decodeWhenCachedTokenFailsValidationThenThrowsAndEvicts() {
+        jwt("token", NOW.plus(Duration.ofMinutes(5)));
+        this.jwtDecoder.decode("token");
+        // the cached entry outlives the token according to the validator, e.g. a clock skew between replicas
+        this.jwtDecoder.setJwtValidator(timestampValidator(NOW.plus(Duration.ofMinutes(10))));
+
+        assertThrows(JwtValidationException.class, () -> this.jwtDecoder.decode("token"));
+        this.jwtDecoder.setJwtValidator(timestampValidator(NOW));
+        this.jwtDecoder.decode("token");
+        assertEquals(2, this.decodes.get());
+    }
+
+    @Test
+    public void invalidateAllThenNextDecodeUsesDelegate() {
+        jwt("token", NOW.plus(Duration.ofMinutes(5)));
+        this.jwtDecoder.decode("token");
+
+        this.jwtDecoder.invalidateAll();
+        this.jwtDecoder.decode("token");
+
+        assertEquals(2, this.decodes.get());
+    }
+
+    private Jwt jwt(String token, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(token)
+                .header("alg", "ES256")
+                .subject("admin")
+                .issuedAt(NOW.minusSeconds(1));
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        Jwt jwt = builder.build();
+        this.tokens.put(token, jwt);
+        return jwt;
+    }
+
+    private static JwtTimestampValidator timestampValidator(Instant now) {
+        JwtTimestampValidator validator = new JwtTimestampValidator(Duration.ZERO);
+        validator.setClock(Clock.fixed(now, ZoneOffset.UTC));
+        return validator;
+    }
+}
@@ -0,0 +1,204 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 15:10
+ */
+public class TwoTierJWKSourceTest {
+    private static final String JWK_SET_URI = "http://localhost:8080/oauth2/jwks";
+
+    private final RestOperations restOperations = mock(RestOperations.class);
+
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("jwks");
+
+    private final MutableClock clock = new MutableClock();
+
+    private TwoTierJWKSource<SecurityContext> jwkSource;
+
+    @BeforeEach
+    public void setUp() {
+        this.jwkSource = new TwoTierJWKSource<>(JWK_SET_URI, this.restOperations, this.cache);
+        this.jwkSource.setClock(this.clock);
+        this.jwkSource.setExecutor(Runnable::run);
+    }
+
+    @Test
+    public void getWhenL2HasKeySetThenEndpointIsNotCalled() throws Exception {
+        JWK k1 = generate("k1");
+        this.cache.put(JWK_SET_URI, jwks(k1));
+
+        assertEquals(List.of(k1.getKeyID()), keyIDs(this.jwkSource.get(select("k1"), null)));
+        verify(this.restOperations, never()).exchange(any(RequestEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void getWhenConcurrentMissesThenEndpointIsFetchedOnce() throws Exception {
+        JWK k1 = generate("k1");
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.restOperations.exchange(any(RequestEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(jwks(k1));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<JWK>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> this.jwkSource.get(select("k1"), null)));
+            }
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            // let the other threads join the in-flight load
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<List<JWK>> result : results) {
+                assertEquals(List.of("k1"), keyIDs(result.get(5, TimeUnit.SECONDS)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(this.restOperations, times(1)).exchange(any(RequestEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void getWhenWithinRefreshAheadThenEndpointIsFetchedAndL2Replaced() throws Exception {
+        JWK k1 = generate("k1");
+        JWK k2 = generate("k2");
+        this.cache.put(JWK_SET_URI, jwks(k1));
+        when(this.restOperations.exchange(any(RequestEntity.class), eq(String.class))).thenReturn(ResponseEntity.ok(jwks(k1, k2)));
+        this.jwkSource.get(select("k1"), null);
+
+        // 5 minute time to live, refreshed ahead 30 seconds before the expiry
+        this.clock.advance(Duration.ofMinutes(4).plusSeconds(31));
+        this.jwkSource.get(select("k1"), null);
+
+        // the stale L2 entry was not used for the refresh
+        verify(this.restOperations, times(1)).exchange(any(RequestEntity.class), eq(String.class));
+        assertEquals(jwks(k1, k2), this.cache.get(JWK_SET_URI, String.class));
+        assertEquals(List.of("k2"), keyIDs(this.jwkSource.get(select("k2"), null)));
+    }
+
+    @Test
+    public void getWhenRefreshAheadFailsThenCurrentKeySetIsServed() throws Exception {
+        JWK k1 = generate("k1");
+        this.cache.put(JWK_SET_URI, jwks(k1));
+        when(this.restOperations.exchange(any(RequestEntity.class), eq(String.class))).thenThrow(new IllegalStateException("unavailable"));
+        this.jwkSource.get(select("k1"), null);
+
+        this.clock.advance(Duration.ofMinutes(4).plusSeconds(31));
+
+        assertEquals(List.of("k1"), keyIDs(this.jwkSource.get(select("k1"), null)));
+    }
+
+    @Test
+    public void getWhenKidIsUnknownThenKeySetIsReloadedFromEndpoint() throws Exception {
+        JWK k1 = generate("k1");
+        JWK k2 = generate("k2");
+        this.cache.put(JWK_SET_URI, jwks(k1));
+        when(this.restOperations.exchange(any(RequestEntity.class), eq(String.class))).thenReturn(ResponseEntity.ok(jwks(k1, k2)));
+
+        assertEquals(List.of("k2"), keyIDs(this.jwkSource.get(select("k2"), null)));
+        assertEquals(jwks(k1, k2), this.cache.get(JWK_SET_URI, String.class));
+    }
+
+    @Test
+    public void updateWhenKeySetIsPublishedThenBothTiersAreReplaced() throws Exception {
+        JWK k1 = generate("k1");
+        JWK k2 = generate("k2");
+        this.cache.put(JWK_SET_URI, jwks(k1));
+        this.jwkSource.get(select("k1"), null);
+
+        JWKSet jwkSet = this.jwkSource.update(jwks(k2));
+
+        assertEquals(1, jwkSet.size());
+        assertEquals(jwks(k2), this.cache.get(JWK_SET_URI, String.class));
+        assertEquals(List.of("k2"), keyIDs(this.jwkSource.get(select("k2"), null)));
+        verify(this.restOperations, never()).exchange(any(RequestEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void updateWhenKeySetIsEmptyThenIgnored() throws Exception {
+        JWK k1 = generate("k1");
+        this.cache.put(JWK_SET_URI, jwks(k1));
+
+        JWKSet jwkSet = this.jwkSource.update("{\"keys\":[]}");
+
+        assertTrue(jwkSet.isEmpty());
+        assertEquals(jwks(k1), this.cache.get(JWK_SET_URI, String.class));
+    }
+
+    private static JWK generate(String kid) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(kid).generate().toPublicJWK();
+    }
+
+    private static String jwks(JWK... jwks) {
+        return new JWKSet(List.of(jwks)).toString();
+    }
+
+    private static JWKSelector select(String kid) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(kid).build());
+    }
+
+    private static List<String> keyIDs(List<JWK> jwks) {
+        return jwks.stream().map(JWK::getKeyID).toList();
+    }
+
+    static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2026-10-18T00:00:00Z");
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.relive.jose.jwk.source;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+import org.springframework.util.CollectionUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * {@link JWKSet} storage implementation based on caffeine.
+ * <p>
+ * Caffeine only tracks the expiry of each key, reads are served from the {@link JWKRing} which is swapped
+ * when a key is added or evicted.
+ *
+ * @author: ReLive
+ * @date: 2022/8/23 19:40
+ * @see JWKRing
+ */
+public class CaffeineJWKSetCache implements RotatingJWKSetCache {
+    private final long lifespan;
+    private final long refreshTime;
+    private final TimeUnit timeUnit;
+    private final AtomicReference<JWKRing> jwkRing = new AtomicReference<>(JWKRing.empty());
+    private final Cache<JWKWithTimestamp, JWK> cache;
+
+    public CaffeineJWKSetCache() {
+        this(15L, 5L, TimeUnit.MINUTES);
+    }
+
+    public CaffeineJWKSetCache(long lifespan, long refreshTime, TimeUnit timeUnit) {
+        this.lifespan = lifespan;
+        this.refreshTime = refreshTime;
+        if ((lifespan > -1L || refreshTime > -1L) && timeUnit == null) {
+            throw new IllegalArgumentException("A time unit must be specified for non-negative lifespans or refresh times");
+        } else {
+            this.timeUnit = timeUnit;
+        }
+        Caffeine<JWKWithTimestamp, JWK> caffeine = Caffeine.newBuilder().maximumSize(10)
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((JWKWithTimestamp key, JWK jwk, RemovalCause cause) -> {
+                    if (key != null && cause.wasEvicted()) {
+                        this.jwkRing.updateAndGet(ring -> ring.remove(key));
+                    }
+                });
+        if (lifespan > -1L) {
+            caffeine.expireAfterWrite(this.lifespan, this.timeUnit);
+        }
+        this.cache = caffeine.build();
+
+    }
+
+    @Override
+    public void put(JWKSet jwkSet) {
+        if (jwkSet != null) {
+            if (!CollectionUtils.isEmpty(jwkSet.getKeys())) {
+                Date timestamp = new Date();
+                List<JWKWithTimestamp> jwkWithTimestamps = jwkSet.getKeys().stream()
+                        .map(jwk -> new JWKWithTimestamp(jwk, timestamp))
+                        .collect(Collectors.toList());
+                this.jwkRing.updateAndGet(ring -> ring.add(jwkWithTimestamps));
+                jwkWithTimestamps.forEach(jwkWithTimestamp -> cache.put(jwkWithTimestamp, jwkWithTimestamp.getJwk()));
+            }
+        }
+    }
+
+    @Override
+    public JWKSet get() {
+        JWKRing ring = this.jwkRing.get();
+        return ring.isEmpty() ? null : ring.getJWKSet();
+    }
+
+    @Override
+    public boolean requiresRefresh() {
+        JWKRing ring = this.jwkRing.get();
+        return !ring.isEmpty() && this.refreshTime > -1L
+                && (new Date()).getTime() > ring.getLastRefreshTime() + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit);
+    }
+
+    @Override
+    public long getNextRefreshTime() {
+        JWKRing ring = this.jwkRing.get();
+        if (ring.isEmpty() || this.refreshTime < 0L) {
+            return -1L;
+        }
+        return ring.getLastRefreshTime() + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit);
+    }
+
+    public JWKRing getJWKRing() {
+        return this.jwkRing.get();
+    }
+}
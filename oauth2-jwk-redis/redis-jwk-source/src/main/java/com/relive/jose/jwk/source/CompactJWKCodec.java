@@ -0,0 +1,68 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWK;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+/**
+ * Compact binary value codec for the keys stored by {@link RedisJWKSetCache}.
+ * <p>
+ * A value is laid out as {@code [version:1][kid length:2][kid][JWK JSON]}, all strings in UTF-8. The kid can be read
+ * without parsing the JWK, so callers can skip decoding keys they have already parsed.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 17:20
+ */
+public final class CompactJWKCodec {
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 3;
+
+    private CompactJWKCodec() {
+    }
+
+    public static byte[] encode(JWK jwk) {
+        byte[] kid = jwk.getKeyID() != null ? jwk.getKeyID().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (kid.length > 0xFFFF) {
+            throw new IllegalArgumentException("The kid is too long to be encoded");
+        }
+        byte[] json = jwk.toJSONString().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(HEADER_LENGTH + kid.length + json.length)
+                .put(VERSION)
+                .putShort((short) kid.length)
+                .put(kid)
+                .put(json)
+                .array();
+    }
+
+    /**
+     * Whether the value was written by this codec, values written by older versions are JSON strings.
+     *
+     * @param value
+     * @return
+     */
+    public static boolean isCompact(byte[] value) {
+        return value != null && value.length >= HEADER_LENGTH && value[0] == VERSION;
+    }
+
+    /**
+     * Returns the kid of the encoded key, or {@code null} if the key has no kid.
+     *
+     * @param value
+     * @return
+     */
+    public static String decodeKeyID(byte[] value) {
+        int kidLength = kidLength(value);
+        return kidLength == 0 ? null : new String(value, HEADER_LENGTH, kidLength, StandardCharsets.UTF_8);
+    }
+
+    public static JWK decode(byte[] value) throws ParseException {
+        int offset = HEADER_LENGTH + kidLength(value);
+        return JWK.parse(new String(value, offset, value.length - offset, StandardCharsets.UTF_8));
+    }
+
+    private static int kidLength(byte[] value) {
+        return ((value[1] & 0xFF) << 8) | (value[2] & 0xFF);
+    }
+}
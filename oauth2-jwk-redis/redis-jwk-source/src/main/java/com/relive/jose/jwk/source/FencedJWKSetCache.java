@@ -0,0 +1,26 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+
+/**
+ * A {@link JWKSetCache} that publishes a rotated key only while the {@link RotationLease} is held, the fencing
+ * token check and the write are a single atomic operation.
+ *
+ * @author: ReLive
+ * @date: 2026/10/18 13:20
+ * @see RotateJwkSource
+ */
+public interface FencedJWKSetCache extends JWKSetCache {
+
+    /**
+     * Put the {@link JWKSet} if the lease is still held with the fencing token and no other node published a key
+     * since the last refresh was due.
+     *
+     * @param jwkSet        the rotated key set
+     * @param rotationLease the lease the fencing token was acquired from
+     * @param fencingToken  the fencing token
+     * @return {@code false} if the lease was lost or the key set was already rotated, nothing is written then
+     */
+    boolean put(JWKSet jwkSet, RotationLease rotationLease, long fencingToken);
+}
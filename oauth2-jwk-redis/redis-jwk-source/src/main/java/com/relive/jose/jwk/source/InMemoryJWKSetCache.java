@@ -10,11 +10,10 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.Date;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -22,14 +21,14 @@ import java.util.stream.Collectors;
  *
  * @author: ReLive
  * @date: 2022/8/22 21:36
- * @see JWKWithTimestamp
+ * @see JWKRing
  */
 @Slf4j
-public class InMemoryJWKSetCache implements JWKSetCache, SmartLifecycle {
+public class InMemoryJWKSetCache implements RotatingJWKSetCache, SmartLifecycle {
     private final long lifespan;
     private final long refreshTime;
     private final TimeUnit timeUnit;
-    private volatile CopyOnWriteArraySet<JWKWithTimestamp> jwkWithTimestamps;
+    private final AtomicReference<JWKRing> jwkRing = new AtomicReference<>(JWKRing.empty());
     private ScheduledFuture<?> watchFuture;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final TaskScheduler taskScheduler;
@@ -47,7 +46,6 @@ public class InMemoryJWKSetCache implements JWKSetCache, SmartLifecycle {
         } else {
             this.timeUnit = timeUnit;
         }
-        this.jwkWithTimestamps = new CopyOnWriteArraySet<>();
         this.taskScheduler = getTaskScheduler();
     }
 
@@ -69,13 +67,12 @@ public class InMemoryJWKSetCache implements JWKSetCache, SmartLifecycle {
         if (!this.running.get()) {
             return;
         }
-        if (!CollectionUtils.isEmpty(this.jwkWithTimestamps) && this.lifespan > -1L) {
-            Set<JWKWithTimestamp> expiredJwk = this.jwkWithTimestamps.stream()
-                    .filter(t -> t.getDate().getTime() + TimeUnit.MILLISECONDS.convert(this.lifespan, this.timeUnit) < (new Date()).getTime())
-                    .collect(Collectors.toSet());
-            if (!CollectionUtils.isEmpty(expiredJwk)) {
-                log.debug("Removing an expired key size:{}", expiredJwk.size());
-                this.jwkWithTimestamps.removeAll(expiredJwk);
+        if (!this.jwkRing.get().isEmpty() && this.lifespan > -1L) {
+            Date threshold = new Date((new Date()).getTime() - TimeUnit.MILLISECONDS.convert(this.lifespan, this.timeUnit));
+            JWKRing current = this.jwkRing.get();
+            JWKRing updated = this.jwkRing.updateAndGet(ring -> ring.removeExpired(threshold));
+            if (updated != current) {
+                log.debug("Removing expired keys, key size:{}", updated.getKeys().size());
             }
         }
     }
@@ -98,30 +95,44 @@ public class InMemoryJWKSetCache implements JWKSetCache, SmartLifecycle {
             if (!CollectionUtils.isEmpty(jwkSet.getKeys())) {
                 List<JWKWithTimestamp> updateJWKWithTs = jwkSet.getKeys().stream().map(JWKWithTimestamp::new)
                         .collect(Collectors.toList());
-                this.jwkWithTimestamps.addAll(updateJWKWithTs);
+                this.jwkRing.updateAndGet(ring -> ring.add(updateJWKWithTs));
             }
         }
     }
 
     @Override
     public JWKSet get() {
-        return !CollectionUtils.isEmpty(this.jwkWithTimestamps) && !this.isExpired() ? new JWKSet(this.jwkWithTimestamps.stream().map(JWKWithTimestamp::getJwk)
-                .collect(Collectors.toList())) : null;
+        JWKRing ring = this.jwkRing.get();
+        return !ring.isEmpty() && !this.isExpired(ring) ? ring.getJWKSet() : null;
     }
 
     @Override
     public boolean requiresRefresh() {
-        return !CollectionUtils.isEmpty(this.jwkWithTimestamps) && this.refreshTime > -1L && this.jwkWithTimestamps.stream().map(jwkWithTimestamp -> jwkWithTimestamp.getDate().getTime())
-                .max(Long::compareTo)
-                .filter(time -> (new Date()).getTime() > time + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit))
-                .isPresent();
+        JWKRing ring = this.jwkRing.get();
+        return !ring.isEmpty() && this.refreshTime > -1L
+                && (new Date()).getTime() > ring.getLastRefreshTime() + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit);
+    }
+
+    @Override
+    public long getNextRefreshTime() {
+        JWKRing ring = this.jwkRing.get();
+        if (ring.isEmpty() || this.refreshTime < 0L) {
+            return -1L;
+        }
+        return ring.getLastRefreshTime() + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit);
     }
 
     public boolean isExpired() {
-        return !CollectionUtils.isEmpty(this.jwkWithTimestamps) && this.lifespan > -1L && this.jwkWithTimestamps.stream().map(jwkWithTimestamp -> jwkWithTimestamp.getDate().getTime())
-                .max(Long::compareTo)
-                .filter(time -> (new Date()).getTime() > time + TimeUnit.MILLISECONDS.convert(this.lifespan, this.timeUnit))
-                .isPresent();
+        return this.isExpired(this.jwkRing.get());
+    }
+
+    private boolean isExpired(JWKRing ring) {
+        return !ring.isEmpty() && this.lifespan > -1L
+                && (new Date()).getTime() > ring.getLastRefreshTime() + TimeUnit.MILLISECONDS.convert(this.lifespan, this.timeUnit);
+    }
+
+    public JWKRing getJWKRing() {
+        return this.jwkRing.get();
     }
 
     public long getLifespan(TimeUnit timeUnit) {
@@ -0,0 +1,154 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, versioned key ring.
+ * <p>
+ * Every rotation produces a new ring with a higher version, the current signing key, the kid index and the
+ * {@link JWKSet}s are computed once per rotation, so readers get them in O(1) without allocation. Holders swap
+ * rings atomically, e.g. through an {@link java.util.concurrent.atomic.AtomicReference}.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 13:40
+ * @see JWKWithTimestamp
+ */
+public final class JWKRing {
+    private static final JWKRing EMPTY = new JWKRing(0L, Collections.emptyList());
+    private final long version;
+    private final List<JWKWithTimestamp> keys;
+    private final JWKWithTimestamp current;
+    private final Map<String, JWK> keysById;
+    private final JWKSet jwkSet;
+    private final JWKSet publicJWKSet;
+
+    private JWKRing(long version, List<JWKWithTimestamp> keys) {
+        this.version = version;
+        this.keys = Collections.unmodifiableList(keys);
+        JWKWithTimestamp current = null;
+        Map<String, JWK> keysById = new HashMap<>();
+        List<JWK> jwks = new ArrayList<>(keys.size());
+        for (JWKWithTimestamp key : keys) {
+            if (current == null || !key.getDate().before(current.getDate())) {
+                current = key;
+            }
+            if (key.getJwk().getKeyID() != null) {
+                keysById.put(key.getJwk().getKeyID(), key.getJwk());
+            }
+            jwks.add(key.getJwk());
+        }
+        this.current = current;
+        this.keysById = Collections.unmodifiableMap(keysById);
+        this.jwkSet = new JWKSet(jwks);
+        this.publicJWKSet = this.jwkSet.toPublicJWKSet();
+    }
+
+    public static JWKRing empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new ring with the given keys added, the last one becomes the current signing key.
+     *
+     * @param added
+     * @return
+     */
+    public JWKRing add(List<JWKWithTimestamp> added) {
+        if (added == null || added.isEmpty()) {
+            return this;
+        }
+        List<JWKWithTimestamp> keys = new ArrayList<>(this.keys.size() + added.size());
+        keys.addAll(this.keys);
+        keys.addAll(added);
+        return new JWKRing(this.version + 1, keys);
+    }
+
+    /**
+     * Returns a new ring without the given key, compared by identity.
+     *
+     * @param removed
+     * @return
+     */
+    public JWKRing remove(JWKWithTimestamp removed) {
+        return this.removeIf(key -> key == removed);
+    }
+
+    /**
+     * Returns a new ring without the keys added before the given time.
+     *
+     * @param threshold
+     * @return
+     */
+    public JWKRing removeExpired(Date threshold) {
+        return this.removeIf(key -> key.getDate().before(threshold));
+    }
+
+    private JWKRing removeIf(Predicate<JWKWithTimestamp> filter) {
+        List<JWKWithTimestamp> keys = new ArrayList<>(this.keys);
+        if (!keys.removeIf(filter)) {
+            return this;
+        }
+        return new JWKRing(this.version + 1, keys);
+    }
+
+    public boolean isEmpty() {
+        return this.keys.isEmpty();
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public List<JWKWithTimestamp> getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * Returns the current signing key, or {@code null} if the ring is empty.
+     *
+     * @return
+     */
+    public JWK getCurrentKey() {
+        return this.current != null ? this.current.getJwk() : null;
+    }
+
+    /**
+     * Returns the time the current signing key was added, or {@code 0} if the ring is empty.
+     *
+     * @return
+     */
+    public long getLastRefreshTime() {
+        return this.current != null ? this.current.getDate().getTime() : 0L;
+    }
+
+    public JWK getKeyByKeyId(String kid) {
+        return this.keysById.get(kid);
+    }
+
+    /**
+     * Returns the {@link JWKSet} including private keys, used for signing.
+     *
+     * @return
+     */
+    public JWKSet getJWKSet() {
+        return this.jwkSet;
+    }
+
+    /**
+     * Returns the {@link JWKSet} with public keys only, as published on the JWK Set endpoint.
+     *
+     * @return
+     */
+    public JWKSet getPublicJWKSet() {
+        return this.publicJWKSet;
+    }
+}
@@ -0,0 +1,19 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+/**
+ * Callback notified by {@link RotateJwkSource} after a new key has been published.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 18:02
+ * @see RotateJwkSource
+ */
+@FunctionalInterface
+public interface JWKSetRotationListener {
+
+    /**
+     * @param jwkSet the key set including the new key, may contain private keys
+     */
+    void onRotation(JWKSet jwkSet);
+}
@@ -0,0 +1,171 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process near cache in front of {@link RedisJWKSetCache}.
+ * <p>
+ * The parsed {@link JWKSet} and the timestamp of the latest key are kept locally, so {@link #get()} and
+ * {@link #requiresRefresh()} make no Redis call in the steady state. {@link #put(JWKSet)} publishes an
+ * invalidation message on a Redis channel, each node registers this cache as the {@link MessageListener}
+ * of that channel and drops its snapshot when a key is added on any node.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 10:24
+ * @see RedisJWKSetCache
+ */
+@Slf4j
+public class NearCacheJWKSetCache implements RotatingJWKSetCache, FencedJWKSetCache, MessageListener {
+    private final RedisJWKSetCache redisJWKSetCache;
+    private final RedisConnectionFactory connectionFactory;
+    private final AtomicLong version = new AtomicLong();
+    private volatile JWKSetSnapshot snapshot;
+    private RedisSerializer<String> redisSerializer = new StringRedisSerializer();
+    private String channel = "jwks:invalidate";
+    private Duration maxStaleness = Duration.ofMinutes(1);
+
+    public NearCacheJWKSetCache(RedisJWKSetCache redisJWKSetCache, RedisConnectionFactory connectionFactory) {
+        Assert.notNull(redisJWKSetCache, "redisJWKSetCache cannot be null");
+        Assert.notNull(connectionFactory, "redisConnectionFactory cannot be null");
+        this.redisJWKSetCache = redisJWKSetCache;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public void put(JWKSet jwkSet) {
+        this.redisJWKSetCache.put(jwkSet);
+        this.invalidate();
+        this.publishInvalidation();
+    }
+
+    @Override
+    public boolean put(JWKSet jwkSet, RotationLease rotationLease, long fencingToken) {
+        boolean published = this.redisJWKSetCache.put(jwkSet, rotationLease, fencingToken);
+        //not published means another node rotated, the local snapshot is outdated either way
+        this.invalidate();
+        if (published) {
+            this.publishInvalidation();
+        }
+        return published;
+    }
+
+    private void publishInvalidation() {
+        RedisConnection connection = this.connectionFactory.getConnection();
+        try {
+            connection.publish(this.redisSerializer.serialize(this.channel), this.redisSerializer.serialize(String.valueOf(new Date().getTime())));
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public JWKSet get() {
+        return this.getSnapshot().jwkSet;
+    }
+
+    @Override
+    public boolean requiresRefresh() {
+        long refreshTime = this.redisJWKSetCache.getRefreshTime(TimeUnit.MILLISECONDS);
+        long lastRefreshTime = this.getSnapshot().lastRefreshTime;
+        return lastRefreshTime > 0 && refreshTime > -1L && (new Date()).getTime() > lastRefreshTime + refreshTime;
+    }
+
+    @Override
+    public long getNextRefreshTime() {
+        long refreshTime = this.redisJWKSetCache.getRefreshTime(TimeUnit.MILLISECONDS);
+        long lastRefreshTime = this.getSnapshot().lastRefreshTime;
+        return lastRefreshTime > 0 && refreshTime > -1L ? lastRefreshTime + refreshTime : -1L;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        log.debug("Received JWK set invalidation on channel:{}", this.channel);
+        this.invalidate();
+    }
+
+    /**
+     * Drop the local snapshot, the next access reloads it from Redis.
+     */
+    public void invalidate() {
+        this.version.incrementAndGet();
+        this.snapshot = null;
+    }
+
+    private JWKSetSnapshot getSnapshot() {
+        JWKSetSnapshot snapshot = this.snapshot;
+        if (snapshot != null && !snapshot.isStale(this.maxStaleness)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = this.snapshot;
+            if (snapshot != null && !snapshot.isStale(this.maxStaleness)) {
+                return snapshot;
+            }
+            long loadVersion = this.version.get();
+            snapshot = new JWKSetSnapshot(this.redisJWKSetCache.get(), this.redisJWKSetCache.getLastRefreshTime());
+            //an invalidation received while loading means the loaded snapshot may already be outdated,
+            //an empty key set is not kept so that a node waiting for the first key sees it as soon as it is written
+            if (this.version.get() == loadVersion && snapshot.jwkSet != null) {
+                this.snapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
+
+    public long getRefreshTime(TimeUnit timeUnit) {
+        return this.redisJWKSetCache.getRefreshTime(timeUnit);
+    }
+
+    public String getChannel() {
+        return this.channel;
+    }
+
+    public void setChannel(String channel) {
+        Assert.hasText(channel, "channel cannot be empty");
+        this.channel = channel;
+    }
+
+    /**
+     * Upper bound for serving a snapshot without reloading it, protects against lost invalidation messages.
+     *
+     * @param maxStaleness
+     */
+    public void setMaxStaleness(Duration maxStaleness) {
+        Assert.notNull(maxStaleness, "maxStaleness cannot be null");
+        this.maxStaleness = maxStaleness;
+    }
+
+    public void setRedisSerializer(RedisSerializer<String> redisSerializer) {
+        this.redisSerializer = redisSerializer;
+    }
+
+    private static final class JWKSetSnapshot {
+        private final JWKSet jwkSet;
+        private final long lastRefreshTime;
+        private final long loadTime;
+
+        private JWKSetSnapshot(JWKSet jwkSet, long lastRefreshTime) {
+            this.jwkSet = jwkSet;
+            this.lastRefreshTime = lastRefreshTime;
+            this.loadTime = new Date().getTime();
+        }
+
+        private boolean isStale(Duration maxStaleness) {
+            return (new Date()).getTime() > this.loadTime + maxStaleness.toMillis();
+        }
+    }
+}
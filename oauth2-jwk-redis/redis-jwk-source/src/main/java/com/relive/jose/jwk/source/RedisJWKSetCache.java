@@ -0,0 +1,287 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands.Limit;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JWKSet} storage implementation based on redis.
+ * <p>
+ * Keys are stored with the {@link CompactJWKCodec}, parsed keys are cached by kid so that a read only parses
+ * the keys added since the previous read. A rotated key is published with {@link #put(JWKSet, RotationLease, long)},
+ * which checks the fencing token of the {@link RedisRotationLease} and writes the key in one Lua script.
+ *
+ * @author: ReLive
+ * @date: 2022/8/24 09:07
+ */
+public class RedisJWKSetCache implements RotatingJWKSetCache, FencedJWKSetCache {
+    //KEYS[1] jwks, KEYS[2] lease; ARGV[1] fencing token, ARGV[2] rotation threshold, ARGV[3] expiry threshold, ARGV[4] score, ARGV[5..] keys
+    private static final byte[] FENCED_PUT_SCRIPT = ("if redis.call('get', KEYS[2]) ~= ARGV[1] then return 0 end " +
+            "local latest = redis.call('zrevrange', KEYS[1], 0, 0, 'WITHSCORES') " +
+            "if latest[2] and tonumber(latest[2]) >= tonumber(ARGV[2]) then return 0 end " +
+            "if ARGV[3] ~= '-1' then redis.call('zremrangebyscore', KEYS[1], '(0', ARGV[3]) end " +
+            "for i = 5, #ARGV do redis.call('zadd', KEYS[1], ARGV[4], ARGV[i]) end " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+    private final RedisConnectionFactory connectionFactory;
+    private final String JWK_KEY = "jwks";
+    private String prefix = "";
+    private RedisSerializer<String> redisSerializeKey = new StringRedisSerializer();
+    //only used to read keys written before the compact codec
+    private RedisSerializer<String> redisSerializerValue = new Jackson2JsonRedisSerializer<>(String.class);
+    private final Map<String, ParsedJWK> parsedKeys = new ConcurrentHashMap<>();
+    private volatile JWKSet lastJWKSet;
+    private final long lifespan;
+    private final long refreshTime;
+    private final TimeUnit timeUnit;
+
+    public RedisJWKSetCache(RedisConnectionFactory connectionFactory) {
+        this(15L, 5L, TimeUnit.MINUTES, connectionFactory);
+    }
+
+    public RedisJWKSetCache(long lifespan, long refreshTime, TimeUnit timeUnit, RedisConnectionFactory connectionFactory) {
+        this.lifespan = lifespan;
+        this.refreshTime = refreshTime;
+        if ((lifespan > -1L || refreshTime > -1L) && timeUnit == null) {
+            throw new IllegalArgumentException("A time unit must be specified for non-negative lifespans or refresh times");
+        } else {
+            this.timeUnit = timeUnit;
+        }
+        Assert.notNull(connectionFactory, "redisConnectionFactory cannot be null");
+        this.connectionFactory = connectionFactory;
+    }
+
+
+    @Override
+    public void put(JWKSet jwkSet) {
+        if (jwkSet != null) {
+            if (!CollectionUtils.isEmpty(jwkSet.getKeys())) {
+                RedisConnection connection = this.getConnection();
+                byte[] key = this.serializeKey(JWK_KEY);
+
+                try {
+                    connection.openPipeline();
+
+                    long score = new Date().getTime();
+                    if (this.lifespan > -1) {
+                        long max = score - TimeUnit.MILLISECONDS.convert(this.lifespan, this.timeUnit);
+                        connection.zSetCommands().zRemRangeByScore(key, Range.leftOpen(0, max));
+                    }
+                    for (JWK jwk : jwkSet.getKeys()) {
+                        connection.zSetCommands().zAdd(key, score, CompactJWKCodec.encode(jwk));
+                    }
+                    connection.closePipeline();
+                } finally {
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean put(JWKSet jwkSet, RotationLease rotationLease, long fencingToken) {
+        Assert.isInstanceOf(RedisRotationLease.class, rotationLease, "rotationLease must be a RedisRotationLease");
+        Assert.notEmpty(jwkSet.getKeys(), "jwkSet cannot be empty");
+        RedisRotationLease redisRotationLease = (RedisRotationLease) rotationLease;
+        long score = new Date().getTime();
+        //a key added after the refresh became due means another node already rotated
+        long rotationThreshold = this.refreshTime > -1L ? score - TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit) : 0L;
+        long expiryThreshold = this.lifespan > -1L ? score - TimeUnit.MILLISECONDS.convert(this.lifespan, this.timeUnit) : -1L;
+
+        List<byte[]> keysAndArgs = new ArrayList<>(jwkSet.getKeys().size() + 6);
+        keysAndArgs.add(this.serializeKey(JWK_KEY));
+        keysAndArgs.add(redisRotationLease.getLeaseKey());
+        keysAndArgs.add(redisRotationLease.getLeaseValue(fencingToken));
+        keysAndArgs.add(String.valueOf(rotationThreshold).getBytes(StandardCharsets.UTF_8));
+        keysAndArgs.add(String.valueOf(expiryThreshold).getBytes(StandardCharsets.UTF_8));
+        keysAndArgs.add(String.valueOf(score).getBytes(StandardCharsets.UTF_8));
+        for (JWK jwk : jwkSet.getKeys()) {
+            keysAndArgs.add(CompactJWKCodec.encode(jwk));
+        }
+        RedisConnection connection = this.getConnection();
+        try {
+            Long published = connection.scriptingCommands().eval(FENCED_PUT_SCRIPT, ReturnType.INTEGER, 2,
+                    keysAndArgs.toArray(new byte[0][]));
+            return published != null && published == 1L;
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public JWKSet get() {
+        RedisConnection connection = this.getConnection();
+        byte[] key = this.serializeKey(JWK_KEY);
+        Set<byte[]> jwkBytes;
+        try {
+            jwkBytes = connection.zSetCommands().zRevRange(key, 0, -1);
+        } finally {
+            connection.close();
+        }
+        if (CollectionUtils.isEmpty(jwkBytes)) {
+            return null;
+        }
+
+        List<JWK> jwks = new ArrayList<>(jwkBytes.size());
+        Set<String> keyIds = new HashSet<>();
+        for (byte[] value : jwkBytes) {
+            jwks.add(this.decode(value, keyIds));
+        }
+        //forget the keys that were removed from redis
+        this.parsedKeys.keySet().retainAll(keyIds);
+
+        JWKSet lastJWKSet = this.lastJWKSet;
+        if (lastJWKSet != null && isSameKeys(lastJWKSet.getKeys(), jwks)) {
+            return lastJWKSet;
+        }
+        JWKSet jwkSet = new JWKSet(jwks);
+        this.lastJWKSet = jwkSet;
+        return jwkSet;
+    }
+
+    private JWK decode(byte[] value, Set<String> keyIds) {
+        if (!CompactJWKCodec.isCompact(value)) {
+            return this.parse(this.deserialize(value));
+        }
+        String kid = CompactJWKCodec.decodeKeyID(value);
+        if (kid == null) {
+            return this.parseCompact(value);
+        }
+        keyIds.add(kid);
+        ParsedJWK parsedJWK = this.parsedKeys.get(kid);
+        if (parsedJWK == null || !Arrays.equals(parsedJWK.value, value)) {
+            parsedJWK = new ParsedJWK(value, this.parseCompact(value));
+            this.parsedKeys.put(kid, parsedJWK);
+        }
+        return parsedJWK.jwk;
+    }
+
+    private static boolean isSameKeys(List<JWK> keys, List<JWK> other) {
+        if (keys.size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i) != other.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JWK parseCompact(byte[] value) {
+        try {
+            return CompactJWKCodec.decode(value);
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private JWK parse(String jwkJsonString) {
+        try {
+            return JWK.parse(jwkJsonString);
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean requiresRefresh() {
+        long lastRefreshTime = this.getLastRefreshTime();
+        return lastRefreshTime > 0 && this.refreshTime > -1L && (new Date()).getTime() > lastRefreshTime + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit);
+    }
+
+    @Override
+    public long getNextRefreshTime() {
+        long lastRefreshTime = this.getLastRefreshTime();
+        if (lastRefreshTime <= 0 || this.refreshTime < 0L) {
+            return -1L;
+        }
+        return lastRefreshTime + TimeUnit.MILLISECONDS.convert(this.refreshTime, this.timeUnit);
+    }
+
+    /**
+     * Returns the timestamp of the most recently added key, or {@code 0} if there is no key.
+     *
+     * @return
+     */
+    public long getLastRefreshTime() {
+        RedisConnection connection = this.getConnection();
+        byte[] key = this.serializeKey(JWK_KEY);
+        try {
+            Set<Tuple> maximumScoreTuple = connection.zRevRangeByScoreWithScores(key, Range.unbounded(), Limit.limit().count(1));
+
+            long lastRefreshTime = 0L;
+            if (!CollectionUtils.isEmpty(maximumScoreTuple)) {
+                lastRefreshTime = maximumScoreTuple.stream().findFirst().orElse(new DefaultTuple(null, 0.0)).getScore().longValue();
+            }
+            return lastRefreshTime;
+        } finally {
+            connection.close();
+        }
+    }
+
+    public long getLifespan(TimeUnit timeUnit) {
+        return this.lifespan < 0L ? this.lifespan : timeUnit.convert(this.lifespan, this.timeUnit);
+    }
+
+    public long getRefreshTime(TimeUnit timeUnit) {
+        return this.refreshTime < 0L ? this.refreshTime : timeUnit.convert(this.refreshTime, this.timeUnit);
+    }
+
+    private byte[] serializeKey(String key) {
+        return this.redisSerializeKey.serialize(this.prefix + key);
+    }
+
+    private String deserialize(byte[] bytes) {
+        return this.redisSerializerValue.deserialize(bytes);
+    }
+
+    private RedisConnection getConnection() {
+        return this.connectionFactory.getConnection();
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public void setRedisSerializerKey(RedisSerializer<String> redisSerializer) {
+        this.redisSerializeKey = redisSerializer;
+    }
+
+    public void setRedisSerializerValue(RedisSerializer<String> redisSerializer) {
+        this.redisSerializerValue = redisSerializer;
+    }
+
+    private static final class ParsedJWK {
+        private final byte[] value;
+        private final JWK jwk;
+
+        private ParsedJWK(byte[] value, JWK jwk) {
+            this.value = value;
+            this.jwk = jwk;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * {@link JWKSetRotationListener} that publishes the public JWK Set on a Redis channel after each rotation,
+ * resource servers subscribed to the channel swap in the new key set instead of refetching the JWK Set endpoint.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 18:10
+ */
+@Slf4j
+public class RedisJWKSetRotationPublisher implements JWKSetRotationListener {
+    private final RedisConnectionFactory connectionFactory;
+    private RedisSerializer<String> redisSerializer = new StringRedisSerializer();
+    private String channel = "jwks:rotation";
+
+    public RedisJWKSetRotationPublisher(RedisConnectionFactory connectionFactory) {
+        Assert.notNull(connectionFactory, "redisConnectionFactory cannot be null");
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public void onRotation(JWKSet jwkSet) {
+        String publicJWKSet = jwkSet.toPublicJWKSet().toString();
+        RedisConnection connection = this.connectionFactory.getConnection();
+        try {
+            Long receivers = connection.publish(this.redisSerializer.serialize(this.channel), this.redisSerializer.serialize(publicJWKSet));
+            log.debug("Published JWK set rotation to {} subscriber(s) on channel:{}", receivers, this.channel);
+        } finally {
+            connection.close();
+        }
+    }
+
+    public void setChannel(String channel) {
+        Assert.hasText(channel, "channel cannot be empty");
+        this.channel = channel;
+    }
+
+    public void setRedisSerializer(RedisSerializer<String> redisSerializer) {
+        this.redisSerializer = redisSerializer;
+    }
+}
@@ -0,0 +1,112 @@
+package com.relive.jose.jwk.source;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * {@link RotationLease} implementation based on redis.
+ * <p>
+ * The lease is a {@code SET NX PX} key whose value is a fencing token taken from a monotonically increasing
+ * counter, so a node that lost its lease (e.g. after a long pause) cannot publish a key. {@link RedisJWKSetCache}
+ * compares the token and writes the key in one Lua script, the lease key and the {@code jwks} key must therefore
+ * hash to the same slot on a Redis cluster. The lease is released once the key is published.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 11:12
+ */
+public class RedisRotationLease implements RotationLease {
+    private static final byte[] RELEASE_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('del', KEYS[1]) else return 0 end").getBytes();
+    private final RedisConnectionFactory connectionFactory;
+    private final String LEASE_KEY = "jwks:rotation:lease";
+    private final String FENCE_KEY = "jwks:rotation:fence";
+    private final Duration leaseTime;
+    private String prefix = "";
+    private RedisSerializer<String> redisSerializer = new StringRedisSerializer();
+
+    public RedisRotationLease(RedisConnectionFactory connectionFactory) {
+        this(Duration.ofSeconds(30), connectionFactory);
+    }
+
+    public RedisRotationLease(Duration leaseTime, RedisConnectionFactory connectionFactory) {
+        Assert.notNull(leaseTime, "leaseTime cannot be null");
+        Assert.notNull(connectionFactory, "redisConnectionFactory cannot be null");
+        this.leaseTime = leaseTime;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Long tryAcquire() {
+        RedisConnection connection = this.getConnection();
+        try {
+            Long fencingToken = connection.stringCommands().incr(this.serializeKey(FENCE_KEY));
+            if (fencingToken == null) {
+                return null;
+            }
+            Boolean acquired = connection.stringCommands().set(this.serializeKey(LEASE_KEY), this.serialize(String.valueOf(fencingToken)),
+                    Expiration.milliseconds(this.leaseTime.toMillis()), SetOption.SET_IF_ABSENT);
+            return Boolean.TRUE.equals(acquired) ? fencingToken : null;
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public boolean isValid(long fencingToken) {
+        RedisConnection connection = this.getConnection();
+        try {
+            byte[] value = connection.stringCommands().get(this.getLeaseKey());
+            return Arrays.equals(value, this.getLeaseValue(fencingToken));
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void release(long fencingToken) {
+        RedisConnection connection = this.getConnection();
+        try {
+            connection.scriptingCommands().eval(RELEASE_SCRIPT, ReturnType.INTEGER, 1,
+                    this.getLeaseKey(), this.getLeaseValue(fencingToken));
+        } finally {
+            connection.close();
+        }
+    }
+
+    byte[] getLeaseKey() {
+        return this.serializeKey(LEASE_KEY);
+    }
+
+    byte[] getLeaseValue(long fencingToken) {
+        return this.serialize(String.valueOf(fencingToken));
+    }
+
+    private byte[] serialize(String value) {
+        return this.redisSerializer.serialize(value);
+    }
+
+    private byte[] serializeKey(String key) {
+        return this.redisSerializer.serialize(this.prefix + key);
+    }
+
+    private RedisConnection getConnection() {
+        return this.connectionFactory.getConnection();
+    }
+
+    public void setPrefix(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public void setRedisSerializer(RedisSerializer<String> redisSerializer) {
+        this.redisSerializer = redisSerializer;
+    }
+}
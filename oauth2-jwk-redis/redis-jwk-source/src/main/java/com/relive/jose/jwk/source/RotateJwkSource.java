@@ -0,0 +1,451 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.JWKGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.ActiveSigningKeySource;
+import com.relive.jose.KeyIDStrategy;
+import com.relive.jose.RotateKeySourceException;
+import com.relive.jose.RotatingJWKSetSource;
+import com.relive.jose.TimestampKeyIDStrategy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link JWKSource} based on key rotation.
+ * <p>
+ * By default the rotation happens on the request thread when {@link JWKSetCache#requiresRefresh()} is due.
+ * When {@link #setScheduledRotation(boolean) scheduled rotation} is enabled, a background task pre-generates
+ * the next key and publishes it to the {@link JWKSetCache} at the deadline, readers only see an immutable
+ * {@link JWKSet} snapshot and never block on key generation.
+ *
+ * @author: ReLive
+ * @date: 2022/8/18 13:23
+ * @see JWKSource
+ */
+@Slf4j
+@Getter
+public final class RotateJwkSource<C extends SecurityContext> implements JWKSource<C>, ActiveSigningKeySource, RotatingJWKSetSource, SmartLifecycle {
+    private static final JWKSelector ALL_KEYS_SELECTOR = new JWKSelector(new JWKMatcher.Builder().build());
+    private static final long ROTATION_POLL_INTERVAL_MILLIS = 50L;
+    private final JWKSource<C> failoverJWKSource;
+    private final JWKSetCache jwkSetCache;
+    private final JWKGenerator<? extends JWK> jwkGenerator;
+    private KeyIDStrategy keyIDStrategy;
+    private RotationLease rotationLease;
+    private JWKSetRotationListener rotationListener;
+    private boolean scheduledRotation = false;
+    private Duration rotationCheckInterval = Duration.ofSeconds(1);
+    private Duration rotationWaitTimeout = Duration.ofSeconds(5);
+    @Getter(AccessLevel.NONE)
+    private volatile JWKSetSnapshot jwkSetSnapshot;
+    @Getter(AccessLevel.NONE)
+    private volatile JWKSetSnapshot lastJWKSetSnapshot;
+    @Getter(AccessLevel.NONE)
+    private JWK nextJwk;
+    @Getter(AccessLevel.NONE)
+    private ThreadPoolTaskScheduler taskScheduler;
+    @Getter(AccessLevel.NONE)
+    private ScheduledFuture<?> rotationFuture;
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public RotateJwkSource(JWKSetCache jwkSetCache) {
+        this(jwkSetCache, null, null, null);
+    }
+
+    public RotateJwkSource(JWKSetCache jwkSetCache, JWKSource<C> failoverJWKSource) {
+        this(jwkSetCache, failoverJWKSource, null, null);
+    }
+
+    public RotateJwkSource(JWKSetCache jwkSetCache, JWKGenerator<? extends JWK> jwkGenerator) {
+        this(jwkSetCache, null, jwkGenerator, null);
+    }
+
+    public RotateJwkSource(JWKSetCache jwkSetCache, JWKSource<C> failoverJWKSource, JWKGenerator<? extends JWK> jwkGenerator, KeyIDStrategy keyIDStrategy) {
+        Assert.notNull(jwkSetCache, "jwkSetCache cannot be null");
+        this.jwkSetCache = jwkSetCache;
+        this.failoverJWKSource = failoverJWKSource;
+        if (jwkGenerator == null) {
+            this.jwkGenerator = new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS);
+        } else {
+            this.jwkGenerator = jwkGenerator;
+        }
+        if (keyIDStrategy == null) {
+            this.keyIDStrategy = new TimestampKeyIDStrategy();
+        } else {
+            this.keyIDStrategy = keyIDStrategy;
+        }
+
+    }
+
+    @Override
+    public void start() {
+        if (this.running.compareAndSet(false, true) && this.scheduledRotation) {
+            this.taskScheduler = getTaskScheduler();
+            this.rotateJWKSet();
+            this.rotationFuture = this.taskScheduler.scheduleWithFixedDelay(this::rotateJWKSet,
+                    this.rotationCheckInterval);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.running.compareAndSet(true, false) && this.rotationFuture != null) {
+            this.rotationFuture.cancel(true);
+            this.taskScheduler.shutdown();
+            this.jwkSetSnapshot = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    private static ThreadPoolTaskScheduler getTaskScheduler() {
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setThreadNamePrefix("jwk-rotation-");
+        taskScheduler.initialize();
+        return taskScheduler;
+    }
+
+    /**
+     * Background rotation task, publishes the pre-generated key once the {@link JWKSetCache} requires
+     * a refresh, then refreshes the snapshot and prepares the next key ahead of the following deadline.
+     */
+    private void rotateJWKSet() {
+        if (!this.running.get()) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                JWKSet jwkSet = this.jwkSetCache.get();
+                if (this.jwkSetCache.requiresRefresh() || jwkSet == null) {
+                    jwkSet = this.updateJWKSet(jwkSet);
+                }
+                JWKSetSnapshot snapshot = this.jwkSetSnapshot;
+                if (snapshot == null || snapshot.jwkSet != jwkSet) {
+                    this.jwkSetSnapshot = new JWKSetSnapshot(jwkSet);
+                }
+                if (this.nextJwk == null) {
+                    this.nextJwk = this.generateJWK();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Scheduled key rotation failed, keep serving the current snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, C context) throws RotateKeySourceException {
+        JWKSetSnapshot snapshot = this.jwkSetSnapshot;
+        if (snapshot != null) {
+            return jwkSelector.select(snapshot.jwkSet);
+        }
+        JWKSet jwkSet;
+        try {
+            jwkSet = this.refreshJWKSet();
+        } catch (RotateKeySourceException | RuntimeException e) {
+            List<JWK> failoverMatches = this.failover(e, jwkSelector, context);
+            if (failoverMatches != null) {
+                return failoverMatches;
+            }
+            throw e;
+        }
+        List<JWK> jwks = jwkSelector.select(jwkSet);
+        if (!jwks.isEmpty()) {
+            return jwks;
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns the current {@link JWKSet}, the same instance is returned until the key set changes.
+     *
+     * @return
+     * @throws RotateKeySourceException
+     */
+    @Override
+    public JWKSet getJWKSet() throws RotateKeySourceException {
+        JWKSetSnapshot snapshot = this.jwkSetSnapshot;
+        if (snapshot != null) {
+            return snapshot.jwkSet;
+        }
+        try {
+            return this.refreshJWKSet();
+        } catch (RotateKeySourceException | RuntimeException e) {
+            List<JWK> failoverMatches = this.failover(e, ALL_KEYS_SELECTOR, null);
+            if (failoverMatches != null) {
+                return new JWKSet(failoverMatches);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the time the next key is published, known when the {@link JWKSetCache} is a {@link RotatingJWKSetCache}.
+     *
+     * @return
+     */
+    @Override
+    public long getNextRotationTime() {
+        if (this.jwkSetCache instanceof RotatingJWKSetCache rotatingJWKSetCache) {
+            return rotatingJWKSetCache.getNextRefreshTime();
+        }
+        return -1L;
+    }
+
+    /**
+     * Returns the key tokens are currently signed with, the key with the greatest kid.
+     * <p>
+     * The key is resolved once per {@link JWKSet}, so stamping the kid of a token does not scan the key set.
+     *
+     * @return
+     * @throws RotateKeySourceException
+     */
+    @Override
+    public JWK getActiveSigningKey() throws RotateKeySourceException {
+        JWKSetSnapshot snapshot = this.jwkSetSnapshot;
+        if (snapshot == null) {
+            JWKSet jwkSet;
+            try {
+                jwkSet = this.refreshJWKSet();
+            } catch (RotateKeySourceException | RuntimeException e) {
+                List<JWK> failoverMatches = this.failover(e, ALL_KEYS_SELECTOR, null);
+                if (failoverMatches != null) {
+                    return JWKSetSnapshot.selectActiveSigningKey(failoverMatches);
+                }
+                throw e;
+            }
+            snapshot = this.lastJWKSetSnapshot;
+            if (snapshot == null || snapshot.jwkSet != jwkSet) {
+                snapshot = new JWKSetSnapshot(jwkSet);
+                this.lastJWKSetSnapshot = snapshot;
+            }
+        }
+        if (snapshot.activeSigningKey == null) {
+            throw new RotateKeySourceException("No active signing key found", null);
+        }
+        return snapshot.activeSigningKey;
+    }
+
+    /**
+     * Returns the cached {@link JWKSet}, rotates the key on the request thread when a refresh is due.
+     * If the rotation fails, the current {@link JWKSet} is still returned unless there is a failover source.
+     */
+    private JWKSet refreshJWKSet() throws RotateKeySourceException {
+        JWKSet jwkSet = this.jwkSetCache.get();
+        if (this.jwkSetCache.requiresRefresh() || jwkSet == null) {
+            try {
+                synchronized (this) {
+                    jwkSet = this.jwkSetCache.get();
+                    if (this.jwkSetCache.requiresRefresh() || jwkSet == null) {
+                        jwkSet = this.updateJWKSet(jwkSet);
+                    }
+                }
+            } catch (RotateKeySourceException | RuntimeException e) {
+                if (this.failoverJWKSource != null || jwkSet == null) {
+                    throw e;
+                }
+            }
+        }
+        return jwkSet;
+    }
+
+    private JWKSet updateJWKSet(JWKSet jwkSet) throws RotateKeySourceException {
+        if (this.rotationLease == null) {
+            JWK jwk = this.takeNextJWK();
+            this.jwkSetCache.put(new JWKSet(jwk));
+            return this.published(jwkSet, jwk);
+        }
+        Long fencingToken = this.rotationLease.tryAcquire();
+        if (fencingToken == null) {
+            //another node holds the rotation lease, its key is picked up from the shared cache
+            return jwkSet != null ? jwkSet : this.awaitRotation();
+        }
+        try {
+            JWK jwk = this.takeNextJWK();
+            if (!this.publishFenced(jwk, fencingToken)) {
+                //the lease was lost or another node already rotated, keep the key for the next rotation
+                this.nextJwk = jwk;
+                JWKSet current = this.jwkSetCache.get();
+                if (current == null) {
+                    throw new RotateKeySourceException("Rotation lease expired before the key was published", null);
+                }
+                return current;
+            }
+            return this.published(jwkSet, jwk);
+        } finally {
+            this.rotationLease.release(fencingToken);
+        }
+    }
+
+    /**
+     * Publish the key only while the lease is held, atomically when the {@link JWKSetCache} is a {@link FencedJWKSetCache}.
+     */
+    private boolean publishFenced(JWK jwk, long fencingToken) {
+        if (this.jwkSetCache instanceof FencedJWKSetCache fencedJWKSetCache) {
+            return fencedJWKSetCache.put(new JWKSet(jwk), this.rotationLease, fencingToken);
+        }
+        if (!this.rotationLease.isValid(fencingToken)) {
+            return false;
+        }
+        this.jwkSetCache.put(new JWKSet(jwk));
+        return true;
+    }
+
+    private JWKSet published(JWKSet jwkSet, JWK jwk) {
+        log.debug("Published rotated key, kid:{}", jwk.getKeyID());
+        JWKSet updateJWKSet = new JWKSet(jwk);
+        if (jwkSet != null) {
+            List<JWK> keys = jwkSet.getKeys();
+            List<JWK> updateJwks = new ArrayList<>(keys);
+            updateJwks.add(jwk);
+            updateJWKSet = new JWKSet(updateJwks);
+        }
+        if (this.rotationListener != null) {
+            try {
+                this.rotationListener.onRotation(updateJWKSet);
+            } catch (RuntimeException e) {
+                log.warn("Failed to notify the key rotation, kid:{}: {}", jwk.getKeyID(), e.getMessage(), e);
+            }
+        }
+        return updateJWKSet;
+    }
+
+    /**
+     * A node without any key waits for the lease holder to publish the first key instead of failing the request.
+     */
+    private JWKSet awaitRotation() throws RotateKeySourceException {
+        long deadline = System.nanoTime() + this.rotationWaitTimeout.toNanos();
+        do {
+            try {
+                Thread.sleep(ROTATION_POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RotateKeySourceException("Interrupted while waiting for the key rotation on another node", e);
+            }
+            JWKSet jwkSet = this.jwkSetCache.get();
+            if (jwkSet != null) {
+                return jwkSet;
+            }
+        } while (System.nanoTime() < deadline);
+        throw new RotateKeySourceException("Timed out waiting for the key rotation on another node", null);
+    }
+
+    private JWK takeNextJWK() throws RotateKeySourceException {
+        JWK jwk = this.nextJwk;
+        if (jwk == null) {
+            return this.generateJWK();
+        }
+        this.nextJwk = null;
+        return jwk;
+    }
+
+    private JWK generateJWK() throws RotateKeySourceException {
+        try {
+            jwkGenerator.keyID(keyIDStrategy.generateKeyID());
+            return jwkGenerator.generate();
+        } catch (JOSEException e) {
+            throw new RotateKeySourceException("Couldn't generate JWK:" + e.getMessage(), e);
+        }
+    }
+
+    private List<JWK> failover(Exception exception, JWKSelector jwkSelector, C context) throws RotateKeySourceException {
+        if (this.getFailoverJWKSource() == null) {
+            return null;
+        } else {
+            try {
+                return this.getFailoverJWKSource().get(jwkSelector, context);
+            } catch (KeySourceException e) {
+                throw new RotateKeySourceException(exception.getMessage() + "; Failover JWK source retrieval failed with: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class JWKSetSnapshot {
+        private final JWKSet jwkSet;
+        private final JWK activeSigningKey;
+
+        private JWKSetSnapshot(JWKSet jwkSet) {
+            this.jwkSet = jwkSet;
+            this.activeSigningKey = selectActiveSigningKey(jwkSet.getKeys());
+        }
+
+        private static JWK selectActiveSigningKey(List<JWK> jwks) {
+            return jwks.stream().filter(jwk -> jwk.getKeyID() != null)
+                    .max(Comparator.comparing(JWK::getKeyID))
+                    .orElse(null);
+        }
+    }
+
+    public void setKeyIDStrategy(KeyIDStrategy keyIDStrategy) {
+        this.keyIDStrategy = keyIDStrategy;
+    }
+
+    /**
+     * Set the {@link RotationLease} shared by the nodes of a cluster, so that only the lease holder rotates the key.
+     * The lease is released after each rotation, the key is published atomically with the fencing token check when
+     * the {@link JWKSetCache} is a {@link FencedJWKSetCache}.
+     *
+     * @param rotationLease
+     */
+    public void setRotationLease(RotationLease rotationLease) {
+        this.rotationLease = rotationLease;
+    }
+
+    /**
+     * Set the {@link JWKSetRotationListener} notified after a new key has been published.
+     *
+     * @param rotationListener
+     */
+    public void setRotationListener(JWKSetRotationListener rotationListener) {
+        this.rotationListener = rotationListener;
+    }
+
+    /**
+     * Enable the background rotation mode, must be set before the {@link SmartLifecycle} is started.
+     *
+     * @param scheduledRotation
+     */
+    public void setScheduledRotation(boolean scheduledRotation) {
+        this.scheduledRotation = scheduledRotation;
+    }
+
+    public void setRotationCheckInterval(Duration rotationCheckInterval) {
+        Assert.notNull(rotationCheckInterval, "rotationCheckInterval cannot be null");
+        this.rotationCheckInterval = rotationCheckInterval;
+    }
+
+    /**
+     * How long a node without any key waits for the node holding the {@link RotationLease} to publish one, default 5 seconds.
+     *
+     * @param rotationWaitTimeout
+     */
+    public void setRotationWaitTimeout(Duration rotationWaitTimeout) {
+        Assert.notNull(rotationWaitTimeout, "rotationWaitTimeout cannot be null");
+        this.rotationWaitTimeout = rotationWaitTimeout;
+    }
+}
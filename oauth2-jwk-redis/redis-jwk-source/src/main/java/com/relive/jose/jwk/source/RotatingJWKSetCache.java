@@ -0,0 +1,21 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.source.JWKSetCache;
+
+/**
+ * A {@link JWKSetCache} that knows when the next key rotation is due.
+ *
+ * @author: ReLive
+ * @date: 2026/10/18 11:45
+ * @see RotateJwkSource#getNextRotationTime()
+ */
+public interface RotatingJWKSetCache extends JWKSetCache {
+
+    /**
+     * Returns the time in milliseconds after which {@link #requiresRefresh()} returns {@code true},
+     * or {@code -1} if the cache is empty or never requires a refresh.
+     *
+     * @return
+     */
+    long getNextRefreshTime();
+}
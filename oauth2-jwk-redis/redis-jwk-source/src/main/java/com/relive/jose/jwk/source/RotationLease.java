@@ -0,0 +1,33 @@
+package com.relive.jose.jwk.source;
+
+/**
+ * A lease that grants a single node the right to rotate the shared key set.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 11:05
+ * @see RotateJwkSource
+ */
+public interface RotationLease {
+
+    /**
+     * Try to acquire the lease.
+     *
+     * @return the fencing token of the acquired lease, or {@code null} if the lease is held by another node
+     */
+    Long tryAcquire();
+
+    /**
+     * Whether the lease identified by the fencing token is still held, must be checked before publishing a key.
+     *
+     * @param fencingToken
+     * @return
+     */
+    boolean isValid(long fencingToken);
+
+    /**
+     * Release the lease if it is still held with the fencing token.
+     *
+     * @param fencingToken
+     */
+    void release(long fencingToken);
+}
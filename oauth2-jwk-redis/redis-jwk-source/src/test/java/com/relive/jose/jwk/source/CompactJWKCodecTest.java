@@ -0,0 +1,125 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.relive.jose.JWKGenerators;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 18:30
+ */
+public class CompactJWKCodecTest {
+
+    @Test
+    public void encodeThenDecodeReturnsSameKey() throws Exception {
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("1-ES256").generate();
+
+        byte[] value = CompactJWKCodec.encode(jwk);
+
+        assertTrue(CompactJWKCodec.isCompact(value));
+        assertEquals("1-ES256", CompactJWKCodec.decodeKeyID(value));
+        assertEquals(jwk, CompactJWKCodec.decode(value));
+    }
+
+    @Test
+    public void encodeWhenNoKeyIdThenDecodeKeyIdReturnsNull() throws Exception {
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.RS256).generate();
+
+        byte[] value = CompactJWKCodec.encode(jwk);
+
+        assertNull(CompactJWKCodec.decodeKeyID(value));
+        assertEquals(jwk, CompactJWKCodec.decode(value));
+    }
+
+    @Test
+    public void encodeWhenKeyIdIsNotAsciiThenRoundTrips() throws Exception {
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("密钥-1").generate();
+
+        assertEquals("密钥-1", CompactJWKCodec.decodeKeyID(CompactJWKCodec.encode(jwk)));
+    }
+
+    @Test
+    public void encodeWhenKeyIdTooLongThenThrows() throws Exception {
+        char[] kid = new char[0x10000];
+        Arrays.fill(kid, 'k');
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID(new String(kid)).generate();
+
+        assertThrows(IllegalArgumentException.class, () -> CompactJWKCodec.encode(jwk));
+    }
+
+    @Test
+    public void isCompactWhenLegacyJsonValueThenFalse() throws Exception {
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("1-ES256").generate();
+
+        assertFalse(CompactJWKCodec.isCompact(legacy(jwk)));
+        assertFalse(CompactJWKCodec.isCompact(null));
+        assertFalse(CompactJWKCodec.isCompact(new byte[]{1, 0}));
+    }
+
+    @Test
+    public void getWhenCompactAndLegacyValuesThenDecodesBoth() throws Exception {
+        JWK compact = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("2-ES256").generate();
+        JWK legacy = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("1-ES256").generate();
+        Set<byte[]> values = new LinkedHashSet<>();
+        values.add(CompactJWKCodec.encode(compact));
+        values.add(legacy(legacy));
+        RedisJWKSetCache cache = new RedisJWKSetCache(redis(values));
+
+        JWKSet jwkSet = cache.get();
+
+        assertEquals(compact, jwkSet.getKeyByKeyId("2-ES256"));
+        assertEquals(legacy, jwkSet.getKeyByKeyId("1-ES256"));
+    }
+
+    @Test
+    public void getWhenKeysUnchangedThenReturnsSameJWKSet() throws Exception {
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("1-ES256").generate();
+        Set<byte[]> values = new LinkedHashSet<>();
+        values.add(CompactJWKCodec.encode(jwk));
+        RedisJWKSetCache cache = new RedisJWKSetCache(redis(values));
+
+        assertSame(cache.get(), cache.get());
+    }
+
+    /**
+     * The value written before the compact codec, a JSON string of the JWK JSON.
+     */
+    private static byte[] legacy(JWK jwk) {
+        byte[] value = new Jackson2JsonRedisSerializer<>(String.class).serialize(jwk.toJSONString());
+        assertEquals('"', (char) value[0]);
+        assertTrue(new String(value, StandardCharsets.UTF_8).endsWith("\""));
+        return value;
+    }
+
+    private static RedisConnectionFactory redis(Set<byte[]> values) {
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisZSetCommands zSetCommands = mock(RedisZSetCommands.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.zSetCommands()).thenReturn(zSetCommands);
+        when(zSetCommands.zRevRange(any(byte[].class), anyLong(), anyLong())).thenReturn(values);
+        return connectionFactory;
+    }
+}
@@ -0,0 +1,116 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.relive.jose.JWKGenerators;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 18:10
+ */
+public class JWKRingTest {
+
+    @Test
+    public void emptyThenHasNoCurrentKeyAndVersionZero() {
+        JWKRing ring = JWKRing.empty();
+
+        assertTrue(ring.isEmpty());
+        assertEquals(0L, ring.getVersion());
+        assertNull(ring.getCurrentKey());
+        assertEquals(0L, ring.getLastRefreshTime());
+        assertTrue(ring.getJWKSet().isEmpty());
+    }
+
+    @Test
+    public void addThenNewRingHasHigherVersionAndOriginalIsUnchanged() throws Exception {
+        JWKRing empty = JWKRing.empty();
+        JWKWithTimestamp key = key("1", 1000L);
+
+        JWKRing ring = empty.add(List.of(key));
+
+        assertEquals(1L, ring.getVersion());
+        assertSame(key.getJwk(), ring.getCurrentKey());
+        assertEquals(1000L, ring.getLastRefreshTime());
+        assertTrue(empty.isEmpty());
+        assertEquals(0L, empty.getVersion());
+    }
+
+    @Test
+    public void addWhenNothingAddedThenSameRing() {
+        JWKRing ring = JWKRing.empty();
+
+        assertSame(ring, ring.add(List.of()));
+        assertSame(ring, ring.add(null));
+    }
+
+    @Test
+    public void addThenLatestKeyBecomesCurrentAndAllKeysAreIndexed() throws Exception {
+        JWKWithTimestamp older = key("1", 1000L);
+        JWKWithTimestamp newer = key("2", 2000L);
+
+        JWKRing ring = JWKRing.empty().add(List.of(older)).add(List.of(newer));
+
+        assertEquals(2L, ring.getVersion());
+        assertSame(newer.getJwk(), ring.getCurrentKey());
+        assertSame(older.getJwk(), ring.getKeyByKeyId("1"));
+        assertSame(newer.getJwk(), ring.getKeyByKeyId("2"));
+        assertEquals(2, ring.getJWKSet().size());
+    }
+
+    @Test
+    public void getPublicJWKSetThenContainsNoPrivateKeys() throws Exception {
+        JWKRing ring = JWKRing.empty().add(List.of(key("1", 1000L)));
+
+        assertTrue(ring.getJWKSet().getKeyByKeyId("1").isPrivate());
+        assertFalse(ring.getPublicJWKSet().getKeyByKeyId("1").isPrivate());
+        assertSame(ring.getPublicJWKSet(), ring.getPublicJWKSet());
+    }
+
+    @Test
+    public void removeExpiredThenOlderKeysAreDroppedAndVersionIncremented() throws Exception {
+        JWKWithTimestamp older = key("1", 1000L);
+        JWKWithTimestamp newer = key("2", 2000L);
+        JWKRing ring = JWKRing.empty().add(List.of(older, newer));
+
+        JWKRing pruned = ring.removeExpired(new Date(1500L));
+
+        assertEquals(ring.getVersion() + 1, pruned.getVersion());
+        assertNull(pruned.getKeyByKeyId("1"));
+        assertSame(newer.getJwk(), pruned.getCurrentKey());
+        assertEquals(2, ring.getKeys().size());
+    }
+
+    @Test
+    public void removeWhenKeyNotInRingThenSameRing() throws Exception {
+        JWKRing ring = JWKRing.empty().add(List.of(key("1", 1000L)));
+
+        assertSame(ring, ring.remove(key("1", 1000L)));
+        assertSame(ring, ring.removeExpired(new Date(500L)));
+    }
+
+    @Test
+    public void removeThenKeyIsDroppedByIdentity() throws Exception {
+        JWKWithTimestamp key = key("1", 1000L);
+        JWKRing ring = JWKRing.empty().add(List.of(key));
+
+        JWKRing removed = ring.remove(key);
+
+        assertTrue(removed.isEmpty());
+        assertEquals(2L, removed.getVersion());
+    }
+
+    private static JWKWithTimestamp key(String kid, long timestamp) throws Exception {
+        JWK jwk = JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID(kid).generate();
+        return new JWKWithTimestamp(jwk, new Date(timestamp));
+    }
+}
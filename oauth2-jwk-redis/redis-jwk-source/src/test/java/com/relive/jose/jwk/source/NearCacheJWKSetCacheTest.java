@@ -0,0 +1,102 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 15:20
+ */
+public class NearCacheJWKSetCacheTest {
+    private static final String CHANNEL = "jwks:invalidate";
+    private RedisJWKSetCache redisJWKSetCache;
+    private RedisConnection connection;
+    private NearCacheJWKSetCache nearCacheJWKSetCache;
+
+    @BeforeEach
+    public void setUp() {
+        this.redisJWKSetCache = mock(RedisJWKSetCache.class);
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        this.connection = mock(RedisConnection.class);
+        when(connectionFactory.getConnection()).thenReturn(this.connection);
+        this.nearCacheJWKSetCache = new NearCacheJWKSetCache(this.redisJWKSetCache, connectionFactory);
+    }
+
+    @Test
+    public void getWhenSnapshotLoadedThenRedisNotReadAgain() throws Exception {
+        JWKSet jwkSet = jwkSet("k1");
+        when(this.redisJWKSetCache.get()).thenReturn(jwkSet);
+
+        assertSame(jwkSet, this.nearCacheJWKSetCache.get());
+        assertSame(jwkSet, this.nearCacheJWKSetCache.get());
+        verify(this.redisJWKSetCache, times(1)).get();
+    }
+
+    @Test
+    public void getWhenInvalidationMessageReceivedThenReloaded() throws Exception {
+        JWKSet jwkSet = jwkSet("k1");
+        JWKSet rotatedJWKSet = jwkSet("k2");
+        when(this.redisJWKSetCache.get()).thenReturn(jwkSet, rotatedJWKSet);
+        this.nearCacheJWKSetCache.get();
+
+        this.nearCacheJWKSetCache.onMessage(new DefaultMessage(bytes(CHANNEL), bytes("1")), null);
+
+        assertSame(rotatedJWKSet, this.nearCacheJWKSetCache.get());
+        verify(this.redisJWKSetCache, times(2)).get();
+    }
+
+    @Test
+    public void getWhenSnapshotOlderThanMaxStalenessThenReloaded() throws Exception {
+        JWKSet jwkSet = jwkSet("k1");
+        JWKSet rotatedJWKSet = jwkSet("k2");
+        when(this.redisJWKSetCache.get()).thenReturn(jwkSet, rotatedJWKSet);
+        this.nearCacheJWKSetCache.setMaxStaleness(Duration.ofMillis(50));
+        this.nearCacheJWKSetCache.get();
+
+        // the invalidation message was lost
+        Thread.sleep(100);
+
+        assertSame(rotatedJWKSet, this.nearCacheJWKSetCache.get());
+        verify(this.redisJWKSetCache, times(2)).get();
+    }
+
+    @Test
+    public void putWhenJWKSetAddedThenInvalidationPublished() throws Exception {
+        JWKSet jwkSet = jwkSet("k1");
+        JWKSet rotatedJWKSet = jwkSet("k2");
+        when(this.redisJWKSetCache.get()).thenReturn(jwkSet, rotatedJWKSet);
+        this.nearCacheJWKSetCache.get();
+
+        this.nearCacheJWKSetCache.put(rotatedJWKSet);
+
+        verify(this.redisJWKSetCache).put(rotatedJWKSet);
+        verify(this.connection).publish(aryEq(bytes(CHANNEL)), any(byte[].class));
+        verify(this.connection).close();
+        assertSame(rotatedJWKSet, this.nearCacheJWKSetCache.get());
+    }
+
+    private static JWKSet jwkSet(String keyId) throws Exception {
+        return new JWKSet(new ECKeyGenerator(Curve.P_256).keyID(keyId).generate());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,96 @@
+package com.relive.jose.jwk.source;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 13:40
+ */
+public class RedisRotationLeaseTest {
+    private static final byte[] LEASE_KEY = bytes("auth-serverjwks:rotation:lease");
+    private static final byte[] FENCE_KEY = bytes("auth-serverjwks:rotation:fence");
+    private RedisConnection connection;
+    private RedisStringCommands stringCommands;
+    private RedisScriptingCommands scriptingCommands;
+    private RedisRotationLease rotationLease;
+
+    @BeforeEach
+    public void setUp() {
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        this.connection = mock(RedisConnection.class);
+        this.stringCommands = mock(RedisStringCommands.class);
+        this.scriptingCommands = mock(RedisScriptingCommands.class);
+        when(connectionFactory.getConnection()).thenReturn(this.connection);
+        when(this.connection.stringCommands()).thenReturn(this.stringCommands);
+        when(this.connection.scriptingCommands()).thenReturn(this.scriptingCommands);
+        this.rotationLease = new RedisRotationLease(Duration.ofSeconds(30), connectionFactory);
+        this.rotationLease.setPrefix("auth-server");
+    }
+
+    @Test
+    public void tryAcquireWhenLeaseIsFreeThenReturnsIncrementedFencingToken() {
+        when(this.stringCommands.incr(aryEq(FENCE_KEY))).thenReturn(7L);
+        when(this.stringCommands.set(aryEq(LEASE_KEY), aryEq(bytes("7")), any(Expiration.class), eq(SetOption.SET_IF_ABSENT)))
+                .thenReturn(true);
+
+        assertEquals(7L, this.rotationLease.tryAcquire());
+        verify(this.connection).close();
+    }
+
+    @Test
+    public void tryAcquireWhenLeaseIsHeldThenReturnsNull() {
+        when(this.stringCommands.incr(aryEq(FENCE_KEY))).thenReturn(8L);
+        when(this.stringCommands.set(aryEq(LEASE_KEY), aryEq(bytes("8")), any(Expiration.class), eq(SetOption.SET_IF_ABSENT)))
+                .thenReturn(false);
+
+        assertNull(this.rotationLease.tryAcquire());
+    }
+
+    @Test
+    public void isValidWhenLeaseWasTakenOverThenStaleFencingTokenIsRejected() {
+        when(this.stringCommands.get(aryEq(LEASE_KEY))).thenReturn(bytes("9"));
+
+        assertFalse(this.rotationLease.isValid(7L));
+        assertTrue(this.rotationLease.isValid(9L));
+    }
+
+    @Test
+    public void isValidWhenLeaseExpiredThenFalse() {
+        when(this.stringCommands.get(aryEq(LEASE_KEY))).thenReturn(null);
+
+        assertFalse(this.rotationLease.isValid(7L));
+    }
+
+    @Test
+    public void releaseThenOnlyDeletesTheLeaseHeldWithTheFencingToken() {
+        this.rotationLease.release(7L);
+
+        verify(this.scriptingCommands).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1), aryEq(LEASE_KEY), aryEq(bytes("7")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
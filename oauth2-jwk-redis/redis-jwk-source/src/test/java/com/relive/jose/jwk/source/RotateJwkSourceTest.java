@@ -0,0 +1,140 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.relive.jose.JWKGenerators;
+import com.relive.jose.RotateKeySourceException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 13:55
+ */
+public class RotateJwkSourceTest {
+
+    @Test
+    public void getJWKSetWhenLeaseIsAcquiredThenKeyIsPublishedAndLeaseReleased() throws Exception {
+        FencedCache cache = new FencedCache();
+        RotationLease rotationLease = mock(RotationLease.class);
+        when(rotationLease.tryAcquire()).thenReturn(3L);
+        RotateJwkSource<SecurityContext> jwkSource = jwkSource(cache, rotationLease);
+
+        JWKSet jwkSet = jwkSource.getJWKSet();
+
+        assertEquals(1, jwkSet.getKeys().size());
+        assertEquals(List.of(3L), cache.fencingTokens);
+        verify(rotationLease).release(3L);
+        verify(rotationLease, never()).isValid(anyLong());
+    }
+
+    @Test
+    public void getJWKSetWhenLeaseWasLostThenNothingIsPublishedAndCurrentKeySetIsReturned() throws Exception {
+        FencedCache cache = new FencedCache();
+        cache.published = false;
+        JWKSet current = new JWKSet(JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("1-ES256").generate());
+        //empty on the first two reads of the rotation check, then rotated by another node
+        cache.jwkSets.add(null);
+        cache.jwkSets.add(null);
+        cache.jwkSets.add(current);
+        RotationLease rotationLease = mock(RotationLease.class);
+        when(rotationLease.tryAcquire()).thenReturn(4L);
+        RotateJwkSource<SecurityContext> jwkSource = jwkSource(cache, rotationLease);
+
+        assertSame(current, jwkSource.getJWKSet());
+        assertTrue(cache.putJWKSets.isEmpty());
+        verify(rotationLease).release(4L);
+    }
+
+    @Test
+    public void getJWKSetWhenAnotherNodeHoldsTheLeaseThenColdNodeWaitsForItsKey() throws Exception {
+        FencedCache cache = new FencedCache();
+        JWKSet rotated = new JWKSet(JWKGenerators.forAlgorithm(JWSAlgorithm.ES256).keyID("2-ES256").generate());
+        cache.jwkSets.add(null);
+        cache.jwkSets.add(null);
+        cache.jwkSets.add(null);
+        cache.jwkSets.add(rotated);
+        RotationLease rotationLease = mock(RotationLease.class);
+        when(rotationLease.tryAcquire()).thenReturn(null);
+        RotateJwkSource<SecurityContext> jwkSource = jwkSource(cache, rotationLease);
+
+        assertSame(rotated, jwkSource.getJWKSet());
+        assertTrue(cache.putJWKSets.isEmpty());
+    }
+
+    @Test
+    public void getJWKSetWhenAnotherNodeNeverPublishesThenTimesOut() {
+        FencedCache cache = new FencedCache();
+        RotationLease rotationLease = mock(RotationLease.class);
+        when(rotationLease.tryAcquire()).thenReturn(null);
+        RotateJwkSource<SecurityContext> jwkSource = jwkSource(cache, rotationLease);
+        jwkSource.setRotationWaitTimeout(Duration.ofMillis(200));
+
+        assertThrows(RotateKeySourceException.class, jwkSource::getJWKSet);
+        assertTrue(cache.gets.get() > 1);
+    }
+
+    private static RotateJwkSource<SecurityContext> jwkSource(FencedCache cache, RotationLease rotationLease) {
+        RotateJwkSource<SecurityContext> jwkSource = new RotateJwkSource<>(cache, null,
+                JWKGenerators.forAlgorithm(JWSAlgorithm.ES256), null);
+        jwkSource.setRotationLease(rotationLease);
+        return jwkSource;
+    }
+
+    /**
+     * Returns the queued key sets in order, the last one is kept
+     */
+    private static final class FencedCache implements FencedJWKSetCache {
+        private final List<JWKSet> jwkSets = new ArrayList<>();
+        private final List<JWKSet> putJWKSets = new ArrayList<>();
+        private final List<Long> fencingTokens = new ArrayList<>();
+        private final AtomicInteger gets = new AtomicInteger();
+        private boolean published = true;
+
+        @Override
+        public boolean put(JWKSet jwkSet, RotationLease rotationLease, long fencingToken) {
+            this.fencingTokens.add(fencingToken);
+            if (this.published) {
+                this.putJWKSets.add(jwkSet);
+                this.jwkSets.clear();
+                this.jwkSets.add(jwkSet);
+            }
+            return this.published;
+        }
+
+        @Override
+        public void put(JWKSet jwkSet) {
+            throw new AssertionError("a rotated key must be published with the fencing token");
+        }
+
+        @Override
+        public JWKSet get() {
+            this.gets.incrementAndGet();
+            if (this.jwkSets.isEmpty()) {
+                return null;
+            }
+            return this.jwkSets.size() > 1 ? this.jwkSets.remove(0) : this.jwkSets.get(0);
+        }
+
+        @Override
+        public boolean requiresRefresh() {
+            return false;
+        }
+    }
+}
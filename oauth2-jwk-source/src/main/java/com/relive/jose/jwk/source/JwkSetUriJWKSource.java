@@ -0,0 +1,129 @@
+package com.relive.jose.jwk.source;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestOperations;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link JWKSource} that caches the JWK Set fetched from the JWK Set uri.
+ * <p>
+ * When no key matches the kid of a token the key set is refreshed, as far as the {@link UnknownKeyIDGuard} allows,
+ * so tokens with unknown kids are rejected without a request to the authorization server.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 20:35
+ */
+public class JwkSetUriJWKSource<C extends SecurityContext> implements JWKSource<C> {
+    private static final MediaType APPLICATION_JWK_SET_JSON = new MediaType("application", "jwk-set+json");
+    private final String jwkSetUri;
+    private final RestOperations restOperations;
+    private volatile CachedJWKSet cachedJWKSet;
+    private Duration timeToLive = Duration.ofMinutes(5);
+    private Clock clock = Clock.systemUTC();
+    private UnknownKeyIDGuard unknownKeyIDGuard = new UnknownKeyIDGuard();
+
+    public JwkSetUriJWKSource(String jwkSetUri, RestOperations restOperations) {
+        Assert.hasText(jwkSetUri, "jwkSetUri cannot be empty");
+        Assert.notNull(restOperations, "restOperations cannot be null");
+        this.jwkSetUri = jwkSetUri;
+        this.restOperations = restOperations;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, C context) throws KeySourceException {
+        CachedJWKSet cachedJWKSet = this.cachedJWKSet;
+        if (cachedJWKSet == null || this.clock.millis() >= cachedJWKSet.expiresAt) {
+            cachedJWKSet = this.refresh(cachedJWKSet);
+        }
+        List<JWK> matches = jwkSelector.select(cachedJWKSet.jwkSet);
+        Set<String> keyIDs = jwkSelector.getMatcher().getKeyIDs();
+        if (matches.isEmpty() && keyIDs != null && keyIDs.size() == 1) {
+            String kid = keyIDs.iterator().next();
+            if (kid != null && this.unknownKeyIDGuard.tryAcquireRefresh(kid)) {
+                cachedJWKSet = this.refresh(cachedJWKSet);
+                matches = jwkSelector.select(cachedJWKSet.jwkSet);
+                if (matches.isEmpty()) {
+                    this.unknownKeyIDGuard.rememberUnknownKeyID(kid);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Fetches the key set unless another thread replaced {@code current} in the meantime.
+     */
+    private synchronized CachedJWKSet refresh(CachedJWKSet current) throws KeySourceException {
+        CachedJWKSet latest = this.cachedJWKSet;
+        if (latest != null && latest != current && this.clock.millis() < latest.expiresAt) {
+            return latest;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON, APPLICATION_JWK_SET_JSON));
+        RequestEntity<Void> request = RequestEntity.get(URI.create(this.jwkSetUri)).headers(headers).build();
+        ResponseEntity<String> response;
+        try {
+            response = this.restOperations.exchange(request, String.class);
+        } catch (RuntimeException e) {
+            throw new KeySourceException("Couldn't retrieve JWK set from URL: " + e.getMessage(), e);
+        }
+        if (response.getBody() == null) {
+            throw new KeySourceException("Couldn't retrieve JWK set from URL: empty response body");
+        }
+        try {
+            latest = new CachedJWKSet(JWKSet.parse(response.getBody()), this.clock.millis() + this.timeToLive.toMillis());
+        } catch (ParseException e) {
+            throw new KeySourceException("Unable to parse JWK set: " + e.getMessage(), e);
+        }
+        this.cachedJWKSet = latest;
+        this.unknownKeyIDGuard.clearUnknownKeyIDs();
+        return latest;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+        Assert.notNull(timeToLive, "timeToLive cannot be null");
+        this.timeToLive = timeToLive;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    /**
+     * Set the {@link UnknownKeyIDGuard} that limits the refreshes triggered by unknown kids.
+     *
+     * @param unknownKeyIDGuard
+     */
+    public void setUnknownKeyIDGuard(UnknownKeyIDGuard unknownKeyIDGuard) {
+        Assert.notNull(unknownKeyIDGuard, "unknownKeyIDGuard cannot be null");
+        this.unknownKeyIDGuard = unknownKeyIDGuard;
+    }
+
+    private static final class CachedJWKSet {
+        private final JWKSet jwkSet;
+        private final long expiresAt;
+
+        private CachedJWKSet(JWKSet jwkSet, long expiresAt) {
+            this.jwkSet = jwkSet;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.relive.jose.jwk.source;
+
+import org.springframework.util.Assert;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a kid that is not in the key set may trigger a JWK Set refresh.
+ * <p>
+ * At most one refresh is allowed per cooldown window, whichever kid asks first. A kid that is still unknown after a
+ * refresh is remembered for a while and rejected without a refresh, so tokens with made-up kids cannot make the
+ * resource server hammer the JWK Set endpoint.
+ *
+ * @author: ReLive
+ * @date: 2026/10/17 20:20
+ */
+public final class UnknownKeyIDGuard {
+    private final Map<String, Long> unknownKeyIDs = new ConcurrentHashMap<>();
+    private final AtomicLong lastRefreshTime = new AtomicLong(Long.MIN_VALUE);
+    private Duration cooldown = Duration.ofSeconds(30);
+    private Duration unknownKeyIDTimeToLive = Duration.ofMinutes(1);
+    private int maximumUnknownKeyIDs = 10_000;
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Returns {@code true} if the caller may refresh the key set for the kid, the refresh is then counted
+     * against the cooldown window.
+     *
+     * @param kid
+     * @return
+     */
+    public boolean tryAcquireRefresh(String kid) {
+        long now = this.clock.millis();
+        Long unknownUntil = this.unknownKeyIDs.get(kid);
+        if (unknownUntil != null) {
+            if (now < unknownUntil) {
+                return false;
+            }
+            this.unknownKeyIDs.remove(kid, unknownUntil);
+        }
+        long lastRefreshTime = this.lastRefreshTime.get();
+        return (lastRefreshTime == Long.MIN_VALUE || now - lastRefreshTime >= this.cooldown.toMillis())
+                && this.lastRefreshTime.compareAndSet(lastRefreshTime, now);
+    }
+
+    /**
+     * Remember a kid that is not in the refreshed key set.
+     *
+     * @param kid
+     */
+    public void rememberUnknownKeyID(String kid) {
+        if (this.unknownKeyIDs.size() >= this.maximumUnknownKeyIDs) {
+            long now = this.clock.millis();
+            this.unknownKeyIDs.values().removeIf(unknownUntil -> now >= unknownUntil);
+            if (this.unknownKeyIDs.size() >= this.maximumUnknownKeyIDs) {
+                this.unknownKeyIDs.clear();
+            }
+        }
+        this.unknownKeyIDs.put(kid, this.clock.millis() + this.unknownKeyIDTimeToLive.toMillis());
+    }
+
+    /**
+     * Forget the unknown kids, called when the key set changed.
+     */
+    public void clearUnknownKeyIDs() {
+        this.unknownKeyIDs.clear();
+    }
+
+    public void setCooldown(Duration cooldown) {
+        Assert.notNull(cooldown, "cooldown cannot be null");
+        this.cooldown = cooldown;
+    }
+
+    public void setUnknownKeyIDTimeToLive(Duration unknownKeyIDTimeToLive) {
+        Assert.notNull(unknownKeyIDTimeToLive, "unknownKeyIDTimeToLive cannot be null");
+        this.unknownKeyIDTimeToLive = unknownKeyIDTimeToLive;
+    }
+
+    public void setMaximumUnknownKeyIDs(int maximumUnknownKeyIDs) {
+        Assert.isTrue(maximumUnknownKeyIDs > 0, "maximumUnknownKeyIDs must be greater than 0");
+        this.maximumUnknownKeyIDs = maximumUnknownKeyIDs;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+}
@@ -0,0 +1,50 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.relive.jose.jwk.source.JwkSetUriJWKSource;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestOperations;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates {@link NimbusJwtDecoder}s that resolve their keys through a {@link JwkSetUriJWKSource}.
+ * <p>
+ * Nimbus only checks the signature, the claims are left to the {@link NimbusJwtDecoder}'s
+ * {@code OAuth2TokenValidator} so that they are not verified twice.
+ *
+ * @author: ReLive
+ * @date: 2026/10/19 16:40
+ */
+public final class JwkSetUriJwtDecoders {
+
+    private JwkSetUriJwtDecoders() {
+    }
+
+    /**
+     * @param jwkSetUri      the JWK Set uri of the authorization server
+     * @param restOperations used to fetch the JWK Set
+     * @param jwsAlgorithms  the accepted JWS algorithm names, e.g. {@code RS256}
+     * @return the {@link NimbusJwtDecoder}, with the default {@code OAuth2TokenValidator}
+     */
+    public static NimbusJwtDecoder fromJwkSetUri(String jwkSetUri, RestOperations restOperations, Collection<String> jwsAlgorithms) {
+        Assert.notEmpty(jwsAlgorithms, "jwsAlgorithms cannot be empty");
+        Set<JWSAlgorithm> algorithms = jwsAlgorithms.stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+        JWKSource<SecurityContext> jwkSource = new JwkSetUriJWKSource<>(jwkSetUri, restOperations);
+        ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(jwtProcessor);
+    }
+}
@@ -0,0 +1,105 @@
+package com.relive.jose.jwk.source;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/18 16:05
+ */
+public class UnknownKeyIDGuardTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private UnknownKeyIDGuard unknownKeyIDGuard;
+
+    @BeforeEach
+    public void setUp() {
+        this.unknownKeyIDGuard = new UnknownKeyIDGuard();
+        this.unknownKeyIDGuard.setClock(this.clock);
+        this.unknownKeyIDGuard.setCooldown(Duration.ofSeconds(30));
+        this.unknownKeyIDGuard.setUnknownKeyIDTimeToLive(Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void tryAcquireRefreshWhenWithinCooldownThenOnlyFirstKidRefreshes() {
+        assertTrue(this.unknownKeyIDGuard.tryAcquireRefresh("k1"));
+        assertFalse(this.unknownKeyIDGuard.tryAcquireRefresh("k2"));
+
+        this.clock.advance(Duration.ofSeconds(29));
+        assertFalse(this.unknownKeyIDGuard.tryAcquireRefresh("k3"));
+
+        this.clock.advance(Duration.ofSeconds(1));
+        assertTrue(this.unknownKeyIDGuard.tryAcquireRefresh("k3"));
+    }
+
+    @Test
+    public void tryAcquireRefreshWhenKidIsRememberedThenRejectedUntilItExpires() {
+        this.unknownKeyIDGuard.rememberUnknownKeyID("bogus");
+
+        this.clock.advance(Duration.ofSeconds(59));
+        assertFalse(this.unknownKeyIDGuard.tryAcquireRefresh("bogus"));
+        assertTrue(this.unknownKeyIDGuard.tryAcquireRefresh("k1"));
+
+        this.clock.advance(Duration.ofSeconds(31));
+        assertTrue(this.unknownKeyIDGuard.tryAcquireRefresh("bogus"));
+    }
+
+    @Test
+    public void tryAcquireRefreshWhenUnknownKidsAreClearedThenKidMayRefreshAgain() {
+        this.unknownKeyIDGuard.rememberUnknownKeyID("k2");
+
+        this.unknownKeyIDGuard.clearUnknownKeyIDs();
+
+        assertTrue(this.unknownKeyIDGuard.tryAcquireRefresh("k2"));
+    }
+
+    @Test
+    public void rememberUnknownKeyIDWhenFullThenExpiredKidsAreDropped() {
+        this.unknownKeyIDGuard.setMaximumUnknownKeyIDs(2);
+        this.unknownKeyIDGuard.setCooldown(Duration.ZERO);
+        this.unknownKeyIDGuard.rememberUnknownKeyID("k1");
+        this.clock.advance(Duration.ofSeconds(30));
+        this.unknownKeyIDGuard.rememberUnknownKeyID("k2");
+        this.clock.advance(Duration.ofSeconds(31));
+
+        this.unknownKeyIDGuard.rememberUnknownKeyID("k3");
+
+        // k1 expired and was dropped, k2 is still remembered
+        assertTrue(this.unknownKeyIDGuard.tryAcquireRefresh("k1"));
+        assertFalse(this.unknownKeyIDGuard.tryAcquireRefresh("k2"));
+        assertFalse(this.unknownKeyIDGuard.tryAcquireRefresh("k3"));
+    }
+
+    static final class MutableClock extends Clock {
+        private Instant instant = Instant.parse("2026-10-18T00:00:00Z");
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.web.client.RestOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive
+ * @date: 2026/10/19 16:50
+ */
+public class JwkSetUriJwtDecodersTest {
+    private static final String JWK_SET_URI = "http://127.0.0.1:8080/oauth2/jwks";
+    private ECKey signingKey;
+    private NimbusJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.signingKey = new ECKeyGenerator(Curve.P_256).keyID("k1").generate();
+        RestOperations restOperations = mock(RestOperations.class);
+        when(restOperations.exchange(any(RequestEntity.class), eq(String.class)))
+                .thenReturn(ResponseEntity.ok(new JWKSet(this.signingKey).toString()));
+        this.jwtDecoder = JwkSetUriJwtDecoders.fromJwkSetUri(JWK_SET_URI, restOperations, List.of("ES256"));
+    }
+
+    @Test
+    public void decodeWhenSignedWithJwkSetKeyThenDecoded() throws Exception {
+        Jwt jwt = this.jwtDecoder.decode(sign(JWSAlgorithm.ES256, this.signingKey, Instant.now().plus(Duration.ofMinutes(5))));
+
+        assertEquals("admin", jwt.getSubject());
+    }
+
+    @Test
+    public void decodeWhenSignedWithUnknownKeyThenRejected() throws Exception {
+        ECKey otherKey = new ECKeyGenerator(Curve.P_256).keyID("k2").generate();
+
+        assertThrows(BadJwtException.class,
+                () -> this.jwtDecoder.decode(sign(JWSAlgorithm.ES256, otherKey, Instant.now().plus(Duration.ofMinutes(5)))));
+    }
+
+    @Test
+    public void decodeWhenAlgorithmNotAcceptedThenRejected() throws Exception {
+        ECKey signingKey = new ECKeyGenerator(Curve.P_384).keyID("k1").generate();
+
+        assertThrows(BadJwtException.class,
+                () -> this.jwtDecoder.decode(sign(JWSAlgorithm.ES384, signingKey, Instant.now().plus(Duration.ofMinutes(5)))));
+    }
+
+    @Test
+    public void decodeWhenExpiredThenRejectedByJwtValidator() throws Exception {
+        String token = sign(JWSAlgorithm.ES256, this.signingKey, Instant.now().minus(Duration.ofMinutes(5)));
+
+        assertThrows(JwtValidationException.class, () -> this.jwtDecoder.decode(token));
+    }
+
+    @Test
+    public void fromJwkSetUriWhenNoAlgorithmsThenThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> JwkSetUriJwtDecoders.fromJwkSetUri(JWK_SET_URI, mock(RestOperations.class), List.of()));
+    }
+
+    private static String sign(JWSAlgorithm algorithm, ECKey key, Instant expiresAt) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("admin")
+                .issueTime(Date.from(expiresAt.minus(Duration.ofMinutes(10))))
+                .expirationTime(Date.from(expiresAt))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(algorithm).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new ECDSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -1,6 +1,8 @@
 package com.relive.config;
 
+import com.relive.jwt.VaultAnchoredJwtEncoder;
 import com.relive.jwt.VaultJwtEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
@@ -35,6 +37,7 @@ import java.time.Duration;
  */
 @Configuration(proxyBeanMethods = false)
 public class AuthorizationServerConfig {
+    private static final Duration ACCESS_TOKEN_TIME_TO_LIVE = Duration.ofSeconds(30 * 60);
 
     @Bean
     @Order(Ordered.HIGHEST_PRECEDENCE)
@@ -72,7 +75,7 @@ public class AuthorizationServerConfig {
                 .tokenSettings(TokenSettings.builder()
                         .accessTokenFormat(OAuth2TokenFormat.SELF_CONTAINED)
                         .idTokenSignatureAlgorithm(SignatureAlgorithm.RS256)
-                        .accessTokenTimeToLive(Duration.ofSeconds(30 * 60))
+                        .accessTokenTimeToLive(ACCESS_TOKEN_TIME_TO_LIVE)
                         .refreshTokenTimeToLive(Duration.ofSeconds(60 * 60))
                         .reuseRefreshTokens(true)
                         .build())
@@ -98,8 +101,24 @@ public class AuthorizationServerConfig {
     }
 
     @Bean
-    JwtEncoder jwtEncoder(VaultTemplate vaultTemplate) {
-        return new VaultJwtEncoder(vaultTemplate);
+    JwtEncoder jwtEncoder(VaultTemplate vaultTemplate,
+                          @Value("${jwt.vault.batch-window:0ms}") Duration batchWindow,
+                          @Value("${jwt.vault.max-batch-size:32}") int maxBatchSize,
+                          @Value("${jwt.vault.max-concurrent-batches:8}") int maxConcurrentBatches,
+                          @Value("${jwt.vault.local-signing-key.enabled:false}") boolean localSigningKey,
+                          @Value("${jwt.vault.local-signing-key.rotation-interval:15m}") Duration rotationInterval) {
+        VaultJwtEncoder jwtEncoder = new VaultJwtEncoder(vaultTemplate);
+        if (!batchWindow.isZero()) {
+            jwtEncoder.setBatchSigning(batchWindow, maxBatchSize, maxConcurrentBatches);
+        }
+        if (localSigningKey) {
+            // Vault only certifies the rotating local key, tokens are signed in process
+            VaultAnchoredJwtEncoder vaultAnchoredJwtEncoder = new VaultAnchoredJwtEncoder(jwtEncoder);
+            vaultAnchoredJwtEncoder.setRotationInterval(rotationInterval);
+            vaultAnchoredJwtEncoder.setCertificateGracePeriod(ACCESS_TOKEN_TIME_TO_LIVE);
+            return vaultAnchoredJwtEncoder;
+        }
+        return jwtEncoder;
     }
 }
 
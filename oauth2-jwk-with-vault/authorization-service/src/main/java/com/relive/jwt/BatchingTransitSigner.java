@@ -0,0 +1,218 @@
+package com.relive.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.util.Assert;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects concurrent transit sign requests into one {@code batch_input} call.
+ * <p>
+ * A collector thread takes the first pending request and waits up to the batch window, or until the maximum batch
+ * size is reached, for more. Requests with the same sign path and parameters are then signed with a single Vault call
+ * on one of up to {@code maxConcurrentBatches} signing threads, and each caller's future is completed with its
+ * {@code vault:v<version>:} prefixed signature. The collector keeps collecting while batches are in flight, so
+ * throughput grows with both the batch size and the number of concurrent batches. When all signing threads are busy
+ * the requests queue up and the next batch leaves full.
+ *
+ * @author: ReLive27
+ * @date: 2026/10/17 23:20
+ */
+@Slf4j
+final class BatchingTransitSigner implements AutoCloseable {
+    private final VaultOperations vaultOperations;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingSignature> pendingSignatures = new LinkedBlockingQueue<>();
+    private final Semaphore batchPermits;
+    private final ExecutorService signingExecutor;
+    private final Thread collector;
+    private volatile boolean running = true;
+
+    BatchingTransitSigner(VaultOperations vaultOperations, Duration batchWindow, int maxBatchSize, int maxConcurrentBatches) {
+        Assert.notNull(vaultOperations, "vaultOperations cannot be null");
+        Assert.isTrue(batchWindow != null && !batchWindow.isNegative(), "batchWindow cannot be negative");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        Assert.isTrue(maxConcurrentBatches > 0, "maxConcurrentBatches must be greater than 0");
+        this.vaultOperations = vaultOperations;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchPermits = new Semaphore(maxConcurrentBatches);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("vault-transit-signer-");
+        threadFactory.setDaemon(true);
+        // the permits bound the in-flight batches, so the pool never has to queue
+        this.signingExecutor = new ThreadPoolExecutor(maxConcurrentBatches, maxConcurrentBatches,
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+        ((ThreadPoolExecutor) this.signingExecutor).allowCoreThreadTimeOut(true);
+        this.collector = new Thread(this::run, "vault-transit-signer-collector");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * @param signPath   the sign path of the transit key, e.g. {@code transit/sign/oauth2}
+     * @param input      the base64 encoded input
+     * @param parameters the sign parameters shared by the batch, e.g. {@code hash_algorithm}
+     * @return the future signature
+     */
+    CompletableFuture<String> sign(String signPath, String input, Map<String, Object> parameters) {
+        PendingSignature pendingSignature = new PendingSignature(signPath, input, parameters);
+        if (!this.running) {
+            pendingSignature.future.completeExceptionally(closedException());
+            return pendingSignature.future;
+        }
+        this.pendingSignatures.add(pendingSignature);
+        // closed while adding, the collector may already have drained the queue
+        if (!this.running && this.pendingSignatures.remove(pendingSignature)) {
+            pendingSignature.future.completeExceptionally(closedException());
+        }
+        return pendingSignature.future;
+    }
+
+    private void run() {
+        while (this.running) {
+            List<PendingSignature> batch = new ArrayList<>(this.maxBatchSize);
+            try {
+                batch.add(this.pendingSignatures.take());
+                long deadline = System.nanoTime() + this.batchWindowNanos;
+                while (batch.size() < this.maxBatchSize) {
+                    PendingSignature next = this.pendingSignatures.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.running = false;
+                fail(batch);
+                break;
+            }
+            List<List<PendingSignature>> signBatches = groupBySignRequest(batch);
+            for (int i = 0; i < signBatches.size(); i++) {
+                if (!this.submit(signBatches.get(i))) {
+                    this.running = false;
+                    signBatches.subList(i, signBatches.size()).forEach(BatchingTransitSigner::fail);
+                    break;
+                }
+            }
+        }
+        List<PendingSignature> remaining = new ArrayList<>();
+        this.pendingSignatures.drainTo(remaining);
+        fail(remaining);
+    }
+
+    /**
+     * Hand the batch to a signing thread once fewer than {@code maxConcurrentBatches} are in flight.
+     *
+     * @return false if the signer was closed while waiting
+     */
+    private boolean submit(List<PendingSignature> batch) {
+        try {
+            this.batchPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            this.signingExecutor.execute(() -> {
+                try {
+                    this.signBatch(batch);
+                } finally {
+                    this.batchPermits.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            this.batchPermits.release();
+            return false;
+        }
+    }
+
+    private static List<List<PendingSignature>> groupBySignRequest(List<PendingSignature> batch) {
+        Map<List<Object>, List<PendingSignature>> batches = new LinkedHashMap<>();
+        for (PendingSignature pendingSignature : batch) {
+            batches.computeIfAbsent(List.of(pendingSignature.signPath, pendingSignature.parameters), k -> new ArrayList<>())
+                    .add(pendingSignature);
+        }
+        return new ArrayList<>(batches.values());
+    }
+
+    private void signBatch(List<PendingSignature> batch) {
+        try {
+            List<Map<String, String>> batchInput = new ArrayList<>(batch.size());
+            batch.forEach(pendingSignature -> batchInput.add(Map.of("input", pendingSignature.input)));
+            Map<String, Object> request = new HashMap<>(batch.get(0).parameters);
+            request.put("batch_input", batchInput);
+            VaultResponse response = this.vaultOperations.write(batch.get(0).signPath, request);
+            Object batchResults = response != null && response.getData() != null ? response.getData().get("batch_results") : null;
+            if (!(batchResults instanceof List<?> results) || results.size() != batch.size()) {
+                throw new JwtEncodingException("Vault returned no batch results");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Object signature = results.get(i) instanceof Map<?, ?> result ? result.get("signature") : null;
+                if (signature instanceof String) {
+                    batch.get(i).future.complete((String) signature);
+                } else {
+                    Object error = results.get(i) instanceof Map<?, ?> result ? result.get("error") : null;
+                    batch.get(i).future.completeExceptionally(new JwtEncodingException("Vault returned no signature: " + error));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to sign a batch of {} with Vault: {}", batch.size(), e.getMessage());
+            batch.forEach(pendingSignature -> pendingSignature.future.completeExceptionally(e));
+        }
+    }
+
+    private static void fail(List<PendingSignature> batch) {
+        batch.forEach(pendingSignature -> pendingSignature.future.completeExceptionally(closedException()));
+    }
+
+    private static JwtEncodingException closedException() {
+        return new JwtEncodingException("The transit signer is closed");
+    }
+
+    /**
+     * Stop collecting, fail the requests that were not sent yet and let the in-flight batches complete.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.collector.interrupt();
+        this.signingExecutor.shutdown();
+        List<PendingSignature> remaining = new ArrayList<>();
+        this.pendingSignatures.drainTo(remaining);
+        fail(remaining);
+    }
+
+    private static final class PendingSignature {
+        private final String signPath;
+        private final String input;
+        private final Map<String, Object> parameters;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        private PendingSignature(String signPath, String input, Map<String, Object> parameters) {
+            this.signPath = signPath;
+            this.input = input;
+            this.parameters = parameters;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.util.Assert;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link JwtEncoder} signing tokens in process with a short-lived key pair that is certified by the Vault transit key.
+ * <p>
+ * The key pair is generated locally and its public JWK is signed by {@link VaultJwtEncoder} into a key certificate,
+ * a JWT of type {@value #KEY_CERTIFICATE_TYPE} whose {@code sub} is the {@code kid} of the key. Tokens carry the
+ * certificate in the {@value #KEY_CERTIFICATE_HEADER} header, so the resource server verifies the certificate against
+ * Vault once per key and the token signatures locally. Vault stays the trust anchor but is only called once per
+ * rotation instead of once per token.
+ * <p>
+ * The key is rotated every {@link #setRotationInterval(Duration) rotation interval}. The certificate stays valid for a
+ * further {@link #setCertificateGracePeriod(Duration) grace period}, which must cover the token lifetime.
+ *
+ * @author: ReLive27
+ * @date: 2026/10/17 23:45
+ */
+@Slf4j
+public final class VaultAnchoredJwtEncoder implements JwtEncoder, SmartLifecycle, AutoCloseable {
+    public static final String KEY_CERTIFICATE_HEADER = "key_cert";
+    public static final String KEY_CERTIFICATE_TYPE = "vault-key+jwt";
+    private final VaultJwtEncoder certificateEncoder;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private JWSAlgorithm algorithm = JWSAlgorithm.RS256;
+    private Duration rotationInterval = Duration.ofMinutes(15);
+    private Duration certificateGracePeriod = Duration.ofHours(1);
+    private Clock clock = Clock.systemUTC();
+    private volatile SigningKey signingKey;
+    private ThreadPoolTaskScheduler taskScheduler;
+    private ScheduledFuture<?> rotationFuture;
+
+    /**
+     * @param certificateEncoder signs the key certificates with the transit key
+     */
+    public VaultAnchoredJwtEncoder(VaultJwtEncoder certificateEncoder) {
+        Assert.notNull(certificateEncoder, "certificateEncoder cannot be null");
+        this.certificateEncoder = certificateEncoder;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        SigningKey signingKey = this.getSigningKey();
+        JwsHeader headers = parameters.getJwsHeader();
+        JwsHeader.Builder builder = headers != null ? JwsHeader.from(headers) : JwsHeader.with(SignatureAlgorithm.RS256).type(JOSEObjectType.JWT.getType());
+        // The local key decides the algorithm, the certificate lets the resource server trust the kid
+        JwsHeader certifiedHeaders = builder.algorithm(SignatureAlgorithm.from(this.algorithm.getName()))
+                .keyId(signingKey.jwk.getKeyID())
+                .header(KEY_CERTIFICATE_HEADER, signingKey.certificate)
+                .build();
+        JwtClaimsSet claims = parameters.getClaims();
+        JWSObject jwsObject = new JWSObject(VaultJwtEncoder.convert(certifiedHeaders), new Payload(VaultJwtEncoder.convert(claims).toJSONObject()));
+        try {
+            jwsObject.sign(signingKey.signer);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", e.getMessage()), e);
+        }
+        return new Jwt(jwsObject.serialize(), claims.getIssuedAt(), claims.getExpiresAt(), certifiedHeaders.getHeaders(), claims.getClaims());
+    }
+
+    private SigningKey getSigningKey() {
+        SigningKey signingKey = this.signingKey;
+        if (signingKey != null && this.clock.instant().isBefore(signingKey.signUntil)) {
+            return signingKey;
+        }
+        synchronized (this) {
+            signingKey = this.signingKey;
+            if (signingKey == null || !this.clock.instant().isBefore(signingKey.signUntil)) {
+                signingKey = this.rotate();
+            }
+            return signingKey;
+        }
+    }
+
+    /**
+     * Generates a key pair and has Vault certify its public key.
+     */
+    private synchronized SigningKey rotate() {
+        Instant now = this.clock.instant();
+        JWK jwk;
+        JWSSigner signer;
+        try {
+            String keyId = UUID.randomUUID().toString();
+            if (JWSAlgorithm.Family.EC.contains(this.algorithm)) {
+                ECKey ecKey = new ECKeyGenerator(Curve.forJWSAlgorithm(this.algorithm).iterator().next())
+                        .keyID(keyId).keyUse(KeyUse.SIGNATURE).algorithm(this.algorithm).generate();
+                signer = new ECDSASigner(ecKey);
+                jwk = ecKey;
+            } else {
+                RSAKey rsaKey = new RSAKeyGenerator(RSAKeyGenerator.MIN_KEY_SIZE_BITS)
+                        .keyID(keyId).keyUse(KeyUse.SIGNATURE).algorithm(this.algorithm).generate();
+                signer = new RSASSASigner(rsaKey);
+                jwk = rsaKey;
+            }
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Unable to generate the signing key: " + e.getMessage()), e);
+        }
+        Instant signUntil = now.plus(this.rotationInterval);
+        JwtClaimsSet certificateClaims = JwtClaimsSet.builder()
+                .subject(jwk.getKeyID())
+                .issuedAt(now)
+                .notBefore(now)
+                .expiresAt(signUntil.plus(this.certificateGracePeriod))
+                .claim("jwk", jwk.toPublicJWK().toJSONObject())
+                .build();
+        JwsHeader certificateHeader = JwsHeader.with(SignatureAlgorithm.RS256).type(KEY_CERTIFICATE_TYPE).build();
+        String certificate = this.certificateEncoder.encode(JwtEncoderParameters.from(certificateHeader, certificateClaims)).getTokenValue();
+        SigningKey signingKey = new SigningKey(jwk, signer, certificate, signUntil);
+        this.signingKey = signingKey;
+        log.debug("Rotated the local signing key to {}, signing until {}", jwk.getKeyID(), signUntil);
+        return signingKey;
+    }
+
+    private void scheduledRotate() {
+        if (!this.running.get()) {
+            return;
+        }
+        try {
+            this.rotate();
+        } catch (RuntimeException e) {
+            log.warn("Scheduled signing key rotation failed, keep signing with the current key: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (this.running.compareAndSet(false, true)) {
+            ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+            taskScheduler.setThreadNamePrefix("vault-signing-key-rotation-");
+            taskScheduler.initialize();
+            this.taskScheduler = taskScheduler;
+            this.scheduledRotate();
+            // rotate ahead of the deadline, so tokens are not signed on the request thread waiting for Vault
+            this.rotationFuture = taskScheduler.scheduleAtFixedRate(this::scheduledRotate,
+                    Instant.now().plus(this.rotationInterval.multipliedBy(9).dividedBy(10)),
+                    this.rotationInterval.multipliedBy(9).dividedBy(10));
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.running.compareAndSet(true, false)) {
+            this.rotationFuture.cancel(true);
+            this.taskScheduler.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    @Override
+    public void close() {
+        this.stop();
+        this.certificateEncoder.close();
+    }
+
+    /**
+     * Set the signing algorithm of the local keys, {@code RS256} by default, RSA and ECDSA algorithms are supported.
+     *
+     * @param algorithm
+     */
+    public void setAlgorithm(JWSAlgorithm algorithm) {
+        Assert.notNull(algorithm, "algorithm cannot be null");
+        Assert.isTrue(JWSAlgorithm.Family.RSA.contains(algorithm) || JWSAlgorithm.Family.EC.contains(algorithm),
+                "algorithm must be an RSA or ECDSA algorithm");
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Set how long a local key signs tokens, defaults to 15 minutes.
+     *
+     * @param rotationInterval
+     */
+    public void setRotationInterval(Duration rotationInterval) {
+        Assert.isTrue(rotationInterval != null && !rotationInterval.isNegative() && !rotationInterval.isZero(),
+                "rotationInterval must be positive");
+        this.rotationInterval = rotationInterval;
+    }
+
+    /**
+     * Set how long the certificate outlives the signing period of its key, at least the token lifetime, defaults
+     * to 1 hour.
+     *
+     * @param certificateGracePeriod
+     */
+    public void setCertificateGracePeriod(Duration certificateGracePeriod) {
+        Assert.isTrue(certificateGracePeriod != null && !certificateGracePeriod.isNegative(),
+                "certificateGracePeriod cannot be negative");
+        this.certificateGracePeriod = certificateGracePeriod;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    private static final class SigningKey {
+        private final JWK jwk;
+        private final JWSSigner signer;
+        private final String certificate;
+        private final Instant signUntil;
+
+        private SigningKey(JWK jwk, JWSSigner signer, String certificate, Instant signUntil) {
+            this.jwk = jwk;
+            this.signer = signer;
+            this.certificate = certificate;
+            this.signUntil = signUntil;
+        }
+    }
+}
@@ -5,68 +5,205 @@ import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.util.Base64;
 import com.nimbusds.jose.util.Base64URL;
 import com.nimbusds.jwt.JWTClaimsSet;
-import lombok.SneakyThrows;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.vault.core.VaultOperations;
-import org.springframework.vault.support.Plaintext;
-import org.springframework.vault.support.VaultTransitContext;
+import org.springframework.vault.support.VaultResponse;
 
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @author: ReLive27
  * @date: 2024/7/7 22:04
  */
-public final class VaultJwtEncoder implements JwtEncoder {
+public final class VaultJwtEncoder implements JwtEncoder, AutoCloseable {
     private final VaultOperations vaultOperations;
     private static final JwsHeader DEFAULT_JWS_HEADER = JwsHeader.with(SignatureAlgorithm.RS256).type(JOSEObjectType.JWT.getType()).build();
+    private static final String KEY_VERSION_SEPARATOR = ":v";
     private String key = "oauth2";
+    private String transitPath = "transit";
+    private volatile int latestKeyVersion = 1;
+    private volatile BatchingTransitSigner batchingSigner;
+    private Duration signTimeout = Duration.ofSeconds(10);
 
     public VaultJwtEncoder(VaultOperations vaultOperations) {
         Assert.notNull(vaultOperations, "vaultOperations cannot be null");
         this.vaultOperations = vaultOperations;
     }
 
-    @SneakyThrows
     @Override
     public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
         JwsHeader headers = parameters.getJwsHeader();
         if (headers == null) {
             headers = DEFAULT_JWS_HEADER;
         }
-        JWSHeader jwsHeader = convert(headers);
         JwtClaimsSet claims = parameters.getClaims();
-        JWTClaimsSet jwtClaimsSet = convert(claims);
+        Payload payload = new Payload(convert(claims).toJSONObject());
+        String algorithm = headers.getAlgorithm().getName();
+
+        int keyVersion = this.latestKeyVersion;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            // The kid carries the transit key version, so the resource server knows which public key to verify with
+            JwsHeader versionedHeaders = JwsHeader.from(headers).keyId(this.key + KEY_VERSION_SEPARATOR + keyVersion).build();
+            JWSObject jwsObject = new JWSObject(convert(versionedHeaders), payload);
+
+            // Sign the JWS object
+            String signingInput = new String(jwsObject.getSigningInput(), StandardCharsets.US_ASCII);
+            String signature = this.sign(signingInput, algorithm);
+            int signatureKeyVersion = keyVersion(signature);
+            if (signatureKeyVersion != keyVersion) {
+                // The transit key was rotated, sign again with the kid of the latest version
+                this.latestKeyVersion = keyVersion = signatureKeyVersion;
+                continue;
+            }
+
+            // Attach the signature to the JWS object
+            Base64URL signatureBase64URL = Base64URL.encode(new Base64(signature.substring(signature.indexOf(':', 6) + 1)).decode());
+            String jws = signingInput + '.' + signatureBase64URL;
+            return new Jwt(jws, claims.getIssuedAt(), claims.getExpiresAt(), versionedHeaders.getHeaders(), claims.getClaims());
+        }
+        throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "The transit key version changed while signing"));
+    }
+
+    /**
+     * Sign with the transit key, RSA signatures use PKCS#1 v1.5 padding and ECDSA signatures the JWS encoding,
+     * so the token verifies with the algorithm in its header.
+     *
+     * @return the signature, prefixed with {@code vault:v<version>:}
+     */
+    private String sign(String signingInput, String algorithm) {
+        String input = java.util.Base64.getEncoder().encodeToString(signingInput.getBytes(StandardCharsets.US_ASCII));
+        BatchingTransitSigner batchingSigner = this.batchingSigner;
+        if (batchingSigner != null) {
+            return this.await(batchingSigner.sign(this.transitPath + "/sign/" + this.key, input, signatureParameters(algorithm)));
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("input", input);
+        request.putAll(signatureParameters(algorithm));
+        VaultResponse response;
+        try {
+            response = this.vaultOperations.write(this.transitPath + "/sign/" + this.key, request);
+        } catch (RuntimeException e) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", e.getMessage()), e);
+        }
+        Object signature = response != null && response.getData() != null ? response.getData().get("signature") : null;
+        if (!(signature instanceof String)) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Vault returned no signature"));
+        }
+        return (String) signature;
+    }
+
+    private String await(CompletableFuture<String> signature) {
+        try {
+            return signature.get(this.signTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Interrupted while signing"), e);
+        } catch (ExecutionException e) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", e.getCause().getMessage()), e.getCause());
+        } catch (TimeoutException e) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Timed out waiting for Vault to sign"), e);
+        }
+    }
 
-        JWSObject jwsObject = new JWSObject(jwsHeader, new Payload(jwtClaimsSet.toJSONObject()));
+    private static Map<String, Object> signatureParameters(String algorithm) {
+        String hashAlgorithm = switch (algorithm.substring(2)) {
+            case "256" -> "sha2-256";
+            case "384" -> "sha2-384";
+            case "512" -> "sha2-512";
+            default -> null;
+        };
+        if (hashAlgorithm != null && algorithm.startsWith("RS")) {
+            return Map.of("hash_algorithm", hashAlgorithm, "signature_algorithm", "pkcs1v15");
+        }
+        if (hashAlgorithm != null && algorithm.startsWith("ES")) {
+            return Map.of("hash_algorithm", hashAlgorithm, "marshaling_algorithm", "jws");
+        }
+        throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Unsupported algorithm " + algorithm));
+    }
 
-        // Sign the JWS object
-        String signingInput = new String(jwsObject.getSigningInput());
-        Plaintext plaintext = Plaintext.of(signingInput).with(VaultTransitContext.builder().build());
-        String signature = vaultOperations.opsForTransit().sign(key, plaintext).getSignature();
+    /**
+     * The key version of a {@code vault:v<version>:<signature>} signature.
+     */
+    private static int keyVersion(String signature) {
+        int end = signature.indexOf(':', 6);
+        if (!signature.startsWith("vault:v") || end < 0) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Malformed Vault signature"));
+        }
+        try {
+            return Integer.parseInt(signature.substring(7, end));
+        } catch (NumberFormatException e) {
+            throw new JwtEncodingException(String.format("An error occurred while attempting to encode the Jwt: %s", "Malformed Vault signature"), e);
+        }
+    }
 
-        // Attach the signature to the JWS object
-        Base64URL signatureBase64URL = Base64URL.from(signature.startsWith("vault:v1:") ? signature.substring(9) : signature);
-        jwsObject = new JWSObject(jwsHeader.toBase64URL(), new Payload(jwtClaimsSet.toJSONObject()), signatureBase64URL);
+    /**
+     * Sign concurrent tokens with batched transit calls: requests arriving within {@code batchWindow} of the first
+     * one, up to {@code maxBatchSize}, are signed with a single {@code batch_input} call, with up to
+     * {@code maxConcurrentBatches} calls in flight.
+     *
+     * @param batchWindow          how long to wait for more requests, e.g. 2 ms
+     * @param maxBatchSize         the maximum number of inputs per Vault call
+     * @param maxConcurrentBatches the maximum number of batched Vault calls in flight
+     */
+    public void setBatchSigning(Duration batchWindow, int maxBatchSize, int maxConcurrentBatches) {
+        BatchingTransitSigner previous = this.batchingSigner;
+        this.batchingSigner = new BatchingTransitSigner(this.vaultOperations, batchWindow, maxBatchSize, maxConcurrentBatches);
+        if (previous != null) {
+            previous.close();
+        }
+    }
 
-        // Serialize JWS to compact format
-        String jws = jwsObject.serialize();
-        return new Jwt(jws, claims.getIssuedAt(), claims.getExpiresAt(), headers.getHeaders(), claims.getClaims());
+    /**
+     * Set how long a batched sign request may wait for Vault, defaults to 10 seconds.
+     *
+     * @param signTimeout
+     */
+    public void setSignTimeout(Duration signTimeout) {
+        Assert.notNull(signTimeout, "signTimeout cannot be null");
+        this.signTimeout = signTimeout;
+    }
 
+    /**
+     * Stop the batching worker, if any.
+     */
+    @Override
+    public void close() {
+        BatchingTransitSigner batchingSigner = this.batchingSigner;
+        this.batchingSigner = null;
+        if (batchingSigner != null) {
+            batchingSigner.close();
+        }
     }
 
     public void setKey(String key) {
+        Assert.hasText(key, "key cannot be empty");
         this.key = key;
     }
 
-    private static JWSHeader convert(JwsHeader headers) {
+    /**
+     * Set the mount path of the transit secrets engine, defaults to {@code transit}.
+     *
+     * @param transitPath
+     */
+    public void setTransitPath(String transitPath) {
+        Assert.hasText(transitPath, "transitPath cannot be empty");
+        this.transitPath = transitPath;
+    }
+
+    static JWSHeader convert(JwsHeader headers) {
         com.nimbusds.jose.JWSHeader.Builder builder = new com.nimbusds.jose.JWSHeader.Builder(JWSAlgorithm.parse(headers.getAlgorithm().getName()));
         if (headers.getJwkSetUrl() != null) {
             builder.jwkURL(convertAsURI("jku", headers.getJwkSetUrl()));
@@ -141,7 +278,7 @@ public final class VaultJwtEncoder implements JwtEncoder {
     }
 
 
-    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+    static JWTClaimsSet convert(JwtClaimsSet claims) {
         com.nimbusds.jwt.JWTClaimsSet.Builder builder = new com.nimbusds.jwt.JWTClaimsSet.Builder();
         Object issuer = claims.getClaim("iss");
         if (issuer != null) {
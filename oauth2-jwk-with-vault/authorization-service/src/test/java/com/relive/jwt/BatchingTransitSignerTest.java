@@ -0,0 +1,106 @@
+package com.relive.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive27
+ * @date: 2026/10/18 10:05
+ */
+public class BatchingTransitSignerTest {
+    private static final String SIGN_PATH = "transit/sign/oauth2";
+    private static final Map<String, Object> PARAMETERS = Map.of("hash_algorithm", "sha2-256");
+
+    @Test
+    public void signWhenOneBatchResultHasAnErrorThenOnlyThatSignatureFails() throws Exception {
+        VaultOperations vaultOperations = mock(VaultOperations.class);
+        when(vaultOperations.write(eq(SIGN_PATH), anyMap())).thenReturn(response(Map.of("batch_results", List.of(
+                Map.of("signature", "vault:v1:c2lnbmF0dXJl"),
+                Map.of("error", "invalid input")))));
+
+        try (BatchingTransitSigner signer = new BatchingTransitSigner(vaultOperations, Duration.ofSeconds(5), 2, 1)) {
+            CompletableFuture<String> first = signer.sign(SIGN_PATH, "Zmlyc3Q=", PARAMETERS);
+            CompletableFuture<String> second = signer.sign(SIGN_PATH, "c2Vjb25k", PARAMETERS);
+
+            assertEquals("vault:v1:c2lnbmF0dXJl", first.get(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(JwtEncodingException.class, e.getCause());
+            assertTrue(e.getCause().getMessage().contains("invalid input"));
+        }
+        verify(vaultOperations, times(1)).write(eq(SIGN_PATH), anyMap());
+    }
+
+    @Test
+    public void signWhenVaultFailsThenEveryRequestOfTheBatchFails() throws Exception {
+        VaultOperations vaultOperations = mock(VaultOperations.class);
+        when(vaultOperations.write(eq(SIGN_PATH), anyMap())).thenThrow(new IllegalStateException("vault is sealed"));
+
+        try (BatchingTransitSigner signer = new BatchingTransitSigner(vaultOperations, Duration.ofSeconds(5), 2, 1)) {
+            CompletableFuture<String> first = signer.sign(SIGN_PATH, "Zmlyc3Q=", PARAMETERS);
+            CompletableFuture<String> second = signer.sign(SIGN_PATH, "c2Vjb25k", PARAMETERS);
+
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void signWhenBatchesAreInFlightThenNextBatchIsSentConcurrently() throws Exception {
+        VaultOperations vaultOperations = mock(VaultOperations.class);
+        CountDownLatch inFlight = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(vaultOperations.write(eq(SIGN_PATH), anyMap())).thenAnswer(invocation -> {
+            inFlight.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response(Map.of("batch_results", List.of(Map.of("signature", "vault:v1:c2lnbmF0dXJl"))));
+        });
+
+        try (BatchingTransitSigner signer = new BatchingTransitSigner(vaultOperations, Duration.ZERO, 1, 2)) {
+            CompletableFuture<String> first = signer.sign(SIGN_PATH, "Zmlyc3Q=", PARAMETERS);
+            CompletableFuture<String> second = signer.sign(SIGN_PATH, "c2Vjb25k", PARAMETERS);
+
+            assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            assertEquals("vault:v1:c2lnbmF0dXJl", first.get(5, TimeUnit.SECONDS));
+            assertEquals("vault:v1:c2lnbmF0dXJl", second.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void signWhenClosedThenCompletesExceptionallyWithoutWaiting() {
+        VaultOperations vaultOperations = mock(VaultOperations.class);
+        BatchingTransitSigner signer = new BatchingTransitSigner(vaultOperations, Duration.ofMillis(2), 32, 1);
+        signer.close();
+
+        CompletableFuture<String> signature = signer.sign(SIGN_PATH, "Zmlyc3Q=", PARAMETERS);
+
+        assertTrue(signature.isCompletedExceptionally());
+    }
+
+    private static VaultResponse response(Map<String, Object> data) {
+        VaultResponse response = new VaultResponse();
+        response.setData(data);
+        return response;
+    }
+}
@@ -1,11 +1,18 @@
 package com.relive.config;
 
+import com.relive.jwt.JWKSourceKeyResolver;
+import com.relive.jwt.LeanJwtDecoder;
 import com.relive.jwt.VaultJwtDecoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
 import org.springframework.vault.core.VaultTemplate;
 
 /**
@@ -24,8 +31,38 @@ public class ResourceServerConfig {
         return http.build();
     }
 
+    /**
+     * {@code jwt.decoder=vault} (default) verifies tokens with the Vault transit key.
+     */
     @Bean
-    JwtDecoder jwtDecoder(VaultTemplate vaultTemplate) {
-        return new VaultJwtDecoder(vaultTemplate);
+    @ConditionalOnProperty(name = "jwt.decoder", havingValue = "vault", matchIfMissing = true)
+    JwtDecoder jwtDecoder(VaultTemplate vaultTemplate, @Value("${jwt.vault.verify-locally:false}") boolean verifyLocally) {
+        VaultJwtDecoder jwtDecoder = new VaultJwtDecoder(vaultTemplate);
+        jwtDecoder.setVerifyLocally(verifyLocally);
+        return jwtDecoder;
+    }
+
+    /**
+     * {@code jwt.decoder=lean} verifies tokens with {@link LeanJwtDecoder} and the keys of the JWK Set at
+     * {@code jwt.lean.jwk-set-uri}. A {@link LeanJwtDecoder.KeyResolver} bean of its own replaces the JWK Set.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "jwt.decoder", havingValue = "lean")
+    static class LeanJwtDecoderConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        LeanJwtDecoder.KeyResolver keyResolver(@Value("${jwt.lean.jwk-set-uri}") String jwkSetUri) {
+            return JWKSourceKeyResolver.withJwkSetUri(jwkSetUri);
+        }
+
+        @Bean
+        JwtDecoder jwtDecoder(LeanJwtDecoder.KeyResolver keyResolver, @Value("${jwt.lean.issuer-uri:}") String issuerUri) {
+            LeanJwtDecoder jwtDecoder = new LeanJwtDecoder(keyResolver);
+            if (StringUtils.hasText(issuerUri)) {
+                jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+            }
+            return jwtDecoder;
+        }
     }
 }
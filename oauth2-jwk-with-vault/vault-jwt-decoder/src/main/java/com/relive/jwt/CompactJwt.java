@@ -0,0 +1,228 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A JWS in compact serialization, split at its dots without decoding the payload.
+ * <p>
+ * Only the header is read up front, with a scan of its string members that falls back to a full JSON parse for
+ * anything else. The signing input is taken from the token bytes as is, the claims are decoded on demand, so a token
+ * can be rejected on its signature before any claim is parsed.
+ *
+ * @author: ReLive27
+ * @date: 2026/10/17 22:05
+ */
+final class CompactJwt {
+    private final String token;
+    private final byte[] tokenBytes;
+    private final int headerEnd;
+    private final int payloadEnd;
+    private final Map<String, Object> headers;
+
+    private CompactJwt(String token, byte[] tokenBytes, int headerEnd, int payloadEnd, Map<String, Object> headers) {
+        this.token = token;
+        this.tokenBytes = tokenBytes;
+        this.headerEnd = headerEnd;
+        this.payloadEnd = payloadEnd;
+        this.headers = headers;
+    }
+
+    static CompactJwt parse(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Invalid serialized unsecured/JWS/JWE object: Missing part delimiters");
+        }
+        if (payloadEnd == token.length() - 1) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Unsupported algorithm of none");
+        }
+        byte[] tokenBytes = token.getBytes(StandardCharsets.US_ASCII);
+        String header;
+        try {
+            header = decodeToString(tokenBytes, 0, headerEnd);
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Invalid JWS header: " + e.getMessage(), e);
+        }
+        Map<String, Object> headers = HeaderScanner.scan(header);
+        if (headers == null) {
+            try {
+                headers = JSONObjectUtils.parse(header);
+            } catch (ParseException e) {
+                throw new BadJwtException("An error occurred while attempting to decode the Jwt: Invalid JWS header: " + e.getMessage(), e);
+            }
+        }
+        if (!(headers.get("alg") instanceof String)) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Missing \"alg\" in header JSON object");
+        }
+        if (headers.containsKey("crit")) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Unsupported critical header parameters");
+        }
+        return new CompactJwt(token, tokenBytes, headerEnd, payloadEnd, headers);
+    }
+
+    String getToken() {
+        return this.token;
+    }
+
+    String getAlgorithm() {
+        return (String) this.headers.get("alg");
+    }
+
+    String getKeyId() {
+        Object kid = this.headers.get("kid");
+        return kid instanceof String ? (String) kid : null;
+    }
+
+    Map<String, Object> getHeaders() {
+        return this.headers;
+    }
+
+    /**
+     * The token bytes, the signing input is the first {@link #getSigningInputLength()} bytes.
+     */
+    byte[] getTokenBytes() {
+        return this.tokenBytes;
+    }
+
+    int getSigningInputLength() {
+        return this.payloadEnd;
+    }
+
+    String getSigningInput() {
+        return this.token.substring(0, this.payloadEnd);
+    }
+
+    /**
+     * The encoded signature, left as is since the Vault signatures are not strictly base64url.
+     */
+    String getEncodedSignature() {
+        return this.token.substring(this.payloadEnd + 1);
+    }
+
+    byte[] getSignature() {
+        return new Base64URL(this.getEncodedSignature()).decode();
+    }
+
+    /**
+     * Decode the claims, converting the registered claims the way {@code MappedJwtClaimSetConverter} does
+     * for the ones the resource server reads.
+     */
+    Map<String, Object> getClaims() {
+        Map<String, Object> claims;
+        try {
+            claims = JSONObjectUtils.parse(decodeToString(this.tokenBytes, this.headerEnd + 1, this.payloadEnd));
+        } catch (ParseException | IllegalArgumentException e) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Malformed payload", e);
+        }
+        if (claims.isEmpty()) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Malformed payload");
+        }
+        claims.computeIfPresent(JwtClaimNames.AUD, (name, value) -> value instanceof String ? Collections.singletonList(value) : value);
+        convertTimestamp(claims, JwtClaimNames.EXP);
+        convertTimestamp(claims, JwtClaimNames.IAT);
+        convertTimestamp(claims, JwtClaimNames.NBF);
+        return claims;
+    }
+
+    private static void convertTimestamp(Map<String, Object> claims, String name) {
+        Object value = claims.get(name);
+        if (value instanceof Number number) {
+            claims.put(name, Instant.ofEpochSecond(number.longValue()));
+        }
+    }
+
+    private static String decodeToString(byte[] bytes, int from, int to) {
+        ByteBuffer decoded = Base64.getUrlDecoder().decode(ByteBuffer.wrap(bytes, from, to - from));
+        return new String(decoded.array(), decoded.arrayOffset() + decoded.position(), decoded.remaining(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a JSON object whose members are all plain strings, e.g. {@code {"kid":"...","typ":"JWT","alg":"RS256"}}.
+     */
+    private static final class HeaderScanner {
+        private final String json;
+        private int position;
+
+        private HeaderScanner(String json) {
+            this.json = json;
+        }
+
+        /**
+         * Returns the members, or {@code null} if the header needs a full JSON parse.
+         */
+        static Map<String, Object> scan(String json) {
+            return new HeaderScanner(json).scanObject();
+        }
+
+        private Map<String, Object> scanObject() {
+            if (!this.next('{')) {
+                return null;
+            }
+            Map<String, Object> members = new LinkedHashMap<>(8);
+            if (this.next('}')) {
+                return this.atEnd() ? members : null;
+            }
+            do {
+                String name = this.scanString();
+                if (name == null || !this.next(':')) {
+                    return null;
+                }
+                String value = this.scanString();
+                if (value == null || members.put(name, value) != null) {
+                    return null;
+                }
+            } while (this.next(','));
+            return this.next('}') && this.atEnd() ? members : null;
+        }
+
+        private String scanString() {
+            if (!this.next('"')) {
+                return null;
+            }
+            int start = this.position;
+            int end = this.json.indexOf('"', start);
+            if (end < 0) {
+                return null;
+            }
+            for (int i = start; i < end; i++) {
+                if (this.json.charAt(i) == '\\') {
+                    return null;
+                }
+            }
+            this.position = end + 1;
+            return this.json.substring(start, end);
+        }
+
+        private boolean next(char c) {
+            this.skipWhitespace();
+            if (this.position < this.json.length() && this.json.charAt(this.position) == c) {
+                this.position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean atEnd() {
+            this.skipWhitespace();
+            return this.position == this.json.length();
+        }
+
+        private void skipWhitespace() {
+            while (this.position < this.json.length() && Character.isWhitespace(this.json.charAt(this.position))) {
+                this.position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.Algorithm;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.util.Assert;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.security.PublicKey;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link LeanJwtDecoder.KeyResolver} selecting the verification key from a {@link JWKSource}, e.g. the JWK Set of the
+ * authorization server.
+ * <p>
+ * The key is matched by {@code kid}, key type and {@code alg}. {@link SignatureVerifier} caches its
+ * {@link java.security.Signature} objects per key instance, so the public key of a JWK is converted once and the same
+ * instance is returned until the JWK leaves the set.
+ *
+ * @author: ReLive27
+ * @date: 2026/10/18 10:20
+ */
+public final class JWKSourceKeyResolver implements LeanJwtDecoder.KeyResolver {
+    private static final int MAX_CACHED_KEYS = 16;
+    private final JWKSource<SecurityContext> jwkSource;
+    private final Map<JWK, PublicKey> publicKeys = new ConcurrentHashMap<>();
+
+    public JWKSourceKeyResolver(JWKSource<SecurityContext> jwkSource) {
+        Assert.notNull(jwkSource, "jwkSource cannot be null");
+        this.jwkSource = jwkSource;
+    }
+
+    /**
+     * A resolver reading the JWK Set from the given URI, cached and refreshed by {@link JWKSourceBuilder}.
+     *
+     * @param jwkSetUri the JWK Set URI
+     * @return the resolver
+     */
+    public static JWKSourceKeyResolver withJwkSetUri(String jwkSetUri) {
+        Assert.hasText(jwkSetUri, "jwkSetUri cannot be empty");
+        try {
+            return new JWKSourceKeyResolver(JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL())
+                    .retrying(true)
+                    .build());
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid JWK Set URI: " + jwkSetUri, e);
+        }
+    }
+
+    @Override
+    public PublicKey resolve(String keyId, String algorithm) throws JwtException {
+        JWSAlgorithm jwsAlgorithm = JWSAlgorithm.parse(algorithm);
+        KeyType keyType = KeyType.forAlgorithm(jwsAlgorithm);
+        if (keyType == null || KeyType.OCT.equals(keyType)) {
+            return null;
+        }
+        JWKMatcher matcher = new JWKMatcher.Builder()
+                .keyID(keyId)
+                .keyType(keyType)
+                .keyUses(KeyUse.SIGNATURE, null)
+                .algorithms(jwsAlgorithm, (Algorithm) null)
+                .build();
+        List<JWK> jwks;
+        try {
+            jwks = this.jwkSource.get(new JWKSelector(matcher), null);
+        } catch (KeySourceException e) {
+            throw new JwtException("An error occurred while attempting to retrieve the JWK Set: " + e.getMessage(), e);
+        }
+        for (JWK jwk : jwks) {
+            if (jwk instanceof AsymmetricJWK) {
+                return this.getPublicKey(jwk);
+            }
+        }
+        return null;
+    }
+
+    private PublicKey getPublicKey(JWK jwk) {
+        PublicKey publicKey = this.publicKeys.get(jwk);
+        if (publicKey != null) {
+            return publicKey;
+        }
+        try {
+            publicKey = ((AsymmetricJWK) jwk).toPublicKey();
+        } catch (JOSEException e) {
+            throw new BadJwtException("Unable to read the public key of " + jwk.getKeyID(), e);
+        }
+        // rotated keys are not removed one by one, the map is small enough to start over
+        if (this.publicKeys.size() >= MAX_CACHED_KEYS) {
+            this.publicKeys.clear();
+        }
+        PublicKey existing = this.publicKeys.putIfAbsent(jwk, publicKey);
+        return existing != null ? existing : publicKey;
+    }
+}
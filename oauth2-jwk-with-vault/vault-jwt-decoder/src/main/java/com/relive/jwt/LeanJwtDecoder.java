@@ -0,0 +1,129 @@
+package com.relive.jwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * {@link JwtDecoder} for high request rates that does as little work as possible before the signature is verified.
+ * <p>
+ * Unlike {@code NimbusJwtDecoder} it reads {@code alg} and {@code kid} with a scan of the header, verifies the
+ * signature on the signing input bytes of the token with a {@link java.security.Signature} cached per key and thread,
+ * and decodes the claims only once the signature is valid. {@link Jwt} copies its claims when it is built, so the claims
+ * are decoded straight into the map it is built from instead of through {@code MappedJwtClaimSetConverter}.
+ *
+ * @author: ReLive27
+ * @date: 2026/10/17 22:35
+ */
+@Slf4j
+public final class LeanJwtDecoder implements JwtDecoder {
+    private final KeyResolver keyResolver;
+    private final SignatureVerifier signatureVerifier = new SignatureVerifier();
+    private OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+
+    public LeanJwtDecoder(KeyResolver keyResolver) {
+        Assert.notNull(keyResolver, "keyResolver cannot be null");
+        this.keyResolver = keyResolver;
+    }
+
+    /**
+     * A decoder verifying tokens with a single public key, whatever their {@code kid}.
+     *
+     * @param publicKey the public key
+     * @return the decoder
+     */
+    public static LeanJwtDecoder withPublicKey(PublicKey publicKey) {
+        Assert.notNull(publicKey, "publicKey cannot be null");
+        return new LeanJwtDecoder((keyId, algorithm) -> publicKey);
+    }
+
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> jwtValidator) {
+        Assert.notNull(jwtValidator, "jwtValidator cannot be null");
+        this.jwtValidator = jwtValidator;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        CompactJwt jwt = CompactJwt.parse(token);
+        this.verify(jwt);
+        return this.validateJwt(createJwt(jwt));
+    }
+
+    private void verify(CompactJwt jwt) {
+        String algorithm = jwt.getAlgorithm();
+        PublicKey publicKey = this.keyResolver.resolve(jwt.getKeyId(), algorithm);
+        if (publicKey == null) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Signed JWT rejected: Another algorithm expected, or no matching key(s) found");
+        }
+        boolean valid;
+        try {
+            valid = this.signatureVerifier.verify(jwt, algorithm, publicKey, jwt.getSignature());
+        } catch (GeneralSecurityException e) {
+            log.trace("Failed to verify the JWT signature", e);
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: " + e.getMessage(), e);
+        }
+        if (!valid) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: Signed JWT rejected: Invalid signature");
+        }
+    }
+
+    static Jwt createJwt(CompactJwt jwt) {
+        Map<String, Object> claims = jwt.getClaims();
+        Instant issuedAt = claims.get(JwtClaimNames.IAT) instanceof Instant instant ? instant : null;
+        Instant expiresAt = claims.get(JwtClaimNames.EXP) instanceof Instant instant ? instant : null;
+        try {
+            return new Jwt(jwt.getToken(), issuedAt, expiresAt, jwt.getHeaders(), claims);
+        } catch (IllegalArgumentException e) {
+            throw new BadJwtException("An error occurred while attempting to decode the Jwt: " + e.getMessage(), e);
+        }
+    }
+
+    private Jwt validateJwt(Jwt jwt) {
+        OAuth2TokenValidatorResult result = this.jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            Collection<OAuth2Error> errors = result.getErrors();
+            throw new JwtValidationException(getJwtValidationExceptionMessage(errors), errors);
+        }
+        return jwt;
+    }
+
+    private static String getJwtValidationExceptionMessage(Collection<OAuth2Error> errors) {
+        for (OAuth2Error oAuth2Error : errors) {
+            if (StringUtils.hasText(oAuth2Error.getDescription())) {
+                return String.format("An error occurred while attempting to decode the Jwt: %s", oAuth2Error.getDescription());
+            }
+        }
+        return "Unable to validate Jwt";
+    }
+
+    /**
+     * Resolves the verification key of a token.
+     */
+    @FunctionalInterface
+    public interface KeyResolver {
+
+        /**
+         * @param keyId     the {@code kid} header, may be {@code null}
+         * @param algorithm the {@code alg} header
+         * @return the public key, or {@code null} if there is none for the token
+         * @throws JwtException if the key cannot be resolved
+         */
+        PublicKey resolve(String keyId, String algorithm) throws JwtException;
+    }
+}
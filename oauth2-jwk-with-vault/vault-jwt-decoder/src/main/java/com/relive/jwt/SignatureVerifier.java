@@ -0,0 +1,135 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.jwk.Curve;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Verifies JWS signatures on the raw signing input bytes of a {@link CompactJwt}.
+ * <p>
+ * {@link Signature} instances are initialized once per algorithm and key and kept per thread, {@link Signature#verify}
+ * resets them to the state after {@link Signature#initVerify}, so a verification allocates nothing but the decoded
+ * signature. ECDSA signatures are checked for their length and the range of {@code R} and {@code S}, and the key for
+ * the curve of the algorithm, before they are handed to the JCA provider.
+ *
+ * @author: ReLive27
+ * @date: 2026/10/17 22:20
+ */
+final class SignatureVerifier {
+    private static final int MAXIMUM_KEYS_PER_THREAD = 16;
+    private final ThreadLocal<Map<String, Map<PublicKey, Signature>>> signatures = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * @param jwt       the token
+     * @param algorithm the JWS algorithm, e.g. {@code RS256}
+     * @param publicKey the verification key
+     * @param signature the signature bytes
+     * @return {@code true} if the signature is valid
+     * @throws GeneralSecurityException if the algorithm is not supported or does not fit the key
+     */
+    boolean verify(CompactJwt jwt, String algorithm, PublicKey publicKey, byte[] signature) throws GeneralSecurityException {
+        Signature verifier = this.getVerifier(algorithm, publicKey);
+        if (algorithm.startsWith("ES")) {
+            ECPublicKey ecPublicKey = checkCurve(algorithm, publicKey);
+            if (!isValidECDSASignature(signature, ecPublicKey)) {
+                return false;
+            }
+            try {
+                signature = ECDSA.transcodeSignatureToDER(signature);
+            } catch (JOSEException e) {
+                return false;
+            }
+        }
+        verifier.update(jwt.getTokenBytes(), 0, jwt.getSigningInputLength());
+        try {
+            return verifier.verify(signature);
+        } catch (SignatureException e) {
+            verifier.initVerify(publicKey);
+            return false;
+        }
+    }
+
+    /**
+     * The EC key must be on the curve of the algorithm, e.g. P-256 for {@code ES256}.
+     */
+    private static ECPublicKey checkCurve(String algorithm, PublicKey publicKey) throws InvalidKeyException {
+        if (!(publicKey instanceof ECPublicKey ecPublicKey)) {
+            throw new InvalidKeyException("The key of " + algorithm + " must be an EC public key");
+        }
+        Curve curve = Curve.forECParameterSpec(ecPublicKey.getParams());
+        if (curve == null || !Curve.forJWSAlgorithm(JWSAlgorithm.parse(algorithm)).contains(curve)) {
+            throw new InvalidKeyException("The curve of the key does not match " + algorithm);
+        }
+        return ecPublicKey;
+    }
+
+    /**
+     * A JWS ECDSA signature is {@code R || S}, each as long as the curve order. {@code R} and {@code S} must be in
+     * {@code [1, n - 1]}, a JCA provider must never see a zero signature (CVE-2022-21449).
+     */
+    private static boolean isValidECDSASignature(byte[] signature, ECPublicKey publicKey) {
+        BigInteger order = publicKey.getParams().getOrder();
+        int length = (order.bitLength() + 7) / 8;
+        if (signature.length != 2 * length) {
+            return false;
+        }
+        BigInteger r = new BigInteger(1, Arrays.copyOfRange(signature, 0, length));
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(signature, length, signature.length));
+        return r.signum() > 0 && r.compareTo(order) < 0 && s.signum() > 0 && s.compareTo(order) < 0;
+    }
+
+    private Signature getVerifier(String algorithm, PublicKey publicKey) throws GeneralSecurityException {
+        jcaName(algorithm);
+        Map<PublicKey, Signature> signatures = this.signatures.get().computeIfAbsent(algorithm, a -> new IdentityHashMap<>());
+        Signature verifier = signatures.get(publicKey);
+        if (verifier != null) {
+            return verifier;
+        }
+        verifier = createVerifier(algorithm);
+        verifier.initVerify(publicKey);
+        if (signatures.size() >= MAXIMUM_KEYS_PER_THREAD) {
+            signatures.clear();
+        }
+        signatures.put(publicKey, verifier);
+        return verifier;
+    }
+
+    private static Signature createVerifier(String algorithm) throws GeneralSecurityException {
+        Signature verifier = Signature.getInstance(jcaName(algorithm));
+        if (algorithm.startsWith("PS")) {
+            String hash = "SHA-" + algorithm.substring(2);
+            int saltLength = Integer.parseInt(algorithm.substring(2)) / 8;
+            verifier.setParameter(new PSSParameterSpec(hash, "MGF1", new MGF1ParameterSpec(hash), saltLength, 1));
+        }
+        return verifier;
+    }
+
+    private static String jcaName(String algorithm) throws GeneralSecurityException {
+        return switch (algorithm) {
+            case "RS256" -> "SHA256withRSA";
+            case "RS384" -> "SHA384withRSA";
+            case "RS512" -> "SHA512withRSA";
+            case "PS256", "PS384", "PS512" -> "RSASSA-PSS";
+            case "ES256" -> "SHA256withECDSA";
+            case "ES384" -> "SHA384withECDSA";
+            case "ES512" -> "SHA512withECDSA";
+            default -> throw new NoSuchAlgorithmException("Unsupported JWS algorithm " + algorithm);
+        };
+    }
+}
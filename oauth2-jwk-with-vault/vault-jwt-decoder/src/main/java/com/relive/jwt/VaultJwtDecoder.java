@@ -0,0 +1,410 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.AsymmetricJWK;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.util.Base64;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.*;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies tokens signed by {@code VaultJwtEncoder} with a transit key.
+ * <p>
+ * The transit key version is read from the {@code kid}, {@code <key>:v<version>}. By default every signature is
+ * verified by Vault. With {@link #setVerifyLocally(boolean)} the public keys of the transit key are read once, kept by
+ * version and signatures are verified in process, Vault is only asked again when a token references a newer version.
+ * <p>
+ * Tokens of {@code VaultAnchoredJwtEncoder} are signed with a short-lived local key and carry its certificate, a JWT
+ * signed by the transit key, in the {@code key_cert} header. The certified key must carry its {@code alg}, tokens are
+ * only accepted with that algorithm. The certificate is verified once per {@code kid} and the key is kept until the
+ * certificate expires.
+ *
+ * @author: ReLive27
+ * @date: 2024/7/7 22:34
+ */
+@Slf4j
+public class VaultJwtDecoder implements JwtDecoder {
+    private static final String KEY_VERSION_SEPARATOR = ":v";
+    private static final String KEY_CERTIFICATE_HEADER = "key_cert";
+    private static final String KEY_CERTIFICATE_TYPE = "vault-key+jwt";
+    private String key = "oauth2";
+    private String transitPath = "transit";
+    private boolean verifyLocally;
+    private Duration keyRefreshCooldown = Duration.ofSeconds(30);
+    private int maximumCertifiedKeys = 1_000;
+    private Clock clock = Clock.systemUTC();
+    private OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+    private final VaultOperations vaultOperations;
+    private final SignatureVerifier signatureVerifier = new SignatureVerifier();
+    private final Map<String, CertifiedKey> certifiedKeys = new ConcurrentHashMap<>();
+    private volatile TransitPublicKeys publicKeys = new TransitPublicKeys(Collections.emptyMap(), 0, Long.MIN_VALUE);
+
+
+    public VaultJwtDecoder(VaultOperations vaultOperations) {
+        Assert.notNull(vaultOperations, "vaultOperations cannot be null");
+        this.vaultOperations = vaultOperations;
+    }
+
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> jwtValidator) {
+        Assert.notNull(jwtValidator, "jwtValidator cannot be null");
+        this.jwtValidator = jwtValidator;
+    }
+
+    public void setKey(String key) {
+        Assert.hasText(key, "key cannot be empty");
+        this.key = key;
+    }
+
+    /**
+     * Set the mount path of the transit secrets engine, defaults to {@code transit}.
+     *
+     * @param transitPath
+     */
+    public void setTransitPath(String transitPath) {
+        Assert.hasText(transitPath, "transitPath cannot be empty");
+        this.transitPath = transitPath;
+    }
+
+    /**
+     * Verify signatures with the exported public keys of the transit key instead of calling Vault per token,
+     * needs read access to {@code <transit>/keys/<key>}.
+     *
+     * @param verifyLocally
+     */
+    public void setVerifyLocally(boolean verifyLocally) {
+        this.verifyLocally = verifyLocally;
+    }
+
+    /**
+     * Set the minimum time between two reads of the public keys triggered by unseen key versions.
+     *
+     * @param keyRefreshCooldown
+     */
+    public void setKeyRefreshCooldown(Duration keyRefreshCooldown) {
+        Assert.notNull(keyRefreshCooldown, "keyRefreshCooldown cannot be null");
+        this.keyRefreshCooldown = keyRefreshCooldown;
+    }
+
+    /**
+     * Set the number of certified keys kept, expired keys are evicted first when it is reached.
+     *
+     * @param maximumCertifiedKeys
+     */
+    public void setMaximumCertifiedKeys(int maximumCertifiedKeys) {
+        Assert.isTrue(maximumCertifiedKeys > 0, "maximumCertifiedKeys must be greater than 0");
+        this.maximumCertifiedKeys = maximumCertifiedKeys;
+    }
+
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        CompactJwt jwt = CompactJwt.parse(token);
+        if (KEY_CERTIFICATE_TYPE.equalsIgnoreCase(String.valueOf(jwt.getHeaders().get("typ")))) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "A key certificate is not an access token"));
+        }
+        Jwt createdJwt = jwt.getHeaders().containsKey(KEY_CERTIFICATE_HEADER) ? this.createJwtWithCertifiedKey(jwt) : this.createJwt(jwt);
+        return this.validateJwt(createdJwt);
+    }
+
+    /**
+     * Verifies a token signed with a local key of {@code VaultAnchoredJwtEncoder}, the key certificate is verified
+     * with the transit key the first time the {@code kid} is seen.
+     */
+    private Jwt createJwtWithCertifiedKey(CompactJwt parsedJwt) {
+        String keyId = parsedJwt.getKeyId();
+        if (keyId == null) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Missing kid"));
+        }
+        CertifiedKey certifiedKey = this.certifiedKeys.get(keyId);
+        if (certifiedKey == null || !this.clock.instant().isBefore(certifiedKey.expiresAt)) {
+            certifiedKey = this.certify(keyId, parsedJwt.getHeaders().get(KEY_CERTIFICATE_HEADER));
+        }
+        if (!certifiedKey.algorithm.equals(parsedJwt.getAlgorithm())) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "The algorithm does not match the certified key"));
+        }
+        boolean isValid;
+        try {
+            isValid = this.signatureVerifier.verify(parsedJwt, parsedJwt.getAlgorithm(), certifiedKey.publicKey, parsedJwt.getSignature());
+        } catch (GeneralSecurityException e) {
+            log.trace("Failed to process JWT", e);
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", e.getMessage()), e);
+        }
+        if (!isValid) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Token signature is not valid"));
+        }
+        return LeanJwtDecoder.createJwt(parsedJwt);
+    }
+
+    private CertifiedKey certify(String keyId, Object certificate) {
+        if (!(certificate instanceof String)) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Malformed key certificate"));
+        }
+        CompactJwt parsedCertificate = CompactJwt.parse((String) certificate);
+        if (!KEY_CERTIFICATE_TYPE.equalsIgnoreCase(String.valueOf(parsedCertificate.getHeaders().get("typ")))) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Malformed key certificate"));
+        }
+        // Verified with the transit key like any other Vault-signed token
+        Jwt certificateJwt = this.createJwt(parsedCertificate);
+        Instant expiresAt = certificateJwt.getExpiresAt();
+        if (!keyId.equals(certificateJwt.getSubject()) || expiresAt == null || !this.clock.instant().isBefore(expiresAt)) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "The key certificate is not valid for " + keyId));
+        }
+        JWK jwk;
+        PublicKey publicKey;
+        try {
+            jwk = certificateJwt.getClaims().get("jwk") instanceof Map<?, ?> ? JWK.parse(certificateJwt.<Map<String, Object>>getClaim("jwk")) : null;
+            publicKey = jwk instanceof AsymmetricJWK asymmetricJWK && !jwk.isPrivate() ? asymmetricJWK.toPublicKey() : null;
+        } catch (ParseException | JOSEException e) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Malformed key certificate"), e);
+        }
+        if (publicKey == null) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Malformed key certificate"));
+        }
+        // Without alg a key could verify tokens of any algorithm of its family, e.g. RS256 and PS256
+        if (jwk.getAlgorithm() == null) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "The key certificate does not name an algorithm"));
+        }
+        CertifiedKey certifiedKey = new CertifiedKey(publicKey, jwk.getAlgorithm().getName(), expiresAt);
+        if (this.certifiedKeys.size() >= this.maximumCertifiedKeys) {
+            this.evictCertifiedKeys();
+        }
+        this.certifiedKeys.put(keyId, certifiedKey);
+        return certifiedKey;
+    }
+
+    /**
+     * Removes the expired keys, or the key expiring first when none has expired.
+     */
+    private void evictCertifiedKeys() {
+        Instant now = this.clock.instant();
+        if (this.certifiedKeys.values().removeIf(certifiedKey -> !now.isBefore(certifiedKey.expiresAt))) {
+            return;
+        }
+        this.certifiedKeys.entrySet().stream()
+                .min(Map.Entry.comparingByValue(Comparator.comparing((CertifiedKey certifiedKey) -> certifiedKey.expiresAt)))
+                .ifPresent(eldest -> this.certifiedKeys.remove(eldest.getKey(), eldest.getValue()));
+    }
+
+    private Jwt createJwt(CompactJwt parsedJwt) {
+        try {
+            int keyVersion = this.keyVersion(parsedJwt);
+            boolean isValid = this.verifyLocally ? this.verifyLocally(parsedJwt, keyVersion) : this.verifyWithVault(parsedJwt, keyVersion);
+            if (!isValid) {
+                throw new JOSEException("Token signature is not valid");
+            }
+            // The claims are only decoded once the signature is valid
+            return LeanJwtDecoder.createJwt(parsedJwt);
+        } catch (JOSEException e) {
+            log.trace("Failed to process JWT", e);
+            throw new JwtException(String.format("An error occurred while attempting to decode the Jwt: %s", e.getMessage()), e);
+        } catch (JwtException e) {
+            throw e;
+        } catch (Exception e) {
+            log.trace("Failed to process JWT", e);
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * The transit key version from the {@code kid}, tokens without a {@code kid} were signed with version 1.
+     */
+    private int keyVersion(CompactJwt jwt) {
+        String keyId = jwt.getKeyId();
+        if (keyId == null) {
+            return 1;
+        }
+        String prefix = this.key + KEY_VERSION_SEPARATOR;
+        if (keyId.startsWith(prefix)) {
+            try {
+                int keyVersion = Integer.parseInt(keyId.substring(prefix.length()));
+                if (keyVersion > 0) {
+                    return keyVersion;
+                }
+            } catch (NumberFormatException e) {
+                // rejected below
+            }
+        }
+        throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Unknown key id " + keyId));
+    }
+
+    private boolean verifyWithVault(CompactJwt jwt, int keyVersion) {
+        String algorithm = jwt.getAlgorithm();
+        // RSA signatures are standard base64 in Vault, ECDSA signatures use the JWS encoding
+        String signature = algorithm.startsWith("ES") ? jwt.getEncodedSignature() : Base64.encode(jwt.getSignature()).toString();
+        Map<String, Object> request = new HashMap<>(signatureParameters(algorithm));
+        request.put("input", java.util.Base64.getEncoder().encodeToString(jwt.getSigningInput().getBytes(StandardCharsets.US_ASCII)));
+        request.put("signature", "vault:v" + keyVersion + ":" + signature);
+        VaultResponse response = this.vaultOperations.write(this.transitPath + "/verify/" + this.key, request);
+        return response != null && response.getData() != null && Boolean.TRUE.equals(response.getData().get("valid"));
+    }
+
+    private boolean verifyLocally(CompactJwt jwt, int keyVersion) throws GeneralSecurityException {
+        PublicKey publicKey = this.getPublicKey(keyVersion);
+        if (publicKey == null) {
+            throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Unknown key version " + keyVersion));
+        }
+        return this.signatureVerifier.verify(jwt, jwt.getAlgorithm(), publicKey, jwt.getSignature());
+    }
+
+    private PublicKey getPublicKey(int keyVersion) {
+        TransitPublicKeys publicKeys = this.publicKeys;
+        PublicKey publicKey = publicKeys.keys.get(keyVersion);
+        if (publicKey != null || keyVersion <= publicKeys.latestVersion) {
+            return publicKey;
+        }
+        return this.refreshPublicKeys(keyVersion);
+    }
+
+    /**
+     * Reads the public keys again for an unseen key version, at most once per cooldown.
+     */
+    private synchronized PublicKey refreshPublicKeys(int keyVersion) {
+        TransitPublicKeys publicKeys = this.publicKeys;
+        long now = this.clock.millis();
+        if (publicKeys.keys.containsKey(keyVersion) || publicKeys.refreshedAt != Long.MIN_VALUE
+                && now - publicKeys.refreshedAt < this.keyRefreshCooldown.toMillis()) {
+            return publicKeys.keys.get(keyVersion);
+        }
+        VaultResponse response = this.vaultOperations.read(this.transitPath + "/keys/" + this.key);
+        if (response == null || response.getData() == null) {
+            throw new JwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Transit key " + this.key + " not found"));
+        }
+        this.publicKeys = publicKeys = TransitPublicKeys.from(response.getData(), now);
+        return publicKeys.keys.get(keyVersion);
+    }
+
+    private static Map<String, Object> signatureParameters(String algorithm) {
+        String hashAlgorithm = switch (algorithm.substring(2)) {
+            case "256" -> "sha2-256";
+            case "384" -> "sha2-384";
+            case "512" -> "sha2-512";
+            default -> null;
+        };
+        if (hashAlgorithm != null && algorithm.startsWith("RS")) {
+            return Map.of("hash_algorithm", hashAlgorithm, "signature_algorithm", "pkcs1v15");
+        }
+        if (hashAlgorithm != null && algorithm.startsWith("ES")) {
+            return Map.of("hash_algorithm", hashAlgorithm, "marshaling_algorithm", "jws");
+        }
+        throw new BadJwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Unsupported algorithm " + algorithm));
+    }
+
+    private Jwt validateJwt(Jwt jwt) {
+        OAuth2TokenValidatorResult result = this.jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            Collection<OAuth2Error> errors = result.getErrors();
+            String validationErrorString = this.getJwtValidationExceptionMessage(errors);
+            throw new JwtValidationException(validationErrorString, errors);
+        } else {
+            return jwt;
+        }
+    }
+
+    private String getJwtValidationExceptionMessage(Collection<OAuth2Error> errors) {
+        Iterator iterator = errors.iterator();
+
+        OAuth2Error oAuth2Error;
+        do {
+            if (!iterator.hasNext()) {
+                return "Unable to validate Jwt";
+            }
+
+            oAuth2Error = (OAuth2Error) iterator.next();
+        } while (!StringUtils.hasText(oAuth2Error.getDescription()));
+
+        return String.format("An error occurred while attempting to decode the Jwt: %s", oAuth2Error.getDescription());
+    }
+
+    private static final class CertifiedKey {
+        private final PublicKey publicKey;
+        private final String algorithm;
+        private final Instant expiresAt;
+
+        private CertifiedKey(PublicKey publicKey, String algorithm, Instant expiresAt) {
+            this.publicKey = publicKey;
+            this.algorithm = algorithm;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * The public keys of a transit key by version.
+     */
+    private static final class TransitPublicKeys {
+        private final Map<Integer, PublicKey> keys;
+        private final int latestVersion;
+        private final long refreshedAt;
+
+        private TransitPublicKeys(Map<Integer, PublicKey> keys, int latestVersion, long refreshedAt) {
+            this.keys = keys;
+            this.latestVersion = latestVersion;
+            this.refreshedAt = refreshedAt;
+        }
+
+        /**
+         * @param data the data of {@code <transit>/keys/<key>}
+         */
+        static TransitPublicKeys from(Map<String, Object> data, long refreshedAt) {
+            String type = String.valueOf(data.get("type"));
+            String keyAlgorithm = type.startsWith("rsa-") ? "RSA" : type.startsWith("ecdsa-") ? "EC" : null;
+            if (keyAlgorithm == null) {
+                throw new JwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Unsupported transit key type " + type));
+            }
+            Map<Integer, PublicKey> keys = new HashMap<>();
+            int latestVersion = 0;
+            if (data.get("keys") instanceof Map<?, ?> versions) {
+                for (Map.Entry<?, ?> version : versions.entrySet()) {
+                    if (version.getValue() instanceof Map<?, ?> properties && properties.get("public_key") instanceof String pem) {
+                        int keyVersion = Integer.parseInt(String.valueOf(version.getKey()));
+                        keys.put(keyVersion, parsePublicKey(pem, keyAlgorithm));
+                        latestVersion = Math.max(latestVersion, keyVersion);
+                    }
+                }
+            }
+            if (data.get("latest_version") instanceof Number number) {
+                latestVersion = Math.max(latestVersion, number.intValue());
+            }
+            return new TransitPublicKeys(Collections.unmodifiableMap(keys), latestVersion, refreshedAt);
+        }
+
+        private static PublicKey parsePublicKey(String pem, String keyAlgorithm) {
+            String encoded = pem.replace("-----BEGIN PUBLIC KEY-----", "")
+                    .replace("-----END PUBLIC KEY-----", "")
+                    .replaceAll("\\s", "");
+            try {
+                return KeyFactory.getInstance(keyAlgorithm)
+                        .generatePublic(new X509EncodedKeySpec(java.util.Base64.getDecoder().decode(encoded)));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                throw new JwtException(String.format("An error occurred while attempting to decode the Jwt: %s", "Invalid transit public key: " + e.getMessage()), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.junit.jupiter.api.Test;
+
+import java.security.PublicKey;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author: ReLive27
+ * @date: 2026/10/18 10:55
+ */
+public class JWKSourceKeyResolverTest {
+
+    @Test
+    public void resolveWhenKeyIdMatchesThenReturnsSamePublicKeyInstance() throws Exception {
+        ECKey k1 = new ECKeyGenerator(Curve.P_256).keyID("k1").algorithm(JWSAlgorithm.ES256).generate();
+        ECKey k2 = new ECKeyGenerator(Curve.P_256).keyID("k2").generate();
+        JWKSourceKeyResolver keyResolver = new JWKSourceKeyResolver(new ImmutableJWKSet<>(new JWKSet(List.of(k1, k2))));
+
+        PublicKey publicKey = keyResolver.resolve("k2", "ES256");
+
+        assertEquals(k2.toECPublicKey(), publicKey);
+        assertSame(publicKey, keyResolver.resolve("k2", "ES256"));
+        assertEquals(k1.toECPublicKey(), keyResolver.resolve("k1", "ES256"));
+    }
+
+    @Test
+    public void resolveWhenKeyIdOrAlgorithmDoesNotMatchThenReturnsNull() throws Exception {
+        ECKey k1 = new ECKeyGenerator(Curve.P_256).keyID("k1").algorithm(JWSAlgorithm.ES256).generate();
+        JWKSourceKeyResolver keyResolver = new JWKSourceKeyResolver(new ImmutableJWKSet<>(new JWKSet(k1)));
+
+        assertNull(keyResolver.resolve("k3", "ES256"));
+        assertNull(keyResolver.resolve("k1", "ES384"));
+        assertNull(keyResolver.resolve("k1", "RS256"));
+        assertNull(keyResolver.resolve("k1", "HS256"));
+    }
+
+    @Test
+    public void decodeWhenKeysAreResolvedFromJWKSetThenVerified() throws Exception {
+        ECKey k1 = new ECKeyGenerator(Curve.P_256).keyID("k1").generate();
+        LeanJwtDecoder jwtDecoder = new LeanJwtDecoder(new JWKSourceKeyResolver(
+                new ImmutableJWKSet<>(new JWKSet(k1.toPublicJWK()))));
+        String token = LeanJwtDecoderTest.sign("{\"alg\":\"ES256\",\"kid\":\"k1\"}", LeanJwtDecoderTest.claims(), k1);
+
+        assertEquals("user", jwtDecoder.decode(token).getSubject());
+    }
+}
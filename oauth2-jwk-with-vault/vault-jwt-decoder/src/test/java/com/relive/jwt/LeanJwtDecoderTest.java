@@ -0,0 +1,161 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: ReLive27
+ * @date: 2026/10/18 10:40
+ */
+public class LeanJwtDecoderTest {
+    private static final String ES256_HEADER = "{\"alg\":\"ES256\",\"kid\":\"k1\"}";
+
+    private ECKey p256Key;
+
+    private LeanJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.p256Key = new ECKeyGenerator(Curve.P_256).keyID("k1").generate();
+        this.jwtDecoder = LeanJwtDecoder.withPublicKey(this.p256Key.toECPublicKey());
+    }
+
+    @Test
+    public void decodeWhenES256SignatureIsValidThenReturnsJwt() throws Exception {
+        Jwt jwt = this.jwtDecoder.decode(sign(ES256_HEADER, claims(), this.p256Key));
+
+        assertEquals("ES256", jwt.getHeaders().get("alg"));
+        assertEquals("k1", jwt.getHeaders().get("kid"));
+        assertEquals("user", jwt.getSubject());
+    }
+
+    @Test
+    public void decodeWhenES256SignatureIsZeroThenRejected() {
+        String token = withSignature(ES256_HEADER, new byte[64]);
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decodeWhenES256SignatureHasWrongLengthThenRejected() throws Exception {
+        String token = sign(ES256_HEADER, claims(), this.p256Key);
+        byte[] signature = new Base64URL(token.substring(token.lastIndexOf('.') + 1)).decode();
+        String truncated = withSignature(ES256_HEADER, Arrays.copyOf(signature, 63));
+        String padded = withSignature(ES256_HEADER, Arrays.copyOf(signature, 65));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(truncated));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(padded));
+    }
+
+    @Test
+    public void decodeWhenES256SignatureIsNotBelowCurveOrderThenRejected() throws Exception {
+        BigInteger order = this.p256Key.toECPublicKey().getParams().getOrder();
+        byte[] signature = new byte[64];
+        byte[] n = order.toByteArray();
+        // r = n, s = n
+        System.arraycopy(n, n.length - 32, signature, 0, 32);
+        System.arraycopy(n, n.length - 32, signature, 32, 32);
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(withSignature(ES256_HEADER, signature)));
+    }
+
+    @Test
+    public void decodeWhenKeyCurveDoesNotMatchAlgorithmThenRejected() throws Exception {
+        ECKey p384Key = new ECKeyGenerator(Curve.P_384).generate();
+        LeanJwtDecoder jwtDecoder = LeanJwtDecoder.withPublicKey(p384Key.toECPublicKey());
+        String token = sign(ES256_HEADER, claims(), this.p256Key);
+
+        BadJwtException exception = assertThrows(BadJwtException.class, () -> jwtDecoder.decode(token));
+        assertTrue(exception.getMessage().contains("curve"));
+    }
+
+    @Test
+    public void decodeWhenHeaderHasDuplicateMembersThenRejected() throws Exception {
+        String token = sign("{\"alg\":\"none\",\"alg\":\"ES256\"}", claims(), this.p256Key);
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decodeWhenHeaderHasEscapedMemberThenParsedAsJson() throws Exception {
+        String token = sign("{\"alg\":\"ES256\",\"kid\":\"k\\\"1\"}", claims(), this.p256Key);
+
+        assertEquals("k\"1", this.jwtDecoder.decode(token).getHeaders().get("kid"));
+    }
+
+    @Test
+    public void decodeWhenHeaderHasNonStringMemberThenParsedAsJson() throws Exception {
+        String token = sign("{\"alg\":\"ES256\",\"b64\":true}", claims(), this.p256Key);
+
+        assertEquals(true, this.jwtDecoder.decode(token).getHeaders().get("b64"));
+    }
+
+    @Test
+    public void decodeWhenHeaderIsMalformedThenRejected() {
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(withSignature("{\"alg\":\"ES256\"", new byte[64])));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(withSignature("{\"kid\":\"k1\"}", new byte[64])));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(withSignature("{\"alg\":1}", new byte[64])));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode("!!!." + encode(claims()) + ".AAAA"));
+    }
+
+    @Test
+    public void decodeWhenHeaderHasCriticalParametersThenRejected() throws Exception {
+        String token = sign("{\"alg\":\"ES256\",\"crit\":[\"exp\"],\"exp\":1}", claims(), this.p256Key);
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decodeWhenTokenHasWrongNumberOfPartsThenRejected() {
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode("a.b"));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode("a.b.c.d"));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(encode(ES256_HEADER) + "." + encode(claims()) + "."));
+    }
+
+    @Test
+    public void decodeWhenSignatureIsValidForAnotherPayloadThenRejected() throws Exception {
+        String token = sign(ES256_HEADER, claims(), this.p256Key);
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + encode("{\"sub\":\"admin\"}") + "." + parts[2];
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(tampered));
+    }
+
+    static String claims() {
+        long now = Instant.now().getEpochSecond();
+        return "{\"sub\":\"user\",\"iat\":" + now + ",\"exp\":" + (now + 300) + "}";
+    }
+
+    static String sign(String header, String claims, ECKey key) throws Exception {
+        String signingInput = encode(header) + "." + encode(claims);
+        ECDSASigner signer = new ECDSASigner(key);
+        Base64URL signature = signer.sign(new JWSHeader(JWSAlgorithm.ES256), signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + signature;
+    }
+
+    private static String withSignature(String header, byte[] signature) {
+        return encode(header) + "." + encode(claims()) + "." + Base64URL.encode(signature);
+    }
+
+    private static String encode(String json) {
+        return Base64URL.encode(json.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -0,0 +1,334 @@
+package com.relive.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.vault.core.VaultOperations;
+import org.springframework.vault.support.VaultResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: ReLive27
+ * @date: 2026/10/18 19:10
+ */
+public class VaultJwtDecoderTest {
+    private static final String KEYS_PATH = "transit/keys/oauth2";
+    private final Map<Integer, ECKey> transitKeys = new LinkedHashMap<>();
+    private Instant now = Instant.parse("2026-10-18T00:00:00Z");
+    private VaultOperations vaultOperations;
+    private VaultJwtDecoder jwtDecoder;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.transitKeys.put(1, new ECKeyGenerator(Curve.P_256).generate());
+        this.vaultOperations = mock(VaultOperations.class);
+        when(this.vaultOperations.read(KEYS_PATH)).thenAnswer(invocation -> this.transitKeyResponse());
+        this.jwtDecoder = new VaultJwtDecoder(this.vaultOperations);
+        this.jwtDecoder.setVerifyLocally(true);
+        this.setNow(this.now);
+    }
+
+    @Test
+    public void decodeWhenVerifiedLocallyThenPublicKeysAreReadOnce() throws Exception {
+        String token = sign(header("oauth2:v1"), claims("user"), this.transitKeys.get(1));
+
+        Jwt jwt = this.jwtDecoder.decode(token);
+        this.jwtDecoder.decode(token);
+
+        assertEquals("user", jwt.getSubject());
+        verify(this.vaultOperations, times(1)).read(KEYS_PATH);
+        verify(this.vaultOperations, never()).write(anyString(), anyMap());
+    }
+
+    @Test
+    public void decodeWhenNoKeyIdThenVerifiedWithVersionOne() throws Exception {
+        Map<String, Object> header = header(null);
+
+        Jwt jwt = this.jwtDecoder.decode(sign(header, claims("user"), this.transitKeys.get(1)));
+
+        assertEquals("user", jwt.getSubject());
+    }
+
+    @Test
+    public void decodeWhenSignedWithOtherKeyVersionThenRejected() throws Exception {
+        this.transitKeys.put(2, new ECKeyGenerator(Curve.P_256).generate());
+        // claims version 1, signed with version 2
+        String token = sign(header("oauth2:v1"), claims("user"), this.transitKeys.get(2));
+
+        assertThrows(JwtException.class, () -> this.jwtDecoder.decode(token));
+    }
+
+    @Test
+    public void decodeWhenKeyVersionIsNewThenPublicKeysAreReadAgainAfterCooldown() throws Exception {
+        this.jwtDecoder.decode(sign(header("oauth2:v1"), claims("user"), this.transitKeys.get(1)));
+        this.transitKeys.put(2, new ECKeyGenerator(Curve.P_256).generate());
+        String token = sign(header("oauth2:v2"), claims("user"), this.transitKeys.get(2));
+
+        // within the cooldown the unseen version is rejected without asking Vault
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(token));
+        verify(this.vaultOperations, times(1)).read(KEYS_PATH);
+
+        this.setNow(this.now.plus(Duration.ofSeconds(31)));
+        assertEquals("user", this.jwtDecoder.decode(token).getSubject());
+        verify(this.vaultOperations, times(2)).read(KEYS_PATH);
+    }
+
+    @Test
+    public void decodeWhenKeyVersionIsNotAboveLatestThenPublicKeysAreNotReadAgain() throws Exception {
+        this.transitKeys.put(2, new ECKeyGenerator(Curve.P_256).generate());
+        this.jwtDecoder.decode(sign(header("oauth2:v2"), claims("user"), this.transitKeys.get(2)));
+        this.setNow(this.now.plus(Duration.ofMinutes(5)));
+        // version 1 is known and verifies without a read, version 0 is never valid
+        this.jwtDecoder.decode(sign(header("oauth2:v1"), claims("user"), this.transitKeys.get(1)));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(header("oauth2:v0"), claims("user"), this.transitKeys.get(1))));
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(header("other:v1"), claims("user"), this.transitKeys.get(1))));
+        verify(this.vaultOperations, times(1)).read(KEYS_PATH);
+    }
+
+    @Test
+    public void decodeWhenVerifiedByVaultThenSignatureIsSentWithKeyVersion() throws Exception {
+        this.jwtDecoder.setVerifyLocally(false);
+        VaultResponse valid = new VaultResponse();
+        valid.setData(Map.of("valid", true));
+        when(this.vaultOperations.write(anyString(), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> request = invocation.getArgument(1);
+            return String.valueOf(request.get("signature")).startsWith("vault:v3:") ? valid : null;
+        });
+        String token = sign(header("oauth2:v3"), claims("user"), this.transitKeys.get(1));
+
+        assertEquals("user", this.jwtDecoder.decode(token).getSubject());
+        verify(this.vaultOperations).write(eq("transit/verify/oauth2"), anyMap());
+        verify(this.vaultOperations, never()).read(anyString());
+    }
+
+    @Test
+    public void decodeWhenKeyCertificateIsValidThenVerifiedWithCertifiedKey() throws Exception {
+        ECKey localKey = localKey("local-1");
+        String certificate = certificate(localKey, "local-1", this.now.plus(Duration.ofHours(1)), this.transitKeys.get(1));
+
+        Jwt jwt = this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey));
+
+        assertEquals("user", jwt.getSubject());
+    }
+
+    @Test
+    public void decodeWhenKeyCertificateIsForgedThenRejected() throws Exception {
+        ECKey localKey = localKey("local-1");
+        ECKey forgingKey = new ECKeyGenerator(Curve.P_256).generate();
+        String certificate = certificate(localKey, "local-1", this.now.plus(Duration.ofHours(1)), forgingKey);
+
+        assertThrows(JwtException.class, () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey)));
+    }
+
+    @Test
+    public void decodeWhenTokenIsNotSignedWithCertifiedKeyThenRejected() throws Exception {
+        ECKey localKey = localKey("local-1");
+        String certificate = certificate(localKey, "local-1", this.now.plus(Duration.ofHours(1)), this.transitKeys.get(1));
+        ECKey otherKey = localKey("local-1");
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), otherKey)));
+    }
+
+    @Test
+    public void decodeWhenKeyCertificateIsForOtherKeyIdThenRejected() throws Exception {
+        ECKey localKey = localKey("local-1");
+        String certificate = certificate(localKey, "local-2", this.now.plus(Duration.ofHours(1)), this.transitKeys.get(1));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey)));
+    }
+
+    @Test
+    public void decodeWhenKeyCertificateIsExpiredThenRejected() throws Exception {
+        ECKey localKey = localKey("local-1");
+        String certificate = certificate(localKey, "local-1", this.now, this.transitKeys.get(1));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey)));
+    }
+
+    @Test
+    public void decodeWhenCertifiedKeyExpiresThenCertificateIsVerifiedAgain() throws Exception {
+        ECKey localKey = localKey("local-1");
+        String certificate = certificate(localKey, "local-1", this.now.plus(Duration.ofMinutes(10)), this.transitKeys.get(1));
+        this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey));
+
+        this.setNow(this.now.plus(Duration.ofMinutes(11)));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey)));
+    }
+
+    @Test
+    public void decodeWhenAlgorithmDoesNotMatchCertifiedKeyThenRejected() throws Exception {
+        ECKey localKey = localKey("local-1");
+        String certificate = certificate(localKey, "local-1", this.now.plus(Duration.ofHours(1)), this.transitKeys.get(1));
+        Map<String, Object> header = certifiedHeader("local-1", certificate);
+        header.put("alg", "ES384");
+        String token = withAlgorithm(sign(certifiedHeader("local-1", certificate), claims("user"), localKey), header);
+
+        BadJwtException exception = assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(token));
+        assertEquals("An error occurred while attempting to decode the Jwt: The algorithm does not match the certified key", exception.getMessage());
+    }
+
+    @Test
+    public void decodeWhenKeyCertificateIsPresentedAsAccessTokenThenRejected() throws Exception {
+        String certificate = certificate(localKey("local-1"), "local-1", this.now.plus(Duration.ofHours(1)), this.transitKeys.get(1));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(certificate));
+    }
+
+    @Test
+    public void decodeWhenCertifiedKeyHasNoAlgorithmThenRejected() throws Exception {
+        ECKey localKey = new ECKeyGenerator(Curve.P_256).keyID("local-1").generate();
+        String certificate = certificate(localKey, "local-1", this.now.plus(Duration.ofHours(1)), this.transitKeys.get(1));
+
+        BadJwtException exception = assertThrows(BadJwtException.class,
+                () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", certificate), claims("user"), localKey)));
+        assertEquals("An error occurred while attempting to decode the Jwt: The key certificate does not name an algorithm", exception.getMessage());
+    }
+
+    @Test
+    public void decodeWhenCertifiedKeysFullThenExpiredKeysEvictedFirst() throws Exception {
+        this.jwtDecoder.setMaximumCertifiedKeys(3);
+        ECKey localKey = localKey("local");
+        this.certify(localKey, "local-0", this.now.plus(Duration.ofMinutes(10)));
+        this.certify(localKey, "local-1", this.now.plus(Duration.ofHours(1)));
+        this.certify(localKey, "local-2", this.now.plus(Duration.ofHours(1)));
+        this.setNow(this.now.plus(Duration.ofMinutes(11)));
+
+        this.certify(localKey, "local-3", this.now.plus(Duration.ofHours(1)));
+
+        // still certified keys are used without their certificate
+        assertEquals("user", this.jwtDecoder.decode(sign(certifiedHeader("local-1", "invalid"), claims("user"), localKey)).getSubject());
+        assertEquals("user", this.jwtDecoder.decode(sign(certifiedHeader("local-2", "invalid"), claims("user"), localKey)).getSubject());
+    }
+
+    @Test
+    public void decodeWhenCertifiedKeysFullAndNoneExpiredThenKeyExpiringFirstEvicted() throws Exception {
+        this.jwtDecoder.setMaximumCertifiedKeys(3);
+        ECKey localKey = localKey("local");
+        this.certify(localKey, "local-0", this.now.plus(Duration.ofHours(1)));
+        this.certify(localKey, "local-1", this.now.plus(Duration.ofMinutes(30)));
+        this.certify(localKey, "local-2", this.now.plus(Duration.ofHours(1)));
+
+        this.certify(localKey, "local-3", this.now.plus(Duration.ofHours(1)));
+
+        assertThrows(BadJwtException.class, () -> this.jwtDecoder.decode(sign(certifiedHeader("local-1", "invalid"), claims("user"), localKey)));
+        assertEquals("user", this.jwtDecoder.decode(sign(certifiedHeader("local-0", "invalid"), claims("user"), localKey)).getSubject());
+    }
+
+    private void certify(ECKey localKey, String keyId, Instant expiresAt) throws Exception {
+        String certificate = certificate(localKey, keyId, expiresAt, this.transitKeys.get(1));
+        this.jwtDecoder.decode(sign(certifiedHeader(keyId, certificate), claims("user"), localKey));
+    }
+
+    private void setNow(Instant now) {
+        this.now = now;
+        Clock clock = Clock.fixed(now, ZoneOffset.UTC);
+        this.jwtDecoder.setClock(clock);
+        JwtTimestampValidator jwtValidator = new JwtTimestampValidator(Duration.ZERO);
+        jwtValidator.setClock(clock);
+        this.jwtDecoder.setJwtValidator(jwtValidator);
+    }
+
+    private VaultResponse transitKeyResponse() throws Exception {
+        Map<String, Object> keys = new HashMap<>();
+        for (Map.Entry<Integer, ECKey> transitKey : this.transitKeys.entrySet()) {
+            String pem = "-----BEGIN PUBLIC KEY-----\n"
+                    + Base64.getMimeEncoder().encodeToString(transitKey.getValue().toECPublicKey().getEncoded())
+                    + "\n-----END PUBLIC KEY-----\n";
+            keys.put(String.valueOf(transitKey.getKey()), Map.of("public_key", pem));
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "ecdsa-p256");
+        data.put("latest_version", this.transitKeys.size());
+        data.put("keys", keys);
+        VaultResponse response = new VaultResponse();
+        response.setData(data);
+        return response;
+    }
+
+    static Map<String, Object> header(String keyId) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "ES256");
+        if (keyId != null) {
+            header.put("kid", keyId);
+        }
+        return header;
+    }
+
+    Map<String, Object> claims(String subject) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", subject);
+        claims.put("iat", this.now.getEpochSecond());
+        claims.put("exp", this.now.plus(Duration.ofHours(1)).getEpochSecond());
+        return claims;
+    }
+
+    static String sign(Map<String, Object> header, Map<String, Object> claims, ECKey key) throws Exception {
+        JWSObject jwsObject = new JWSObject(JWSHeader.parse(header), new Payload(claims));
+        jwsObject.sign(new ECDSASigner(key));
+        return jwsObject.serialize();
+    }
+
+    private static ECKey localKey(String keyId) throws Exception {
+        return new ECKeyGenerator(Curve.P_256).keyID(keyId).algorithm(JWSAlgorithm.ES256).generate();
+    }
+
+    private static Map<String, Object> certifiedHeader(String keyId, String certificate) {
+        Map<String, Object> header = header(keyId);
+        header.put("key_cert", certificate);
+        return header;
+    }
+
+    /**
+     * The key certificate of {@code VaultAnchoredJwtEncoder}, signed by the transit key.
+     */
+    private String certificate(ECKey localKey, String subject, Instant expiresAt, ECKey transitKey) throws Exception {
+        Map<String, Object> header = header(null);
+        header.put("typ", "vault-key+jwt");
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", subject);
+        claims.put("iat", this.now.getEpochSecond());
+        claims.put("exp", expiresAt.getEpochSecond());
+        claims.put("jwk", localKey.toPublicJWK().toJSONObject());
+        return sign(header, claims, transitKey);
+    }
+
+    /**
+     * Replaces the header of a signed token, keeping its payload and signature.
+     */
+    private static String withAlgorithm(String token, Map<String, Object> header) throws Exception {
+        String encodedHeader = JWSHeader.parse(header).toBase64URL().toString();
+        return encodedHeader + token.substring(token.indexOf('.'));
+    }
+}
@@ -1,9 +1,14 @@
 package com.relive.config;
 
+import com.relive.jose.jwk.source.JwkSetUriJWKSource;
+import com.relive.jwt.JwkSetUriJwtDecoders;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.oauth2.server.resource.OAuth2ResourceServerConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 /**
@@ -23,4 +28,17 @@ public class SecurityConfig {
                 .oauth2ResourceServer(OAuth2ResourceServerConfigurer::jwt);
         return http.build();
     }
+
+    /**
+     * {@link JwtDecoder} whose key set refreshes on unknown kids are limited by the {@link JwkSetUriJWKSource}
+     *
+     * @param properties
+     * @param builder
+     * @return
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(OAuth2ResourceServerProperties properties, RestTemplateBuilder builder) {
+        return JwkSetUriJwtDecoders.fromJwkSetUri(properties.getJwt().getJwkSetUri(), builder.build(),
+                properties.getJwt().getJwsAlgorithms());
+    }
 }